@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splitting HashMap.java (2,444 lines, no TODOs) into lines and looking
+ * for markers in them: readLine() plus the tab replacement, as TodoParser
+ * did, versus the {@link LineScanner}. Run with the gc profiler, the
+ * scanner allocates the same per file however many lines it has. The
+ * scanner reads the file through an InputStreamReader or through the
+ * {@link SourceReader}, which sniffs the charset: both should cost the
+ * same, as both decode with the JDK's UTF-8 decoder. Reading the file
+ * through the SourceReader alone, without scanning it, tells how much of
+ * a scan decoding takes.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineBenchmark {
+
+    /**
+     * Raw bytes of the file.
+     */
+    private byte[] bytes;
+
+    /**
+     * The automaton.
+     */
+    private final MarkerAutomaton automaton = new MarkerAutomaton();
+
+    /**
+     * Reads the fixture.
+     * @throws IOException If something goes wrong.
+     */
+    @Setup
+    public void setup() throws IOException {
+        this.bytes = Files.readAllBytes(
+            Paths.get("src/test/resources/HashMap.java")
+        );
+    }
+
+    /**
+     * Every line as a String, with its tabs replaced.
+     * @return Lines with a marker.
+     * @throws IOException If something goes wrong.
+     */
+    @Benchmark
+    public int readLine() throws IOException {
+        int found = 0;
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(new ByteArrayInputStream(this.bytes))
+        )) {
+            String line = reader.readLine();
+            while (line != null) {
+                line = line.replace("\t", " ".repeat(LineScanner.TAB));
+                if (this.automaton.find(line, 0, line.length()) >= 0) {
+                    ++found;
+                }
+                line = reader.readLine();
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Every line as a view over the buffer of the scanner, decoded by the
+     * JDK.
+     * @return Lines with a marker.
+     * @throws IOException If something goes wrong.
+     */
+    @Benchmark
+    public int lineScanner() throws IOException {
+        return this.scan(
+            new InputStreamReader(
+                new ByteArrayInputStream(this.bytes), StandardCharsets.UTF_8
+            )
+        );
+    }
+
+    /**
+     * Every line as a view over the buffer of the scanner, read by the
+     * {@link SourceReader}.
+     * @return Lines with a marker.
+     * @throws IOException If something goes wrong.
+     */
+    @Benchmark
+    public int sourceReader() throws IOException {
+        return this.scan(
+            new SourceReader(new ByteArrayInputStream(this.bytes))
+        );
+    }
+
+    /**
+     * Only the characters read by the {@link SourceReader}, no lines.
+     * @return Characters read.
+     * @throws IOException If something goes wrong.
+     */
+    @Benchmark
+    public int decodeOnly() throws IOException {
+        int count = 0;
+        try (Reader reader = new SourceReader(
+            new ByteArrayInputStream(this.bytes)
+        )) {
+            final char[] chars = new char[8192];
+            int read = reader.read(chars);
+            while (read >= 0) {
+                count += read;
+                read = reader.read(chars);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Scans the lines of the reader, looking for markers.
+     * @param input Characters of the file, closed afterwards.
+     * @return Lines with a marker.
+     * @throws IOException If something goes wrong.
+     */
+    private int scan(final Reader input) throws IOException {
+        int found = 0;
+        try (Reader reader = input) {
+            final LineScanner line = new LineScanner(reader);
+            while (line.next()) {
+                if (this.automaton.find(line, 0, line.length()) >= 0) {
+                    ++found;
+                }
+            }
+        }
+        return found;
+    }
+}
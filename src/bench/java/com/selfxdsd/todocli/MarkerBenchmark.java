@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Rejecting the lines of HashMap.java (2,444 lines, no TODOs) with the
+ * original TODO regex versus the {@link MarkerAutomaton}. Lines carry a
+ * git blame header, as they do when TodoParser reads them.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class MarkerBenchmark {
+
+    /**
+     * The TODO regex, as it was before the automaton.
+     */
+    private static final Pattern REGEX = Pattern.compile(
+        "^.*\\((.+)\\s+(\\d{4}-\\d{2}-\\d{2}\\s\\d{2}:\\d{2}:\\d{2}\\s\\+\\d{4})"
+            + "\\s+\\d+\\)\\s"
+            + "\\W*(@todo|TODO|@fixme|FIXME)\\s*(#\\d+:\\d+(m|min|mins))\\b(.*)"
+            + "$"
+    );
+
+    /**
+     * Blamed lines.
+     */
+    private final List<String> lines = new ArrayList<>();
+
+    /**
+     * Raw bytes of the file.
+     */
+    private ByteBuffer bytes;
+
+    /**
+     * The automaton.
+     */
+    private final MarkerAutomaton automaton = new MarkerAutomaton();
+
+    /**
+     * Reads the fixture.
+     * @throws IOException If something goes wrong.
+     */
+    @Setup
+    public void setup() throws IOException {
+        final List<String> source = Files.readAllLines(
+            Paths.get("src/test/resources/HashMap.java")
+        );
+        for (int idx = 0; idx < source.size(); ++idx) {
+            this.lines.add(
+                String.format(
+                    "^e76a2ce (Some Author 2021-01-18 12:29:17 +0200 %4d) %s",
+                    idx + 1, source.get(idx)
+                )
+            );
+        }
+        this.bytes = ByteBuffer.wrap(
+            Files.readAllBytes(Paths.get("src/test/resources/HashMap.java"))
+        );
+    }
+
+    /**
+     * Every line through the regex.
+     * @return Lines with a TODO.
+     */
+    @Benchmark
+    public int regexPerLine() {
+        int found = 0;
+        for (final String line : this.lines) {
+            if (REGEX.matcher(line).find()) {
+                ++found;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Every line through the automaton.
+     * @return Lines with a marker.
+     */
+    @Benchmark
+    public int automatonPerLine() {
+        int found = 0;
+        for (final String line : this.lines) {
+            if (this.automaton.find(line, 0, line.length()) >= 0) {
+                ++found;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * The whole file, as raw bytes, through the automaton.
+     * @return Index of the first marker.
+     */
+    @Benchmark
+    public int automatonWholeFile() {
+        return this.automaton.find(this.bytes, 0, this.bytes.limit());
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Recognizing the TODOs at every marker of the fixtures in
+ * src/test/resources, as TodoParser does once the automaton found them:
+ * the TODO regex versus the {@link TodoRecognizer}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecognizerBenchmark {
+
+    /**
+     * The TODO regex, as it was before the recognizer.
+     */
+    private static final Pattern REGEX = Pattern.compile(
+        "(@todo|TODO|@fixme|FIXME)\\s*(#\\d+:\\d+(m|min|mins))\\b(.*)$"
+    );
+
+    /**
+     * Lines with a marker.
+     */
+    private final List<String> lines = new ArrayList<>();
+
+    /**
+     * Where the markers start, in the same order as the lines.
+     */
+    private final List<Integer> starts = new ArrayList<>();
+
+    /**
+     * The automaton.
+     */
+    private final MarkerAutomaton automaton = new MarkerAutomaton();
+
+    /**
+     * The recognizer.
+     */
+    private final TodoRecognizer recognizer = new TodoRecognizer(
+        this.automaton
+    );
+
+    /**
+     * Reads the fixtures and finds their markers.
+     * @throws IOException If something goes wrong.
+     */
+    @Setup
+    public void setup() throws IOException {
+        final List<Path> files;
+        try (Stream<Path> found = Files.walk(Paths.get("src/test/resources"))) {
+            files = found.filter(Files::isRegularFile)
+                .collect(Collectors.toList());
+        }
+        for (final Path file : files) {
+            for (final String line : Files.readAllLines(
+                file, StandardCharsets.UTF_8
+            )) {
+                for (int idx = 0; idx < line.length(); ++idx) {
+                    if (this.automaton.markerAt(line, idx) > 0) {
+                        this.lines.add(line);
+                        this.starts.add(idx);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Every marker through the regex.
+     * @return TODOs found.
+     */
+    @Benchmark
+    public int regex() {
+        int found = 0;
+        for (int idx = 0; idx < this.lines.size(); ++idx) {
+            final String line = this.lines.get(idx);
+            if (REGEX.matcher(line).region(this.starts.get(idx), line.length())
+                .lookingAt()) {
+                ++found;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Every marker through the recognizer.
+     * @return TODOs found.
+     */
+    @Benchmark
+    public int recognizer() {
+        int found = 0;
+        for (int idx = 0; idx < this.lines.size(); ++idx) {
+            if (this.recognizer.recognize(
+                this.lines.get(idx), this.starts.get(idx)
+            )) {
+                ++found;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Who wrote a line and when, as reported by git blame.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class Attribution {
+
+    /**
+     * Author of the lines which are not committed yet.
+     */
+    static final String NOT_COMMITTED = "Not Committed Yet";
+
+    /**
+     * Format of the timestamp, the same as the default one of git blame.
+     */
+    private static final DateTimeFormatter FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss Z");
+
+    /**
+     * The author.
+     */
+    private final String author;
+
+    /**
+     * Timestamp, in the author's time zone.
+     */
+    private final String timestamp;
+
+    /**
+     * Ctor.
+     * @param author Author.
+     * @param time Author time, in seconds since the epoch.
+     * @param zone Author time zone, such as +0200.
+     */
+    public Attribution(
+        final String author, final long time, final String zone
+    ) {
+        this(
+            author,
+            Instant.ofEpochSecond(time).atOffset(ZoneOffset.of(zone))
+                .format(FORMAT)
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param author Author.
+     * @param timestamp Formatted timestamp.
+     */
+    public Attribution(final String author, final String timestamp) {
+        this.author = author;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * The author.
+     * @return Author name.
+     */
+    public String author() {
+        return this.author;
+    }
+
+    /**
+     * Is the line committed? The lines changed in the working tree are
+     * attributed to nobody yet, at the time they were blamed.
+     * @return True or false.
+     */
+    public boolean committed() {
+        return !NOT_COMMITTED.equals(this.author);
+    }
+
+    /**
+     * The timestamp, such as "2020-12-15 14:39:07 +0200".
+     * @return Timestamp.
+     */
+    public String timestamp() {
+        return this.timestamp;
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where the authors and timestamps of the TODOs come from.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public interface Attributions {
+
+    /**
+     * Attributes the first lines of the given TODOs.
+     * @param path Path to the file.
+     * @param todos TODOs found in the file, in order.
+     * @return Attribution of the lines, by line number; lines which cannot
+     *  be attributed (e.g. the file is not tracked) are missing.
+     * @throws IOException If the history cannot be read.
+     */
+    Map<Integer, Attribution> attribute(String path, List<Todo> todos)
+        throws IOException;
+
+    /**
+     * Attributes the first lines of the given TODOs, found in the given
+     * content of a file, which may be used instead of reading the file
+     * again.
+     * @param source Content of the file, as it was parsed.
+     * @param todos TODOs found in the file, in order.
+     * @return Attribution of the lines, by line number; lines which cannot
+     *  be attributed (e.g. the file is not tracked) are missing.
+     * @throws IOException If the history cannot be read.
+     */
+    default Map<Integer, Attribution> attribute(
+        final TodoSource source, final List<Todo> todos
+    ) throws IOException {
+        return this.attribute(source.path(), todos);
+    }
+}
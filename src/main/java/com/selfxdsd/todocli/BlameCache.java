@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Blames kept on disk, from one run to the next: one small file per key,
+ * named after the SHA-1 of the key and holding a line per attribution
+ * (number, timestamp and author, separated by tabs). Whenever the files
+ * take more than the given size, the least recently used ones are deleted
+ * until they take three quarters of it; reading a file counts as using it.
+ * <br><br>
+ * The cache is only an optimization: if it cannot be read, it misses; if
+ * it cannot be written, it forgets. It is thread-safe, and several runs may
+ * share it, since the files are replaced atomically.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+final class BlameCache {
+
+    /**
+     * Default size of the cache, in bytes.
+     */
+    static final long DEFAULT_SIZE = 64L * 1024 * 1024;
+
+    /**
+     * Directory of the files.
+     */
+    private final Path dir;
+
+    /**
+     * How many bytes the files may take.
+     */
+    private final long limit;
+
+    /**
+     * Guards the size and the eviction.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * How many bytes the files take, -1 until they are measured.
+     */
+    private long size = -1;
+
+    /**
+     * Ctor.
+     * @param dir Directory of the files, created if needed.
+     * @param limit How many bytes the files may take.
+     */
+    BlameCache(final Path dir, final long limit) {
+        this.dir = dir;
+        this.limit = limit;
+    }
+
+    /**
+     * The attributions kept under a key.
+     * @param key Key.
+     * @return Attributions, by line number; null if they are not kept.
+     */
+    Map<Integer, Attribution> get(final String key) {
+        final Path file = this.file(key);
+        Map<Integer, Attribution> lines = null;
+        try {
+            final List<String> text = Files.readAllLines(
+                file, StandardCharsets.UTF_8
+            );
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            lines = BlameCache.parse(text);
+        } catch (final IOException | NumberFormatException exception) {
+            lines = null;
+        }
+        return lines;
+    }
+
+    /**
+     * Keeps the attributions under a key.
+     * @param key Key.
+     * @param lines Attributions, by line number.
+     */
+    void put(final String key, final Map<Integer, Attribution> lines) {
+        final StringBuilder text = new StringBuilder();
+        for (final Map.Entry<Integer, Attribution> line : lines.entrySet()) {
+            text.append(line.getKey()).append('\t')
+                .append(line.getValue().timestamp()).append('\t')
+                .append(line.getValue().author()).append('\n');
+        }
+        final byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        final Path file = this.file(key);
+        Path temp = file;
+        try {
+            Files.createDirectories(file.getParent());
+            temp = Files.createTempFile(file.getParent(), "blame", ".tmp");
+            Files.write(temp, bytes);
+            Files.move(
+                temp, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE
+            );
+            this.grown(bytes.length);
+        } catch (final IOException exception) {
+            this.forget(temp);
+        }
+    }
+
+    /**
+     * How many bytes the files take, as far as this cache knows.
+     * @return Bytes.
+     */
+    long size() {
+        synchronized (this.lock) {
+            return Math.max(this.size, 0);
+        }
+    }
+
+    /**
+     * Accounts for a new file, evicting the least recently used ones if
+     * the files take too much space now.
+     * @param bytes Size of the new file.
+     * @throws IOException If the directory cannot be listed.
+     */
+    private void grown(final long bytes) throws IOException {
+        synchronized (this.lock) {
+            if (this.size < 0) {
+                this.size = 0;
+                for (final Path file : this.files()) {
+                    this.size += Files.size(file);
+                }
+            } else {
+                this.size += bytes;
+            }
+            if (this.size > this.limit) {
+                this.evict();
+            }
+        }
+    }
+
+    /**
+     * Deletes the least recently used files, until they take three
+     * quarters of the limit. Must be called holding the lock.
+     * @throws IOException If the directory cannot be listed.
+     */
+    private void evict() throws IOException {
+        final Map<Path, FileTime> used = new HashMap<>();
+        for (final Path file : this.files()) {
+            used.put(file, Files.getLastModifiedTime(file));
+        }
+        final List<Path> files = new ArrayList<>(used.keySet());
+        files.sort(Comparator.comparing(used::get));
+        long total = 0;
+        for (final Path file : files) {
+            total += Files.size(file);
+        }
+        for (final Path file : files) {
+            if (total > this.limit / 4 * 3) {
+                total -= Files.size(file);
+                this.forget(file);
+            }
+        }
+        this.size = total;
+    }
+
+    /**
+     * The files of the cache.
+     * @return Paths.
+     * @throws IOException If the directory cannot be listed.
+     */
+    private List<Path> files() throws IOException {
+        List<Path> files = List.of();
+        if (Files.isDirectory(this.dir)) {
+            try (Stream<Path> walk = Files.walk(this.dir)) {
+                files = walk.filter(Files::isRegularFile)
+                    .collect(Collectors.toList());
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Deletes a file, if it can.
+     * @param file File.
+     */
+    private void forget(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (final IOException exception) {
+            file.toFile().deleteOnExit();
+        }
+    }
+
+    /**
+     * The file of a key: its SHA-1, split like the git loose objects.
+     * @param key Key.
+     * @return File.
+     */
+    private Path file(final String key) {
+        final MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-1");
+        } catch (final NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+        final String hex = ObjectStore.hex(
+            sha.digest(key.getBytes(StandardCharsets.UTF_8)), 0
+        );
+        return this.dir.resolve(hex.substring(0, 2)).resolve(hex.substring(2));
+    }
+
+    /**
+     * Parses the lines of a file.
+     * @param text Lines: number, timestamp and author, tab-separated.
+     * @return Attributions, by line number.
+     */
+    private static Map<Integer, Attribution> parse(final List<String> text) {
+        final Map<Integer, Attribution> lines = new HashMap<>();
+        for (final String line : text) {
+            final String[] parts = line.split("\t", 3);
+            if (parts.length < 3) {
+                throw new NumberFormatException("Bad cache line: " + line);
+            }
+            lines.put(
+                Integer.valueOf(parts[0]),
+                new Attribution(parts[2], parts[1])
+            );
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Output of git blame --porcelain. Each blamed line comes as a header with
+ * the commit and the line numbers, followed by the line's content prefixed
+ * by a tab. The commit's details (author, author-time, author-tz etc) are
+ * given only after the first line of that commit, so they are read and
+ * formatted once per commit and every line refers to its commit's
+ * attribution.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+final class BlamePorcelain {
+
+    /**
+     * The output of git blame.
+     */
+    private final BufferedReader reader;
+
+    /**
+     * Ctor.
+     * @param reader The output of git blame --porcelain.
+     */
+    BlamePorcelain(final BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the output.
+     * @return Attribution of each blamed line, by final line number.
+     * @throws IOException If the output cannot be read.
+     */
+    Map<Integer, Attribution> lines() throws IOException {
+        final Map<Integer, Attribution> lines = new HashMap<>();
+        final Map<String, Attribution> commits = new HashMap<>();
+        final Map<String, String> details = new HashMap<>();
+        String[] header = null;
+        String line = this.reader.readLine();
+        while (line != null) {
+            if (line.startsWith("\t")) {
+                lines.put(
+                    Integer.parseInt(header[2]),
+                    commits.computeIfAbsent(
+                        header[0], sha -> this.attribution(details)
+                    )
+                );
+                details.clear();
+                header = null;
+            } else if (header == null) {
+                header = line.split(" ");
+            } else {
+                final int space = line.indexOf(' ');
+                if (space > 0) {
+                    details.put(
+                        line.substring(0, space), line.substring(space + 1)
+                    );
+                }
+            }
+            line = this.reader.readLine();
+        }
+        return lines;
+    }
+
+    /**
+     * Attribution of a commit, from its details.
+     * @param details Details of the commit, by key.
+     * @return Attribution.
+     */
+    private Attribution attribution(final Map<String, String> details) {
+        return new Attribution(
+            details.get("author"),
+            Long.parseLong(details.get("author-time")),
+            details.get("author-tz")
+        );
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link Attributions} kept in a {@link BlameCache}, so an unchanged file
+ * is not blamed again by the next runs. The key is the path of the file in
+ * its repository, the id of its content as a blob and the HEAD commit: the
+ * blame of the same content at the same commit is always the same. When a
+ * commit is scanned instead of the working tree, the path and the commit
+ * are enough. The lines which are not committed yet are blamed at the
+ * time of the run, so a blame having any of them is not kept.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+final class CachedAttributions implements Attributions {
+
+    /**
+     * Attributions blaming the files missing from the cache.
+     */
+    private final Attributions origin;
+
+    /**
+     * The cache.
+     */
+    private final BlameCache cache;
+
+    /**
+     * Id of the commit whose files are blamed, null for the working tree.
+     */
+    private final String rev;
+
+    /**
+     * HEAD commits, by git directory: they do not move during a run.
+     */
+    private final Map<Path, String> heads = new ConcurrentHashMap<>();
+
+    /**
+     * Ctor.
+     * @param origin Attributions blaming the files missing from the cache.
+     * @param cache The cache.
+     * @param rev Id of the commit whose files are blamed, null for the
+     *  working tree.
+     */
+    CachedAttributions(
+        final Attributions origin, final BlameCache cache, final String rev
+    ) {
+        this.origin = origin;
+        this.cache = cache;
+        this.rev = rev;
+    }
+
+    @Override
+    public Map<Integer, Attribution> attribute(
+        final String path, final List<Todo> todos
+    ) throws IOException {
+        return this.attribute(TodoSource.file(Paths.get(path)), todos);
+    }
+
+    @Override
+    public Map<Integer, Attribution> attribute(
+        final TodoSource source, final List<Todo> todos
+    ) throws IOException {
+        final String key = this.key(
+            Paths.get(source.path()).toAbsolutePath().normalize(), source
+        );
+        Map<Integer, Attribution> lines = null;
+        if (key != null) {
+            lines = this.cache.get(key);
+        }
+        if (lines == null || !CachedAttributions.covers(lines, todos)) {
+            lines = this.origin.attribute(source, todos);
+            if (key != null && CachedAttributions.settled(lines)) {
+                this.cache.put(key, lines);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Key of a file in the cache.
+     * @param file File.
+     * @param source Its content.
+     * @return Key or null if the file is not in a repository with commits.
+     * @throws IOException If the file cannot be read.
+     */
+    private String key(final Path file, final TodoSource source)
+        throws IOException {
+        final GitRepository repo = CachedAttributions.repository(file);
+        String key = null;
+        if (repo != null) {
+            final StringBuilder relative = new StringBuilder();
+            for (final Path name : repo.worktree().relativize(file)) {
+                if (relative.length() > 0) {
+                    relative.append('/');
+                }
+                relative.append(name);
+            }
+            if (this.rev != null) {
+                key = String.join("\0", relative, this.rev);
+            } else if (this.head(repo) != null) {
+                String blob = source.blobId();
+                if (blob == null) {
+                    blob = GitObject.blobId(Files.readAllBytes(file));
+                }
+                key = String.join("\0", relative, blob, this.head(repo));
+            }
+        }
+        return key;
+    }
+
+    /**
+     * The HEAD commit of a repository.
+     * @param repo Repository.
+     * @return Id or null if there are no commits yet.
+     */
+    private String head(final GitRepository repo) {
+        String head = this.heads.get(repo.gitDir());
+        if (head == null) {
+            try {
+                head = repo.resolve("HEAD");
+                this.heads.put(repo.gitDir(), head);
+            } catch (final IOException exception) {
+                head = null;
+            }
+        }
+        return head;
+    }
+
+    /**
+     * The repository of the file.
+     * @param file File.
+     * @return Repository or null if the file is not in one.
+     */
+    private static GitRepository repository(final Path file) {
+        GitRepository repo;
+        try {
+            repo = GitRepository.find(file.getParent());
+        } catch (final IOException exception) {
+            repo = null;
+        }
+        return repo;
+    }
+
+    /**
+     * Checks if the attributions cover the first lines of the TODOs.
+     * @param lines Attributions, by line number.
+     * @param todos TODOs.
+     * @return True or false.
+     */
+    private static boolean covers(
+        final Map<Integer, Attribution> lines, final List<Todo> todos
+    ) {
+        boolean covers = true;
+        for (final Todo todo : todos) {
+            covers = covers && lines.containsKey(todo.getStart());
+        }
+        return covers;
+    }
+
+    /**
+     * Checks if the attributions may be kept: there are some and all of
+     * them are committed lines.
+     * @param lines Attributions, by line number.
+     * @return True or false.
+     */
+    private static boolean settled(final Map<Integer, Attribution> lines) {
+        boolean committed = !lines.isEmpty();
+        for (final Attribution line : lines.values()) {
+            committed = committed && line.committed();
+        }
+        return committed;
+    }
+}
@@ -0,0 +1,541 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Finds the comments of the lines of a file, so TODOs are looked for only
+ * there. The syntax is chosen by the extension of the file, among a few
+ * families: C-style (//, &#47;* *&#47;, with the strings of JavaScript,
+ * Go or Rust), PHP and Terraform (#, //, &#47;* *&#47;), hash (#, and the
+ * Python docstrings), Ruby (#, =begin =end), YAML (#), XML
+ * (&lt;!-- --&gt;), SQL (--, &#47;* *&#47;) and Lua (--, --[[ ]]). Each is
+ * a table of tokens (comments and strings, with what opens and closes
+ * them), so a comment opener inside a string is not taken for a comment.
+ * A file of any other kind is all comment, as if there was no lexer: so
+ * are HTML files, whose scripts and styles have other comments, and Perl
+ * files, whose POD blocks start with any line beginning with =.<br><br>
+ * The lines are fed in order, since a block comment or a string may span
+ * several of them. The code between the tokens is skipped with a lookup
+ * of each character in the table of the characters opening a token.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+final class CommentLexer {
+
+    /**
+     * Characters which can open a token are below this.
+     */
+    private static final int ASCII = 128;
+
+    /**
+     * No escape character.
+     */
+    private static final char NONE = 0;
+
+    /**
+     * What opens a C-style block comment.
+     */
+    private static final String BLOCK_OPENER = "/*";
+
+    /**
+     * What closes a C-style block comment.
+     */
+    private static final String BLOCK_CLOSER = "*/";
+
+    /**
+     * C-style syntax.
+     */
+    private static final List<Token> C_STYLE = List.of(
+        Token.line("//"), Token.block(BLOCK_OPENER, BLOCK_CLOSER),
+        Token.string("\"\"\"", "\"\"\"", '\\', true),
+        Token.string("\"", "\"", '\\', false),
+        Token.string("'", "'", '\\', false)
+    );
+
+    /**
+     * JavaScript and TypeScript syntax: C-style, with template literals.
+     */
+    private static final List<Token> JS = List.of(
+        Token.line("//"), Token.block(BLOCK_OPENER, BLOCK_CLOSER),
+        Token.string("`", "`", '\\', true),
+        Token.string("\"", "\"", '\\', false),
+        Token.string("'", "'", '\\', false)
+    );
+
+    /**
+     * Go syntax: C-style, with raw strings.
+     */
+    private static final List<Token> GO = List.of(
+        Token.line("//"), Token.block(BLOCK_OPENER, BLOCK_CLOSER),
+        Token.string("`", "`", NONE, true),
+        Token.string("\"", "\"", '\\', false),
+        Token.string("'", "'", '\\', false)
+    );
+
+    /**
+     * Rust syntax: C-style, without the character literals, since a
+     * lifetime ('a) opens one which never closes.
+     */
+    private static final List<Token> RUST = List.of(
+        Token.line("//"), Token.block(BLOCK_OPENER, BLOCK_CLOSER),
+        Token.string("\"", "\"", '\\', true)
+    );
+
+    /**
+     * PHP syntax.
+     */
+    private static final List<Token> PHP = List.of(
+        Token.line("//"), Token.line("#"),
+        Token.block(BLOCK_OPENER, BLOCK_CLOSER),
+        Token.string("\"", "\"", '\\', true),
+        Token.string("'", "'", '\\', true)
+    );
+
+    /**
+     * Terraform (HCL) syntax.
+     */
+    private static final List<Token> TERRAFORM = List.of(
+        Token.line("#"), Token.line("//"),
+        Token.block(BLOCK_OPENER, BLOCK_CLOSER),
+        Token.string("\"", "\"", '\\', false)
+    );
+
+    /**
+     * Hash syntax, the docstrings of Python counting as comments.
+     */
+    private static final List<Token> HASH = List.of(
+        Token.line("#"), Token.block("\"\"\"", "\"\"\""),
+        Token.block("'''", "'''"),
+        Token.string("\"", "\"", '\\', false),
+        Token.string("'", "'", '\\', false)
+    );
+
+    /**
+     * Ruby syntax.
+     */
+    private static final List<Token> RUBY = List.of(
+        Token.line("#"), Token.block("=begin", "=end"),
+        Token.string("\"", "\"", '\\', false),
+        Token.string("'", "'", '\\', false)
+    );
+
+    /**
+     * YAML syntax: a quote opens a string only at the start of a value, so
+     * the quotes are not looked at ("it's" is plain text).
+     */
+    private static final List<Token> YAML = List.of(Token.line("#"));
+
+    /**
+     * XML syntax.
+     */
+    private static final List<Token> XML = List.of(Token.block("<!--", "-->"));
+
+    /**
+     * SQL syntax.
+     */
+    private static final List<Token> SQL = List.of(
+        Token.line("--"), Token.block(BLOCK_OPENER, BLOCK_CLOSER),
+        Token.string("'", "'", NONE, true),
+        Token.string("\"", "\"", NONE, false)
+    );
+
+    /**
+     * Lua syntax.
+     */
+    private static final List<Token> LUA = List.of(
+        Token.line("--"), Token.block("--[[", "]]"),
+        Token.string("[[", "]]", NONE, true),
+        Token.string("\"", "\"", '\\', false),
+        Token.string("'", "'", '\\', false)
+    );
+
+    /**
+     * Syntax of the files, by extension.
+     */
+    private static final Map<String, List<Token>> SYNTAXES = CommentLexer
+        .syntaxes();
+
+    /**
+     * Tokens, the ones with the longest opener first.
+     */
+    private final List<Token> tokens;
+
+    /**
+     * Which characters open a token.
+     */
+    private final boolean[] starts = new boolean[ASCII];
+
+    /**
+     * Token still open at the end of the last line, null if none.
+     */
+    private Token open;
+
+    /**
+     * Comment spans of the current line, as start, end pairs.
+     */
+    private int[] spans = new int[8];
+
+    /**
+     * Number of values in the spans.
+     */
+    private int count;
+
+    /**
+     * Ctor.
+     * @param tokens Tokens, null if the whole file is comment.
+     */
+    private CommentLexer(final List<Token> tokens) {
+        if (tokens == null) {
+            this.tokens = null;
+        } else {
+            this.tokens = new ArrayList<>(tokens);
+            this.tokens.sort(
+                Comparator.comparingInt((Token token) -> token.opener.length())
+                    .reversed()
+            );
+            for (final Token token : tokens) {
+                this.starts[token.opener.charAt(0)] = true;
+            }
+        }
+    }
+
+    /**
+     * Lexer for the given file.
+     * @param path Path of the file.
+     * @return Lexer, finding comments everywhere if the kind of the file
+     *  is not known.
+     */
+    static CommentLexer forFile(final String path) {
+        final int dot = path.lastIndexOf('.');
+        List<Token> tokens = null;
+        if (dot > path.lastIndexOf('/') && dot > path.lastIndexOf('\\')) {
+            tokens = SYNTAXES.get(
+                path.substring(dot + 1).toLowerCase(Locale.ROOT)
+            );
+        }
+        return new CommentLexer(tokens);
+    }
+
+    /**
+     * Finds the comments of the next line.
+     * @param line Line.
+     */
+    public void next(final CharSequence line) {
+        this.count = 0;
+        if (this.tokens == null) {
+            this.add(0, line.length());
+        } else {
+            int idx = 0;
+            if (this.open != null) {
+                idx = this.inside(line, this.open, 0, 0);
+            }
+            while (idx < line.length()) {
+                final Token token = this.token(line, idx);
+                if (token == null) {
+                    ++idx;
+                } else {
+                    idx = this.inside(
+                        line, token, idx, idx + token.opener.length()
+                    );
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of comments of the current line.
+     * @return Comments.
+     */
+    public int comments() {
+        return this.count / 2;
+    }
+
+    /**
+     * Where a comment of the current line starts, its opener included.
+     * @param comment Comment index.
+     * @return Index in the line.
+     */
+    public int start(final int comment) {
+        return this.spans[comment * 2];
+    }
+
+    /**
+     * Where a comment of the current line ends, its closer included.
+     * @param comment Comment index.
+     * @return Index in the line, after its last character.
+     */
+    public int end(final int comment) {
+        return this.spans[comment * 2 + 1];
+    }
+
+    /**
+     * Is the given character of the current line in a comment?
+     * @param index Index in the line.
+     * @return True or false.
+     */
+    public boolean covers(final int index) {
+        boolean covered = false;
+        for (int idx = 0; !covered && idx < this.count; idx += 2) {
+            covered = index >= this.spans[idx] && index < this.spans[idx + 1];
+        }
+        return covered;
+    }
+
+    /**
+     * The token opened at the given index.
+     * @param line Line.
+     * @param index Index.
+     * @return Token or null if none is opened there.
+     */
+    private Token token(final CharSequence line, final int index) {
+        Token found = null;
+        final char chr = line.charAt(index);
+        if (chr < ASCII && this.starts[chr]) {
+            for (int idx = 0; found == null && idx < this.tokens.size();
+                ++idx) {
+                if (this.tokens.get(idx).opens(line, index)) {
+                    found = this.tokens.get(idx);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Goes through a token, up to its end or to the end of the line, if it
+     * spans more lines.
+     * @param line Line.
+     * @param token Token.
+     * @param index Where the token starts, or 0 if it was already open.
+     * @param from Where its content starts.
+     * @return Index after the token.
+     */
+    private int inside(
+        final CharSequence line, final Token token, final int index,
+        final int from
+    ) {
+        final int close = token.close(line, from);
+        int after = line.length();
+        this.open = null;
+        if (close < 0) {
+            if (token.multiline) {
+                this.open = token;
+            }
+        } else {
+            after = close + token.closer.length();
+        }
+        if (token.comment) {
+            this.add(index, after);
+        }
+        return after;
+    }
+
+    /**
+     * Adds a comment span to the current line.
+     * @param start Where it starts.
+     * @param end Where it ends.
+     */
+    private void add(final int start, final int end) {
+        if (this.count == this.spans.length) {
+            this.spans = Arrays.copyOf(
+                this.spans, this.spans.length * 2
+            );
+        }
+        this.spans[this.count] = start;
+        this.spans[this.count + 1] = end;
+        this.count += 2;
+    }
+
+    /**
+     * Syntaxes by extension.
+     * @return Map.
+     */
+    private static Map<String, List<Token>> syntaxes() {
+        return Map.ofEntries(
+            Map.entry("java", C_STYLE), Map.entry("c", C_STYLE),
+            Map.entry("h", C_STYLE), Map.entry("cc", C_STYLE),
+            Map.entry("cpp", C_STYLE), Map.entry("cxx", C_STYLE),
+            Map.entry("hpp", C_STYLE), Map.entry("cs", C_STYLE),
+            Map.entry("kt", C_STYLE), Map.entry("kts", C_STYLE),
+            Map.entry("scala", C_STYLE), Map.entry("groovy", C_STYLE),
+            Map.entry("swift", C_STYLE), Map.entry("dart", C_STYLE),
+            Map.entry("css", C_STYLE), Map.entry("scss", C_STYLE),
+            Map.entry("less", C_STYLE), Map.entry("js", JS),
+            Map.entry("jsx", JS), Map.entry("ts", JS), Map.entry("tsx", JS),
+            Map.entry("go", GO), Map.entry("rs", RUST),
+            Map.entry("php", PHP), Map.entry("tf", TERRAFORM),
+            Map.entry("py", HASH), Map.entry("sh", HASH),
+            Map.entry("bash", HASH), Map.entry("zsh", HASH),
+            Map.entry("r", HASH), Map.entry("toml", HASH),
+            Map.entry("rb", RUBY), Map.entry("yml", YAML),
+            Map.entry("yaml", YAML), Map.entry("xml", XML),
+            Map.entry("xsd", XML), Map.entry("xsl", XML),
+            Map.entry("svg", XML), Map.entry("sql", SQL),
+            Map.entry("lua", LUA)
+        );
+    }
+
+    /**
+     * A comment or a string.
+     */
+    private static final class Token {
+
+        /**
+         * What opens it.
+         */
+        private final String opener;
+
+        /**
+         * What closes it, null for the end of the line.
+         */
+        private final String closer;
+
+        /**
+         * Whether it is a comment.
+         */
+        private final boolean comment;
+
+        /**
+         * Escape character, which makes the next one not close it.
+         */
+        private final char escape;
+
+        /**
+         * Whether it may span several lines.
+         */
+        private final boolean multiline;
+
+        /**
+         * Ctor.
+         * @param opener What opens it.
+         * @param closer What closes it, null for the end of the line.
+         * @param comment Whether it is a comment.
+         * @param escape Escape character.
+         * @param multiline Whether it may span several lines.
+         * @checkstyle ParameterNumber (10 lines)
+         */
+        private Token(
+            final String opener, final String closer, final boolean comment,
+            final char escape, final boolean multiline
+        ) {
+            this.opener = opener;
+            this.closer = closer;
+            this.comment = comment;
+            this.escape = escape;
+            this.multiline = multiline;
+        }
+
+        /**
+         * A comment up to the end of the line.
+         * @param opener What opens it.
+         * @return Token.
+         */
+        static Token line(final String opener) {
+            return new Token(opener, null, true, NONE, false);
+        }
+
+        /**
+         * A comment which may span several lines.
+         * @param opener What opens it.
+         * @param closer What closes it.
+         * @return Token.
+         */
+        static Token block(final String opener, final String closer) {
+            return new Token(opener, closer, true, NONE, true);
+        }
+
+        /**
+         * A string literal.
+         * @param opener What opens it.
+         * @param closer What closes it.
+         * @param escape Escape character, NONE if there is none.
+         * @param multiline Whether it may span several lines.
+         * @return Token.
+         */
+        static Token string(
+            final String opener, final String closer, final char escape,
+            final boolean multiline
+        ) {
+            return new Token(opener, closer, false, escape, multiline);
+        }
+
+        /**
+         * Does it open at the given index?
+         * @param line Line.
+         * @param index Index.
+         * @return True or false.
+         */
+        boolean opens(final CharSequence line, final int index) {
+            return Token.textAt(line, index, this.opener);
+        }
+
+        /**
+         * Finds where it closes.
+         * @param line Line.
+         * @param from Index where to start looking.
+         * @return Index of the closer, -1 if it does not close on this line.
+         */
+        int close(final CharSequence line, final int from) {
+            int found = -1;
+            if (this.closer != null) {
+                int idx = from;
+                while (found < 0 && idx < line.length()) {
+                    if (this.escape != NONE
+                        && line.charAt(idx) == this.escape) {
+                        idx += 2;
+                    } else if (Token.textAt(line, idx, this.closer)) {
+                        found = idx;
+                    } else {
+                        ++idx;
+                    }
+                }
+            }
+            return found;
+        }
+
+        /**
+         * Is the text at the given index of the line?
+         * @param line Line.
+         * @param index Index.
+         * @param text Text.
+         * @return True or false.
+         */
+        private static boolean textAt(
+            final CharSequence line, final int index, final String text
+        ) {
+            boolean found = index + text.length() <= line.length();
+            for (int idx = 0; found && idx < text.length(); ++idx) {
+                found = line.charAt(index + idx) == text.charAt(idx);
+            }
+            return found;
+        }
+    }
+}
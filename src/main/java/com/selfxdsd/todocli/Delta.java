@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.IOException;
+
+/**
+ * Git's delta format: the sizes of the base and of the result, then
+ * instructions copying ranges of the base or inserting new bytes.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+final class Delta {
+
+    /**
+     * Hidden ctor.
+     */
+    private Delta() {
+    }
+
+    /**
+     * Applies a delta to its base.
+     * @param base Base.
+     * @param delta Delta.
+     * @return Result.
+     * @throws IOException If the delta is corrupted.
+     */
+    static byte[] apply(final byte[] base, final byte[] delta)
+        throws IOException {
+        final int[] pos = {0};
+        if (Delta.varint(delta, pos) != base.length) {
+            throw new IOException("Delta does not match its base.");
+        }
+        final byte[] result = new byte[
+            Math.toIntExact(Delta.varint(delta, pos))
+        ];
+        int out = 0;
+        while (pos[0] < delta.length) {
+            final int opcode = delta[pos[0]++] & 0xff;
+            if ((opcode & 0x80) != 0) {
+                final long copy = Delta.copy(opcode, delta, pos);
+                final int offset = (int) (copy >>> 24);
+                int size = (int) (copy & 0xffffff);
+                if (size == 0) {
+                    size = 0x10000;
+                }
+                System.arraycopy(base, offset, result, out, size);
+                out += size;
+            } else if (opcode != 0) {
+                System.arraycopy(delta, pos[0], result, out, opcode);
+                pos[0] += opcode;
+                out += opcode;
+            } else {
+                throw new IOException("Invalid delta opcode.");
+            }
+        }
+        if (out != result.length) {
+            throw new IOException("Delta result has the wrong size.");
+        }
+        return result;
+    }
+
+    /**
+     * Reads the offset and size of a copy instruction: which of their
+     * bytes are present is given by the bits of the opcode.
+     * @param opcode Opcode.
+     * @param delta Delta.
+     * @param pos Position in the delta, updated.
+     * @return Offset in the upper bits, size in the lower 24 bits.
+     */
+    private static long copy(final int opcode, final byte[] delta,
+        final int[] pos) {
+        long offset = 0;
+        for (int bit = 0; bit < 4; ++bit) {
+            if ((opcode & (1 << bit)) != 0) {
+                offset |= (long) (delta[pos[0]++] & 0xff) << (8 * bit);
+            }
+        }
+        long size = 0;
+        for (int bit = 0; bit < 3; ++bit) {
+            if ((opcode & (0x10 << bit)) != 0) {
+                size |= (long) (delta[pos[0]++] & 0xff) << (8 * bit);
+            }
+        }
+        return offset << 24 | size;
+    }
+
+    /**
+     * Reads a size: little-endian groups of 7 bits.
+     * @param delta Delta.
+     * @param pos Position in the delta, updated.
+     * @return Size.
+     */
+    private static long varint(final byte[] delta, final int[] pos) {
+        long value = 0;
+        int shift = 0;
+        int byt;
+        do {
+            byt = delta[pos[0]++] & 0xff;
+            value |= (long) (byt & 0x7f) << shift;
+            shift += 7;
+        } while ((byt & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Least recently used cache of inflated delta bases, bounded by the total
+ * size of the objects it keeps. Resolving a chain of deltas means reading
+ * its base first, and the same bases come back again and again (e.g. the
+ * versions of a file in a blame), so they are kept inflated and patched.
+ * It is thread-safe.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+final class DeltaBaseCache {
+
+    /**
+     * Maximum total size of the cached objects, in bytes.
+     */
+    private final long limit;
+
+    /**
+     * Cached objects, the least recently used first.
+     */
+    private final Map<Key, GitObject> objects =
+        new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Total size of the cached objects.
+     */
+    private long size;
+
+    /**
+     * Ctor. Keeps up to 32 MiB.
+     */
+    DeltaBaseCache() {
+        this(32L << 20);
+    }
+
+    /**
+     * Ctor.
+     * @param limit Maximum total size of the cached objects, in bytes.
+     */
+    DeltaBaseCache(final long limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Gets an object.
+     * @param pack Pack of the object.
+     * @param offset Offset of the object in the pack.
+     * @return Object or null if it is not cached.
+     */
+    synchronized GitObject get(final PackFile pack, final long offset) {
+        return this.objects.get(new Key(pack, offset));
+    }
+
+    /**
+     * Keeps an object, evicting the least recently used ones if needed.
+     * Objects larger than the whole cache are not kept.
+     * @param pack Pack of the object.
+     * @param offset Offset of the object in the pack.
+     * @param object Object.
+     */
+    synchronized void put(final PackFile pack, final long offset,
+        final GitObject object) {
+        final long length = object.data().length;
+        if (length <= this.limit) {
+            final GitObject old = this.objects.put(
+                new Key(pack, offset), object
+            );
+            if (old != null) {
+                this.size -= old.data().length;
+            }
+            this.size += length;
+            final Iterator<GitObject> eldest =
+                this.objects.values().iterator();
+            while (this.size > this.limit) {
+                this.size -= eldest.next().data().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Total size of the cached objects.
+     * @return Bytes.
+     */
+    synchronized long size() {
+        return this.size;
+    }
+
+    /**
+     * Key of a cached object: its pack and offset.
+     */
+    private static final class Key {
+
+        /**
+         * Pack.
+         */
+        private final PackFile pack;
+
+        /**
+         * Offset.
+         */
+        private final long offset;
+
+        /**
+         * Ctor.
+         * @param pack Pack.
+         * @param offset Offset.
+         */
+        Key(final PackFile pack, final long offset) {
+            this.pack = pack;
+            this.offset = offset;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof Key
+                && ((Key) other).pack == this.pack
+                && ((Key) other).offset == this.offset;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(
+                System.identityHashCode(this.pack), this.offset
+            );
+        }
+    }
+}
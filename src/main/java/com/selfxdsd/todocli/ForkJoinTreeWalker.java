@@ -0,0 +1,245 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitor;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Work-stealing {@link TreeWalker}. Every directory is visited by its own
+ * {@link RecursiveAction}, so sub-trees are enumerated in parallel on a
+ * {@link ForkJoinPool}.<br><br>
+ * The given visitor is called concurrently and therefore has to be
+ * thread-safe. A directory is post-visited only after all its
+ * sub-directories have been post-visited, so the root is always the last
+ * directory to finish, same as with {@link SerialTreeWalker}. Symbolic links
+ * are not followed and {@link FileVisitResult#SKIP_SIBLINGS} only stops the
+ * files of the current directory which have not been visited yet.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class ForkJoinTreeWalker implements TreeWalker {
+
+    /**
+     * Number of threads enumerating the file tree.
+     */
+    private final int parallelism;
+
+    /**
+     * Ctor. Uses one thread per available processor.
+     */
+    public ForkJoinTreeWalker() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Ctor.
+     * @param parallelism Number of threads enumerating the file tree.
+     */
+    public ForkJoinTreeWalker(final int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public void walk(final Path root, final FileVisitor<Path> visitor)
+        throws IOException {
+        final BasicFileAttributes attrs = Files.readAttributes(
+            root, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS
+        );
+        if (attrs.isDirectory()) {
+            final ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+            try {
+                pool.invoke(
+                    new DirectoryTask(root, attrs, visitor, new AtomicBoolean())
+                );
+            } catch (final UncheckedIOException ex) {
+                throw ex.getCause();
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            visitor.visitFile(root, attrs);
+        }
+    }
+
+    /**
+     * Visit of one directory. Sub-directories are forked as soon as they
+     * are found, files are visited in place.
+     */
+    private static final class DirectoryTask extends RecursiveAction {
+
+        /**
+         * Serialization version, as RecursiveAction is serializable.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Visited directory.
+         */
+        private final Path dir;
+
+        /**
+         * Attributes of the visited directory.
+         */
+        private final BasicFileAttributes attrs;
+
+        /**
+         * Visitor.
+         */
+        private final FileVisitor<Path> visitor;
+
+        /**
+         * Set once the visitor asked to terminate the walk.
+         */
+        private final AtomicBoolean terminated;
+
+        /**
+         * Ctor.
+         * @param dir Visited directory.
+         * @param attrs Attributes of the visited directory.
+         * @param visitor Visitor.
+         * @param terminated Termination flag shared by all tasks.
+         */
+        DirectoryTask(
+            final Path dir,
+            final BasicFileAttributes attrs,
+            final FileVisitor<Path> visitor,
+            final AtomicBoolean terminated
+        ) {
+            this.dir = dir;
+            this.attrs = attrs;
+            this.visitor = visitor;
+            this.terminated = terminated;
+        }
+
+        @Override
+        protected void compute() {
+            if (!this.terminated.get()) {
+                try {
+                    this.visit();
+                } catch (final IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        }
+
+        /**
+         * Pre-visits the directory, visits its entries, waits for the
+         * sub-directories and post-visits the directory.
+         * @throws IOException If the visitor fails.
+         */
+        private void visit() throws IOException {
+            final FileVisitResult result = this.visitor.preVisitDirectory(
+                this.dir, this.attrs
+            );
+            if (result == FileVisitResult.CONTINUE) {
+                final List<DirectoryTask> subdirs = new ArrayList<>();
+                IOException failure = null;
+                try (DirectoryStream<Path> entries =
+                    Files.newDirectoryStream(this.dir)) {
+                    for (final Path entry : entries) {
+                        if (!this.visitEntry(entry, subdirs)) {
+                            break;
+                        }
+                    }
+                } catch (final IOException ex) {
+                    failure = ex;
+                } catch (final DirectoryIteratorException ex) {
+                    failure = ex.getCause();
+                }
+                for (int idx = subdirs.size() - 1; idx >= 0; --idx) {
+                    subdirs.get(idx).join();
+                }
+                if (!this.terminated.get()) {
+                    this.check(
+                        this.visitor.postVisitDirectory(this.dir, failure)
+                    );
+                }
+            } else {
+                this.check(result);
+            }
+        }
+
+        /**
+         * Visits one entry of the directory: files are visited right away,
+         * directories are forked.
+         * @param entry Entry.
+         * @param subdirs Forked sub-directories.
+         * @return True if the next entries should be visited too.
+         * @throws IOException If the visitor fails.
+         */
+        private boolean visitEntry(
+            final Path entry, final List<DirectoryTask> subdirs
+        ) throws IOException {
+            FileVisitResult result = FileVisitResult.CONTINUE;
+            if (!this.terminated.get()) {
+                BasicFileAttributes entryAttrs = null;
+                try {
+                    entryAttrs = Files.readAttributes(
+                        entry,
+                        BasicFileAttributes.class,
+                        LinkOption.NOFOLLOW_LINKS
+                    );
+                } catch (final IOException ex) {
+                    result = this.visitor.visitFileFailed(entry, ex);
+                }
+                if (entryAttrs != null && entryAttrs.isDirectory()) {
+                    final DirectoryTask task = new DirectoryTask(
+                        entry, entryAttrs, this.visitor, this.terminated
+                    );
+                    task.fork();
+                    subdirs.add(task);
+                } else if (entryAttrs != null) {
+                    result = this.visitor.visitFile(entry, entryAttrs);
+                }
+                this.check(result);
+            }
+            return result != FileVisitResult.SKIP_SIBLINGS
+                && !this.terminated.get();
+        }
+
+        /**
+         * Checks the visitor's verdict, terminating the walk if asked to.
+         * @param result Visit result.
+         */
+        private void check(final FileVisitResult result) {
+            if (result == FileVisitResult.TERMINATE) {
+                this.terminated.set(true);
+            }
+        }
+    }
+}
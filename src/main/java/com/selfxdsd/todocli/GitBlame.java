@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs git blame only on the lines of the given TODOs: one process with one
+ * -L start,end range per TODO block (adjacent blocks are merged), so git
+ * does not spend time on the lines we never look at. Git runs in the file's
+ * directory, so the path does not have to be relative to the current one.
+ * If a commit is given, the files are blamed as they are in that commit,
+ * so they need not be checked out: git then runs in the closest directory
+ * which does exist. The output is read in the --porcelain format, see
+ * {@link BlamePorcelain}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+final class GitBlame implements Attributions {
+
+    /**
+     * Runs the git processes.
+     */
+    private final GitProcessPool pool;
+
+    /**
+     * Commit whose files are blamed, null for the working tree.
+     */
+    private final String rev;
+
+    /**
+     * Ctor. Blames the files of the working tree.
+     * @param pool Runs the git processes.
+     */
+    GitBlame(final GitProcessPool pool) {
+        this(pool, null);
+    }
+
+    /**
+     * Ctor.
+     * @param pool Runs the git processes.
+     * @param rev Commit whose files are blamed, null for the working tree.
+     */
+    GitBlame(final GitProcessPool pool, final String rev) {
+        this.pool = pool;
+        this.rev = rev;
+    }
+
+    @Override
+    public Map<Integer, Attribution> attribute(
+        final String path, final List<Todo> todos
+    ) throws IOException {
+        final List<String> args = new ArrayList<>(
+            List.of("blame", "--porcelain")
+        );
+        for (final int[] range : this.ranges(todos)) {
+            args.add("-L");
+            args.add(range[0] + "," + range[1]);
+        }
+        if (this.rev != null) {
+            args.add(this.rev);
+        }
+        final Path file = Paths.get(path).toAbsolutePath().normalize();
+        Path dir = file.getParent();
+        while (!Files.isDirectory(dir)) {
+            dir = dir.getParent();
+        }
+        args.add("--");
+        args.add(dir.relativize(file).toString());
+        Map<Integer, Attribution> lines;
+        try {
+            lines = this.pool.run(
+                dir, args,
+                stdout -> new BlamePorcelain(
+                    new BufferedReader(
+                        new InputStreamReader(stdout, StandardCharsets.UTF_8)
+                    )
+                ).lines()
+            );
+        } catch (final GitException exception) {
+            lines = Map.of();
+        }
+        return lines;
+    }
+
+    /**
+     * Line ranges covering the TODOs, merging the adjacent ones.
+     * @param todos TODOs, in order.
+     * @return Ranges, as {start, end} pairs.
+     */
+    private List<int[]> ranges(final List<Todo> todos) {
+        final List<int[]> ranges = new ArrayList<>();
+        for (final Todo todo : todos) {
+            final int end = Math.max(todo.getStart(), todo.getEnd());
+            final int last = ranges.size() - 1;
+            if (last >= 0 && todo.getStart() <= ranges.get(last)[1] + 1) {
+                ranges.get(last)[1] = Math.max(ranges.get(last)[1], end);
+            } else {
+                ranges.add(new int[] {todo.getStart(), end});
+            }
+        }
+        return ranges;
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A parsed commit: its tree, parents, author and committer time.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+final class GitCommit {
+
+    /**
+     * Id of the tree.
+     */
+    private final String tree;
+
+    /**
+     * Ids of the parents.
+     */
+    private final List<String> parents;
+
+    /**
+     * Author and author time.
+     */
+    private final Attribution author;
+
+    /**
+     * Committer time, in seconds since the epoch.
+     */
+    private final long time;
+
+    /**
+     * Ctor.
+     * @param data Content of the commit object.
+     */
+    GitCommit(final byte[] data) {
+        final String text = new String(data, StandardCharsets.UTF_8);
+        final List<String> found = new ArrayList<>(1);
+        String tree = null;
+        Attribution author = null;
+        long time = 0;
+        int start = 0;
+        int end = text.indexOf('\n');
+        while (end > start) {
+            final String line = text.substring(start, end);
+            if (line.startsWith("tree ")) {
+                tree = line.substring("tree ".length());
+            } else if (line.startsWith("parent ")) {
+                found.add(line.substring("parent ".length()));
+            } else if (line.startsWith("author ")) {
+                author = GitCommit.identity(line.substring("author ".length()));
+            } else if (line.startsWith("committer ")) {
+                time = GitCommit.seconds(line);
+            }
+            start = end + 1;
+            end = text.indexOf('\n', start);
+        }
+        this.tree = tree;
+        this.parents = found;
+        this.author = author;
+        this.time = time;
+    }
+
+    /**
+     * Id of the tree.
+     * @return Id, in hex.
+     */
+    String tree() {
+        return this.tree;
+    }
+
+    /**
+     * Ids of the parents.
+     * @return Ids, in hex, the first parent first.
+     */
+    List<String> parents() {
+        return this.parents;
+    }
+
+    /**
+     * The author and the author time.
+     * @return Attribution.
+     */
+    Attribution author() {
+        return this.author;
+    }
+
+    /**
+     * Committer time.
+     * @return Seconds since the epoch.
+     */
+    long time() {
+        return this.time;
+    }
+
+    /**
+     * Parses an identity: Name &lt;email&gt; seconds zone.
+     * @param identity Identity.
+     * @return Attribution.
+     */
+    private static Attribution identity(final String identity) {
+        final int email = identity.lastIndexOf(" <");
+        final int zone = identity.lastIndexOf(' ');
+        return new Attribution(
+            identity.substring(0, Math.max(email, 0)),
+            GitCommit.seconds(identity),
+            identity.substring(zone + 1)
+        );
+    }
+
+    /**
+     * Time of an identity: the number before the zone.
+     * @param identity Identity.
+     * @return Seconds since the epoch.
+     */
+    private static long seconds(final String identity) {
+        final int zone = identity.lastIndexOf(' ');
+        return Long.parseLong(
+            identity.substring(identity.lastIndexOf(' ', zone - 1) + 1, zone)
+        );
+    }
+}
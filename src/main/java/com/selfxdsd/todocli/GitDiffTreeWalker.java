@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitor;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link TreeWalker} which visits only the files changed between a given
+ * commit and HEAD, as git diff lists them: the ones still present in the
+ * working tree are visited, by a {@link ListedTreeWalker}, the deleted ones
+ * are only remembered. Renames are seen as a deletion and an addition.
+ * Meant to be used with a {@link MergedTodosSerializer}, which keeps the
+ * TODOs of the other files from the previous scan.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class GitDiffTreeWalker implements TreeWalker {
+
+    /**
+     * The commit to compare HEAD with.
+     */
+    private final String since;
+
+    /**
+     * Runs the git processes.
+     */
+    private final GitProcessPool pool;
+
+    /**
+     * Paths of the changed files, relative to the root of the last walk.
+     */
+    private final Set<String> changed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Ctor.
+     * @param since The commit to compare HEAD with.
+     * @param pool Runs the git processes.
+     */
+    public GitDiffTreeWalker(final String since, final GitProcessPool pool) {
+        this.since = since;
+        this.pool = pool;
+    }
+
+    @Override
+    public void walk(final Path root, final FileVisitor<Path> visitor)
+        throws IOException {
+        final List<String> paths = this.pool.run(
+            root,
+            List.of(
+                "diff", "--name-only", "-z", "--no-renames", "--relative",
+                this.since, "HEAD", "--"
+            ),
+            stdout -> GitDiffTreeWalker.split(stdout.readAllBytes())
+        );
+        this.changed.clear();
+        this.changed.addAll(paths);
+        new ListedTreeWalker(paths).walk(root, visitor);
+    }
+
+    /**
+     * Paths of the files changed between the commit and HEAD, found by the
+     * last walk, deleted ones included. They are known before the root
+     * directory is post-visited.
+     * @return Paths relative to the root, with '/' as separator.
+     */
+    public Set<String> changed() {
+        return Set.copyOf(this.changed);
+    }
+
+    /**
+     * Splits the NUL-terminated paths printed by git.
+     * @param output Output of git.
+     * @return Paths.
+     */
+    private static List<String> split(final byte[] output) {
+        final List<String> paths = new ArrayList<>();
+        int start = 0;
+        for (int idx = 0; idx < output.length; ++idx) {
+            if (output[idx] == 0) {
+                paths.add(
+                    new String(
+                        output, start, idx - start, StandardCharsets.UTF_8
+                    )
+                );
+                start = idx + 1;
+            }
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitor;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * {@link TreeWalker} which lets Git find the candidate files: a single
+ * git grep -n -I -E run, itself multi-threaded and limited to the tracked
+ * files, lists every line containing one of the markers. Only the paths
+ * of the files with at least one candidate line are kept, in the order git
+ * prints them, and they are visited once git is done: the visitor may run
+ * git itself (e.g. to blame the files) and it must not wait for the slot
+ * of the {@link GitProcessPool} which the walk would be holding.<br><br>
+ * Only the root directory is pre- and post-visited; binary files are left
+ * out by git.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class GitGrepTreeWalker implements TreeWalker {
+
+    /**
+     * Characters with a special meaning in extended regular expressions.
+     */
+    private static final String SPECIAL = ".[]()*+?{}|^$\\";
+
+    /**
+     * Exit code of git grep when nothing is found.
+     */
+    private static final int NOTHING_FOUND = 1;
+
+    /**
+     * Markers to look for.
+     */
+    private final List<String> markers;
+
+    /**
+     * Runs the git processes.
+     */
+    private final GitProcessPool pool;
+
+    /**
+     * Ctor. Looks for the default markers: @todo, TODO, @fixme and FIXME.
+     */
+    public GitGrepTreeWalker() {
+        this(MarkerAutomaton.DEFAULT_MARKERS, new GitProcessPool());
+    }
+
+    /**
+     * Ctor.
+     * @param markers Markers to look for.
+     * @param pool Runs the git processes.
+     */
+    public GitGrepTreeWalker(
+        final List<String> markers, final GitProcessPool pool
+    ) {
+        this.markers = markers;
+        this.pool = pool;
+    }
+
+    @Override
+    public void walk(final Path root, final FileVisitor<Path> visitor)
+        throws IOException {
+        final FileVisitResult pre = visitor.preVisitDirectory(
+            root, Files.readAttributes(root, BasicFileAttributes.class)
+        );
+        if (pre == FileVisitResult.CONTINUE) {
+            FileVisitResult result = FileVisitResult.CONTINUE;
+            final Iterator<String> files = this.grep(root).iterator();
+            while (result == FileVisitResult.CONTINUE && files.hasNext()) {
+                result = this.visit(root.resolve(files.next()), visitor);
+            }
+            if (result != FileVisitResult.TERMINATE) {
+                visitor.postVisitDirectory(root, null);
+            }
+        }
+    }
+
+    /**
+     * Runs git grep and keeps the paths of the files it found.
+     * @param root Root of the walk, where git grep runs.
+     * @return Paths relative to the root, each one once.
+     * @throws IOException If git grep fails.
+     */
+    private List<String> grep(final Path root) throws IOException {
+        List<String> files;
+        try {
+            files = this.pool.run(
+                root, this.args(),
+                stdout -> GitGrepTreeWalker.files(
+                    new BufferedReader(
+                        new InputStreamReader(stdout, StandardCharsets.UTF_8)
+                    )
+                )
+            );
+        } catch (final GitException exception) {
+            if (exception.exitCode() != NOTHING_FOUND) {
+                throw exception;
+            }
+            files = List.of();
+        }
+        return files;
+    }
+
+    /**
+     * Reads the paths of the files found by git grep. Its -z output has one
+     * line per match: path, NUL, line number, NUL, content; the matches of
+     * a file come one after the other.
+     * @param reader Output of git grep.
+     * @return Paths, each one once.
+     * @throws IOException If the output cannot be read.
+     */
+    private static List<String> files(final BufferedReader reader)
+        throws IOException {
+        final List<String> files = new ArrayList<>();
+        String previous = "";
+        String line = reader.readLine();
+        while (line != null) {
+            final int nul = line.indexOf('\0');
+            if (nul > 0
+                && (nul != previous.length() || !line.startsWith(previous))) {
+                previous = line.substring(0, nul);
+                files.add(previous);
+            }
+            line = reader.readLine();
+        }
+        return files;
+    }
+
+    /**
+     * Visits a candidate file, if it is still present in the working tree.
+     * @param file File.
+     * @param visitor Visitor.
+     * @return Visit result.
+     * @throws IOException If the visitor fails.
+     */
+    private FileVisitResult visit(
+        final Path file, final FileVisitor<Path> visitor
+    ) throws IOException {
+        FileVisitResult result = FileVisitResult.CONTINUE;
+        if (Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+            result = visitor.visitFile(
+                file, Files.readAttributes(file, BasicFileAttributes.class)
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Arguments of git grep, with one pattern per marker.
+     * @return Arguments.
+     */
+    private List<String> args() {
+        final List<String> args = new ArrayList<>(
+            List.of("grep", "-z", "-n", "-I", "-E")
+        );
+        for (final String marker : this.markers) {
+            args.add("-e");
+            args.add(this.escaped(marker));
+        }
+        args.add("--");
+        return args;
+    }
+
+    /**
+     * Escapes the marker, to be matched literally.
+     * @param marker Marker.
+     * @return Extended regular expression.
+     */
+    private String escaped(final String marker) {
+        final StringBuilder escaped = new StringBuilder();
+        for (final char chr : marker.toCharArray()) {
+            if (SPECIAL.indexOf(chr) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(chr);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,476 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The history of a repository, read straight from its object store, and
+ * the blame of some lines of a file: the lines are followed from the
+ * working tree (or from a given commit) back through the commits, diffing
+ * the file with its version in each parent, until the commit which added
+ * them. The commits are visited newest first and only once, as git blame
+ * does. Renames are not followed.<br><br>
+ * The parsed commits are cached and shared by all the files of the
+ * repository. It is thread-safe.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+final class GitHistory {
+
+    /**
+     * Format of the timestamp of the lines not committed yet.
+     */
+    private static final DateTimeFormatter FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss Z");
+
+    /**
+     * How many parsed commits are kept at most.
+     */
+    private static final int COMMITS_KEPT = 100_000;
+
+    /**
+     * The repository.
+     */
+    private final GitRepository repo;
+
+    /**
+     * Its objects.
+     */
+    private final ObjectStore store;
+
+    /**
+     * Parsed commits, by id.
+     */
+    private final Map<String, GitCommit> commits = new ConcurrentHashMap<>();
+
+    /**
+     * Ctor.
+     * @param repo The repository.
+     * @param store Its objects.
+     */
+    GitHistory(final GitRepository repo, final ObjectStore store) {
+        this.repo = repo;
+        this.store = store;
+    }
+
+    /**
+     * Blames some lines of a file.
+     * @param path Path of the file, relative to the working tree, with '/'
+     *  as separator.
+     * @param worktree Content of the file in the working tree, in memory.
+     * @param lines Numbers of the lines to blame, starting from 1.
+     * @return Attribution of the lines, by number; empty if the file is
+     *  not in HEAD.
+     * @throws IOException If the history cannot be read.
+     */
+    Map<Integer, Attribution> blame(final String path,
+        final TodoSource worktree, final Set<Integer> lines)
+        throws IOException {
+        final Map<Integer, Attribution> blamed = new HashMap<>();
+        final String head = this.repo.resolve("HEAD");
+        final String blob = this.blob(this.commit(head), path);
+        if (blob != null) {
+            final Suspect current = new Suspect(
+                null, Long.MAX_VALUE, worktree.blobId()
+            );
+            current.content = GitHistory.lines(worktree.content());
+            current.mark(lines);
+            final Map<String, Suspect> pending = new HashMap<>();
+            final PriorityQueue<Suspect> queue = new PriorityQueue<>();
+            this.follow(current, List.of(head), path, pending, queue);
+            this.blame(
+                current,
+                new Attribution(
+                    Attribution.NOT_COMMITTED,
+                    OffsetDateTime.now().format(FORMAT)
+                ),
+                blamed
+            );
+            this.blame(queue, pending, path, blamed);
+        }
+        return blamed;
+    }
+
+    /**
+     * Blames some lines of a file, as it is in the given commit: the same
+     * as blaming them in a clean checkout of that commit.
+     * @param rev Id of the commit.
+     * @param path Path of the file, relative to the working tree, with '/'
+     *  as separator.
+     * @param lines Numbers of the lines to blame, starting from 1.
+     * @return Attribution of the lines, by number; empty if the file or
+     *  the commit is missing.
+     * @throws IOException If the history cannot be read.
+     */
+    Map<Integer, Attribution> blame(final String rev, final String path,
+        final Set<Integer> lines) throws IOException {
+        final Map<Integer, Attribution> blamed = new HashMap<>();
+        final GitCommit commit = this.commitOrNull(rev);
+        String blob = null;
+        if (commit != null) {
+            blob = this.blob(commit, path);
+        }
+        if (blob != null) {
+            final Suspect suspect = new Suspect(rev, commit.time(), blob);
+            this.content(suspect);
+            suspect.mark(lines);
+            suspect.queued = true;
+            final Map<String, Suspect> pending = new HashMap<>();
+            pending.put(rev, suspect);
+            final PriorityQueue<Suspect> queue = new PriorityQueue<>();
+            queue.add(suspect);
+            this.blame(queue, pending, path, blamed);
+        }
+        return blamed;
+    }
+
+    /**
+     * Blames the lines of the queued suspects, newest first, passing on to
+     * the parents the lines they had too.
+     * @param queue Suspects to look at, newest first.
+     * @param pending Suspects to look at, by commit.
+     * @param path Path of the file.
+     * @param blamed Where to put the attributions.
+     * @throws IOException If the history cannot be read.
+     * @checkstyle ParameterNumber (5 lines)
+     */
+    private void blame(final PriorityQueue<Suspect> queue,
+        final Map<String, Suspect> pending, final String path,
+        final Map<Integer, Attribution> blamed) throws IOException {
+        while (!queue.isEmpty()) {
+            final Suspect suspect = queue.poll();
+            pending.remove(suspect.commit);
+            final GitCommit commit = this.commit(suspect.commit);
+            this.follow(suspect, commit.parents(), path, pending, queue);
+            this.blame(suspect, commit.author(), blamed);
+        }
+    }
+
+    /**
+     * Passes the lines of a suspect on to its parents, if they had them.
+     * The parents with the very same version of the file take all of them;
+     * otherwise the file is diffed with each parent's version in turn.
+     * @param suspect Suspect.
+     * @param parents Its parents.
+     * @param path Path of the file.
+     * @param pending Suspects to look at, by commit.
+     * @param queue Suspects to look at, newest first.
+     * @throws IOException If the history cannot be read.
+     * @checkstyle ParameterNumber (5 lines)
+     */
+    private void follow(final Suspect suspect, final List<String> parents,
+        final String path, final Map<String, Suspect> pending,
+        final PriorityQueue<Suspect> queue) throws IOException {
+        final List<Suspect> found = this.parents(parents, path, pending);
+        for (final Suspect parent : found) {
+            if (parent.blob.equals(suspect.blob)) {
+                parent.take(suspect.lines, null);
+                parent.content = suspect.content;
+            }
+        }
+        for (final Suspect parent : found) {
+            if (!suspect.lines.isEmpty() && !parent.blob.equals(suspect.blob)) {
+                final int[] matches = new LineDiff(
+                    this.content(parent), suspect.content
+                ).matches();
+                parent.take(suspect.lines, matches);
+            }
+        }
+        for (final Suspect parent : found) {
+            if (!parent.lines.isEmpty() && !parent.queued) {
+                parent.queued = true;
+                queue.add(parent);
+            }
+        }
+    }
+
+    /**
+     * The parents which have the file.
+     * @param parents Ids of the parents.
+     * @param path Path of the file.
+     * @param pending Suspects to look at, by commit.
+     * @return Suspects, pending already or new.
+     * @throws IOException If the history cannot be read.
+     */
+    private List<Suspect> parents(final List<String> parents,
+        final String path, final Map<String, Suspect> pending)
+        throws IOException {
+        final List<Suspect> found = new ArrayList<>(parents.size());
+        for (final String parent : parents) {
+            final GitCommit commit = this.commitOrNull(parent);
+            String blob = null;
+            if (commit != null) {
+                blob = this.blob(commit, path);
+            }
+            if (blob != null) {
+                final String known = blob;
+                found.add(
+                    pending.computeIfAbsent(
+                        parent, key -> new Suspect(key, commit.time(), known)
+                    )
+                );
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Blames the lines left to a suspect on it.
+     * @param suspect Suspect.
+     * @param author Its author.
+     * @param blamed Where to put the attributions.
+     */
+    private void blame(final Suspect suspect, final Attribution author,
+        final Map<Integer, Attribution> blamed) {
+        for (final int line : suspect.lines.values()) {
+            blamed.put(line, author);
+        }
+        suspect.lines.clear();
+    }
+
+    /**
+     * Lines of the suspect's version of the file.
+     * @param suspect Suspect.
+     * @return Lines.
+     * @throws IOException If the blob cannot be read.
+     */
+    private String[] content(final Suspect suspect) throws IOException {
+        if (suspect.content == null) {
+            suspect.content = GitHistory.lines(
+                this.store.object(suspect.blob, GitObject.BLOB).data()
+            );
+        }
+        return suspect.content;
+    }
+
+    /**
+     * Id of the file's blob in a commit.
+     * @param commit Commit.
+     * @param path Path of the file.
+     * @return Id or null if the file is not in the commit.
+     * @throws IOException If the trees cannot be read.
+     */
+    private String blob(final GitCommit commit, final String path)
+        throws IOException {
+        String id = commit.tree();
+        int start = 0;
+        while (id != null && start <= path.length()) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            id = GitHistory.entry(
+                this.store.object(id, GitObject.TREE).data(),
+                path.substring(start, end).getBytes(StandardCharsets.UTF_8)
+            );
+            start = end + 1;
+        }
+        return id;
+    }
+
+    /**
+     * A parsed commit.
+     * @param id Id of the commit.
+     * @return Commit.
+     * @throws IOException If it is missing or cannot be read.
+     */
+    private GitCommit commit(final String id) throws IOException {
+        final GitCommit commit = this.commitOrNull(id);
+        if (commit == null) {
+            throw new IOException(String.format("Commit %s is missing.", id));
+        }
+        return commit;
+    }
+
+    /**
+     * A parsed commit, if it is in the object store.
+     * @param id Id of the commit.
+     * @return Commit or null if it is missing, e.g. in shallow clones.
+     * @throws IOException If it cannot be read.
+     */
+    private GitCommit commitOrNull(final String id) throws IOException {
+        GitCommit commit = this.commits.get(id);
+        if (commit == null) {
+            final GitObject object = this.store.object(id);
+            if (object != null && object.type() == GitObject.COMMIT) {
+                commit = new GitCommit(object.data());
+                if (this.commits.size() >= COMMITS_KEPT) {
+                    this.commits.clear();
+                }
+                this.commits.put(id, commit);
+            }
+        }
+        return commit;
+    }
+
+    /**
+     * Finds an entry of a tree.
+     * @param tree Content of the tree: mode, space, name, NUL, 20 bytes id.
+     * @param name Name of the entry.
+     * @return Id of the entry or null if there is no such entry.
+     */
+    private static String entry(final byte[] tree, final byte[] name) {
+        String id = null;
+        int pos = 0;
+        while (id == null && pos < tree.length) {
+            int start = pos;
+            while (tree[start] != ' ') {
+                ++start;
+            }
+            ++start;
+            int end = start;
+            while (tree[end] != 0) {
+                ++end;
+            }
+            if (end - start == name.length
+                && Arrays.equals(tree, start, end, name, 0, name.length)) {
+                id = ObjectStore.hex(tree, end + 1);
+            }
+            pos = end + 21;
+        }
+        return id;
+    }
+
+    /**
+     * Splits a text into lines, keeping the bytes as they are.
+     * @param content Text.
+     * @return Lines.
+     */
+    private static String[] lines(final byte[] content) {
+        final String text = new String(content, StandardCharsets.ISO_8859_1);
+        final List<String> lines = new ArrayList<>();
+        int start = 0;
+        int end = text.indexOf('\n');
+        while (end >= 0) {
+            lines.add(text.substring(start, end));
+            start = end + 1;
+            end = text.indexOf('\n', start);
+        }
+        if (start < text.length()) {
+            lines.add(text.substring(start));
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    /**
+     * A commit which may have added some of the lines: the lines are
+     * passed on to its parents if they had them too.
+     */
+    private static final class Suspect implements Comparable<Suspect> {
+
+        /**
+         * Id of the commit, null for the working tree.
+         */
+        private final String commit;
+
+        /**
+         * Commit time.
+         */
+        private final long time;
+
+        /**
+         * Id of the file's blob in this commit, null for the working tree.
+         */
+        private final String blob;
+
+        /**
+         * The lines still to blame: line in this version to final line.
+         */
+        private final Map<Integer, Integer> lines = new HashMap<>();
+
+        /**
+         * Lines of this version of the file, read when needed.
+         */
+        private String[] content;
+
+        /**
+         * Whether it is queued already.
+         */
+        private boolean queued;
+
+        /**
+         * Ctor.
+         * @param commit Id of the commit.
+         * @param time Commit time.
+         * @param blob Id of the file's blob.
+         */
+        Suspect(final String commit, final long time, final String blob) {
+            this.commit = commit;
+            this.time = time;
+            this.blob = blob;
+        }
+
+        @Override
+        public int compareTo(final Suspect other) {
+            return Long.compare(other.time, this.time);
+        }
+
+        /**
+         * Marks the given lines as still to blame, leaving out the ones
+         * past the end of the file. The content must be read already.
+         * @param numbers Numbers of the lines, starting from 1.
+         */
+        void mark(final Set<Integer> numbers) {
+            for (final int line : numbers) {
+                if (line >= 1 && line <= this.content.length) {
+                    this.lines.put(line - 1, line);
+                }
+            }
+        }
+
+        /**
+         * Takes the lines of a child which are the same in this version.
+         * @param child Lines of the child still to blame.
+         * @param matches Line of this version matching each line of the
+         *  child, or null if the versions are the same.
+         */
+        void take(final Map<Integer, Integer> child, final int[] matches) {
+            final Set<Integer> taken = new HashSet<>();
+            for (final Map.Entry<Integer, Integer> line : child.entrySet()) {
+                int mine = line.getKey();
+                if (matches != null) {
+                    mine = matches[line.getKey()];
+                }
+                if (mine >= 0) {
+                    this.lines.put(mine, line.getValue());
+                    taken.add(line.getKey());
+                }
+            }
+            child.keySet().removeAll(taken);
+        }
+    }
+}
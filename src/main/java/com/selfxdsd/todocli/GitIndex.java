@@ -0,0 +1,476 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The Git index file (.git/index), read directly in its binary format,
+ * versions 2, 3 and 4, without spawning any git process.
+ * See https://git-scm.com/docs/index-format.<br><br>
+ * A split index (core.splitIndex) holds only the recent changes, its
+ * link extension names the shared index holding the other entries: both
+ * are merged, as git does.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class GitIndex {
+
+    /**
+     * Signature of the index file ("DIRC").
+     */
+    private static final int SIGNATURE = 0x44495243;
+
+    /**
+     * Size of the fixed part of an entry: stat data, mode, size and sha1.
+     */
+    private static final int ENTRY_FIXED = 60;
+
+    /**
+     * Object type of regular files, in the entry's mode.
+     */
+    private static final int REGULAR_FILE = 0b1000;
+
+    /**
+     * Flag announcing the extended flags (versions 3 and up).
+     */
+    private static final int EXTENDED = 0x4000;
+
+    /**
+     * Mask of the merge stage, in the entry's flags.
+     */
+    private static final int STAGE_MASK = 0x3000;
+
+    /**
+     * Signature of the link extension of a split index ("link").
+     */
+    private static final int LINK = 0x6C696E6B;
+
+    /**
+     * Size of a SHA-1, which ends the index and names the shared index.
+     */
+    private static final int SHA = 20;
+
+    /**
+     * Bits in a word of an EWAH bitmap.
+     */
+    private static final int WORD = 64;
+
+    /**
+     * Path to the index file.
+     */
+    private final Path file;
+
+    /**
+     * Ctor.
+     * @param file Path to the index file.
+     */
+    public GitIndex(final Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Paths of the tracked regular files (no symlinks or submodules),
+     * relative to the root of the working tree and separated by '/'.
+     * Conflicted files are listed once.
+     * @return Paths, in index order.
+     * @throws IOException If the index cannot be read or is corrupt.
+     */
+    public List<String> paths() throws IOException {
+        final List<Entry> entries = this.entries();
+        final List<String> paths = new ArrayList<>(entries.size());
+        for (final Entry entry : entries) {
+            if (entry.mode >>> 12 == REGULAR_FILE
+                && ((entry.flags & STAGE_MASK) == 0
+                || !this.sameAs(paths, entry.path))) {
+                paths.add(new String(entry.path, StandardCharsets.UTF_8));
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Reads the entries, merged with the ones of the shared index if this
+     * is a split index.
+     * @return Entries, sorted by path and stage.
+     * @throws IOException If the index cannot be read or is corrupt.
+     */
+    private List<Entry> entries() throws IOException {
+        final ByteBuffer index;
+        try (FileChannel channel = FileChannel.open(
+            this.file, StandardOpenOption.READ
+        )) {
+            index = channel.map(
+                FileChannel.MapMode.READ_ONLY, 0, channel.size()
+            );
+        }
+        final int version = this.version(index);
+        final int count = index.getInt();
+        List<Entry> entries = new ArrayList<>(count);
+        byte[] previous = new byte[0];
+        for (int idx = 0; idx < count; ++idx) {
+            final int start = index.position();
+            final int mode = index.getInt(start + 24);
+            final int flags = index.getShort(start + 60) & 0xFFFF;
+            final byte[] path = this.path(index, version, previous, flags);
+            entries.add(new Entry(path, mode, flags));
+            previous = path;
+        }
+        final ByteBuffer link = GitIndex.link(index);
+        if (link != null) {
+            entries = this.merged(link, entries);
+        }
+        return entries;
+    }
+
+    /**
+     * Merges the entries of a split index with the ones of its shared
+     * index: the entries of the replace bitmap are replaced by the first
+     * ones of the split index, in order, the entries of the delete bitmap
+     * are dropped, and the other entries of the split index are added.
+     * @param link Data of the link extension.
+     * @param split Entries of the split index.
+     * @return Merged entries, sorted by path and stage.
+     * @throws IOException If the shared index is missing or corrupt.
+     */
+    private List<Entry> merged(final ByteBuffer link, final List<Entry> split)
+        throws IOException {
+        final List<Entry> base = this.shared(link);
+        BitSet deleted = new BitSet();
+        BitSet replaced = new BitSet();
+        if (link.hasRemaining()) {
+            deleted = GitIndex.ewah(link);
+            replaced = GitIndex.ewah(link);
+        }
+        final int next = this.replace(base, split, replaced);
+        final List<Entry> merged = new ArrayList<>(base.size());
+        for (int pos = 0; pos < base.size(); ++pos) {
+            if (!deleted.get(pos)) {
+                merged.add(base.get(pos));
+            }
+        }
+        merged.addAll(split.subList(next, split.size()));
+        return GitIndex.sorted(merged);
+    }
+
+    /**
+     * Checks the signature and reads the version from the header.
+     * @param index Index, positioned at the start.
+     * @return Version.
+     * @throws IOException If this is not a supported index.
+     */
+    private int version(final ByteBuffer index) throws IOException {
+        if (index.remaining() < 12 || index.getInt() != SIGNATURE) {
+            throw new IOException(
+                String.format("%s is not a git index.", this.file)
+            );
+        }
+        final int version = index.getInt();
+        if (version < 2 || version > 4) {
+            throw new IOException(
+                String.format("Unsupported git index version %d.", version)
+            );
+        }
+        return version;
+    }
+
+    /**
+     * Reads the path of an entry, leaving the index positioned on the
+     * next entry.
+     * @param index Index, positioned at the start of the entry.
+     * @param version Index version.
+     * @param previous Path of the previous entry.
+     * @param flags Flags of the entry.
+     * @return Path bytes.
+     */
+    private byte[] path(
+        final ByteBuffer index,
+        final int version,
+        final byte[] previous,
+        final int flags
+    ) {
+        final int start = index.position();
+        index.position(start + ENTRY_FIXED + 2);
+        if ((flags & EXTENDED) != 0) {
+            index.position(index.position() + 2);
+        }
+        final byte[] path;
+        if (version == 4) {
+            path = this.prefixCompressed(index, previous);
+        } else {
+            path = this.padded(index, start);
+        }
+        return path;
+    }
+
+    /**
+     * Reads a NUL-terminated path padded to a multiple of 8 bytes
+     * (versions 2 and 3).
+     * @param index Index, positioned on the path.
+     * @param start Start of the entry.
+     * @return Path bytes.
+     */
+    private byte[] padded(final ByteBuffer index, final int start) {
+        final byte[] path = this.nulTerminated(index);
+        final int length = index.position() - start;
+        index.position(start + (length + 7) / 8 * 8);
+        return path;
+    }
+
+    /**
+     * Reads a path compressed against the previous one (version 4): the
+     * number of bytes to strip from the previous path, as a varint,
+     * followed by the NUL-terminated suffix.
+     * @param index Index, positioned on the path.
+     * @param previous Previous path.
+     * @return Path bytes.
+     */
+    private byte[] prefixCompressed(
+        final ByteBuffer index, final byte[] previous
+    ) {
+        int current = index.get() & 0xFF;
+        long strip = current & 0x7F;
+        while ((current & 0x80) != 0) {
+            current = index.get() & 0xFF;
+            strip = ((strip + 1) << 7) | (current & 0x7F);
+        }
+        final int keep = previous.length - (int) strip;
+        final byte[] suffix = this.nulTerminated(index);
+        final byte[] path = new byte[keep + suffix.length];
+        System.arraycopy(previous, 0, path, 0, keep);
+        System.arraycopy(suffix, 0, path, keep, suffix.length);
+        return path;
+    }
+
+    /**
+     * Reads bytes up to and including the next NUL.
+     * @param index Index.
+     * @return Bytes read, without the NUL.
+     */
+    private byte[] nulTerminated(final ByteBuffer index) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte current = index.get();
+        while (current != 0) {
+            bytes.write(current);
+            current = index.get();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the entries of the shared index named by the link extension.
+     * @param link Data of the link extension, positioned at its start,
+     *  then after the name of the shared index.
+     * @return Entries of the shared index.
+     * @throws IOException If the shared index is missing or corrupt.
+     */
+    private List<Entry> shared(final ByteBuffer link) throws IOException {
+        final StringBuilder name = new StringBuilder("sharedindex.");
+        for (int idx = 0; idx < SHA; ++idx) {
+            name.append(String.format("%02x", link.get() & 0xFF));
+        }
+        final Path shared = this.file.resolveSibling(name.toString());
+        if (!Files.isRegularFile(shared)) {
+            throw new IOException(
+                String.format("Shared index %s is missing.", shared)
+            );
+        }
+        return new GitIndex(shared).entries();
+    }
+
+    /**
+     * Replaces the entries of the shared index which are in the replace
+     * bitmap with the first entries of the split index, in order. They
+     * keep their path, which the split index does not repeat.
+     * @param base Entries of the shared index.
+     * @param split Entries of the split index.
+     * @param replaced Replace bitmap.
+     * @return How many entries of the split index were used.
+     * @throws IOException If the bitmap does not match the entries.
+     */
+    private int replace(final List<Entry> base, final List<Entry> split,
+        final BitSet replaced) throws IOException {
+        int next = 0;
+        for (int pos = replaced.nextSetBit(0); pos >= 0;
+            pos = replaced.nextSetBit(pos + 1)) {
+            if (pos >= base.size() || next >= split.size()) {
+                throw new IOException(
+                    String.format("Corrupt link extension in %s.", this.file)
+                );
+            }
+            final Entry entry = split.get(next);
+            base.set(
+                pos, new Entry(base.get(pos).path, entry.mode, entry.flags)
+            );
+            ++next;
+        }
+        return next;
+    }
+
+    /**
+     * Finds the link extension, after the entries.
+     * @param index Index, positioned after the entries.
+     * @return Data of the extension, null if there is none.
+     */
+    private static ByteBuffer link(final ByteBuffer index) {
+        ByteBuffer link = null;
+        while (link == null && index.remaining() >= SHA + 8) {
+            final int signature = index.getInt();
+            final int size = index.getInt();
+            if (signature == LINK) {
+                link = index.slice().limit(size);
+            }
+            index.position(index.position() + size);
+        }
+        return link;
+    }
+
+    /**
+     * Reads an EWAH-compressed bitmap: its size in bits, its number of
+     * 64-bit words, the words and the position of the last run-length
+     * word. A run-length word gives a run of 0s or 1s (bit 0 says which,
+     * bits 1 to 32 how many words) followed by so many literal words
+     * (bits 33 to 63).
+     * @param data Bitmap, positioned at its start, then after it.
+     * @return Bits set.
+     */
+    private static BitSet ewah(final ByteBuffer data) {
+        final BitSet bits = new BitSet();
+        data.getInt();
+        final int words = data.getInt();
+        int pos = 0;
+        int idx = 0;
+        while (idx < words) {
+            final long marker = data.getLong();
+            ++idx;
+            final int run = (int) (marker >>> 1 & 0xFFFFFFFFL) * WORD;
+            if ((marker & 1) != 0) {
+                bits.set(pos, pos + run);
+            }
+            pos += run;
+            final long literals = marker >>> 33;
+            for (long word = 0; word < literals; ++word) {
+                final BitSet literal = BitSet.valueOf(
+                    new long[] {data.getLong()}
+                );
+                ++idx;
+                for (int bit = literal.nextSetBit(0); bit >= 0;
+                    bit = literal.nextSetBit(bit + 1)) {
+                    bits.set(pos + bit);
+                }
+                pos += WORD;
+            }
+        }
+        data.getInt();
+        return bits;
+    }
+
+    /**
+     * Sorts the entries by path and stage, as git does. Of two entries
+     * with the same path and stage, the last one is kept.
+     * @param entries Entries.
+     * @return Sorted entries.
+     */
+    private static List<Entry> sorted(final List<Entry> entries) {
+        entries.sort(Entry::compareTo);
+        final List<Entry> sorted = new ArrayList<>(entries.size());
+        for (final Entry entry : entries) {
+            final int last = sorted.size() - 1;
+            if (last >= 0 && sorted.get(last).compareTo(entry) == 0) {
+                sorted.set(last, entry);
+            } else {
+                sorted.add(entry);
+            }
+        }
+        return sorted;
+    }
+
+    /**
+     * Checks if the given path is the last one already listed, which is
+     * the case for the higher stages of a conflicted file.
+     * @param paths Paths listed so far.
+     * @param path Path.
+     * @return True or false.
+     */
+    private boolean sameAs(final List<String> paths, final byte[] path) {
+        return !paths.isEmpty() && paths.get(paths.size() - 1).equals(
+            new String(path, StandardCharsets.UTF_8)
+        );
+    }
+
+    /**
+     * An entry of the index: what is needed of it to list the files.
+     */
+    private static final class Entry implements Comparable<Entry> {
+
+        /**
+         * Path bytes.
+         */
+        private final byte[] path;
+
+        /**
+         * File mode.
+         */
+        private final int mode;
+
+        /**
+         * Flags, with the merge stage.
+         */
+        private final int flags;
+
+        /**
+         * Ctor.
+         * @param path Path bytes.
+         * @param mode File mode.
+         * @param flags Flags.
+         */
+        Entry(final byte[] path, final int mode, final int flags) {
+            this.path = path;
+            this.mode = mode;
+            this.flags = flags;
+        }
+
+        @Override
+        public int compareTo(final Entry other) {
+            int order = Arrays.compareUnsigned(this.path, other.path);
+            if (order == 0) {
+                order = Integer.compare(
+                    this.flags & STAGE_MASK, other.flags & STAGE_MASK
+                );
+            }
+            return order;
+        }
+    }
+}
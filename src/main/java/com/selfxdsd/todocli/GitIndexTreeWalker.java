@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitor;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+
+/**
+ * {@link TreeWalker} which does not walk the file system at all: it visits
+ * only the files tracked by Git, as listed in the repository's index.
+ * Untracked, ignored and build-output files are never visited.<br><br>
+ * Only the root directory is pre- and post-visited; tracked files which are
+ * missing from the working tree are skipped.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class GitIndexTreeWalker implements TreeWalker {
+
+    @Override
+    public void walk(final Path root, final FileVisitor<Path> visitor)
+        throws IOException {
+        final GitRepository repo = GitRepository.find(root);
+        final String prefix = this.prefix(repo, root);
+        final BasicFileAttributes rootAttrs = Files.readAttributes(
+            root, BasicFileAttributes.class
+        );
+        final FileVisitResult pre = visitor.preVisitDirectory(
+            root, rootAttrs
+        );
+        if (pre == FileVisitResult.CONTINUE) {
+            final Iterator<String> paths = repo.index().paths().iterator();
+            FileVisitResult result = FileVisitResult.CONTINUE;
+            while (result == FileVisitResult.CONTINUE && paths.hasNext()) {
+                final String path = paths.next();
+                if (path.startsWith(prefix)) {
+                    result = this.visit(
+                        root.resolve(path.substring(prefix.length())),
+                        visitor
+                    );
+                }
+            }
+            if (result != FileVisitResult.TERMINATE) {
+                visitor.postVisitDirectory(root, null);
+            }
+        }
+    }
+
+    /**
+     * Visits a tracked file, if it is present in the working tree.
+     * @param file File.
+     * @param visitor Visitor.
+     * @return Visit result.
+     * @throws IOException If the visitor fails.
+     */
+    private FileVisitResult visit(
+        final Path file, final FileVisitor<Path> visitor
+    ) throws IOException {
+        FileVisitResult result = FileVisitResult.CONTINUE;
+        if (Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+            result = visitor.visitFile(
+                file, Files.readAttributes(file, BasicFileAttributes.class)
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Index paths prefix of the files under the given root.
+     * @param repo Repository.
+     * @param root Root of the walk.
+     * @return Prefix, empty or ending with '/'.
+     */
+    private String prefix(final GitRepository repo, final Path root) {
+        final Path relative = repo.worktree().relativize(
+            root.toAbsolutePath().normalize()
+        );
+        final StringBuilder prefix = new StringBuilder();
+        for (final Path name : relative) {
+            if (!name.toString().isEmpty()) {
+                prefix.append(name).append('/');
+            }
+        }
+        return prefix.toString();
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * An object read from the git object store: its type and its content.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+final class GitObject {
+
+    /**
+     * Type of commits.
+     */
+    static final int COMMIT = 1;
+
+    /**
+     * Type of trees.
+     */
+    static final int TREE = 2;
+
+    /**
+     * Type of blobs.
+     */
+    static final int BLOB = 3;
+
+    /**
+     * Type of annotated tags.
+     */
+    static final int TAG = 4;
+
+    /**
+     * Type, one of the constants above.
+     */
+    private final int type;
+
+    /**
+     * Content, without the loose object header.
+     */
+    private final byte[] data;
+
+    /**
+     * Ctor.
+     * @param type Type, one of the constants above.
+     * @param data Content.
+     */
+    GitObject(final int type, final byte[] data) {
+        this.type = type;
+        this.data = data;
+    }
+
+    /**
+     * Type of the object.
+     * @return One of COMMIT, TREE, BLOB or TAG.
+     */
+    int type() {
+        return this.type;
+    }
+
+    /**
+     * Content of the object.
+     * @return Bytes, not to be modified.
+     */
+    byte[] data() {
+        return this.data;
+    }
+
+    /**
+     * Type of a loose object, from its header.
+     * @param name Name of the type.
+     * @return Type, or -1 if it is not known.
+     */
+    static int typeOf(final String name) {
+        final int type;
+        if ("commit".equals(name)) {
+            type = COMMIT;
+        } else if ("tree".equals(name)) {
+            type = TREE;
+        } else if ("blob".equals(name)) {
+            type = BLOB;
+        } else if ("tag".equals(name)) {
+            type = TAG;
+        } else {
+            type = -1;
+        }
+        return type;
+    }
+
+    /**
+     * Id the content would have as a blob.
+     * @param content Content.
+     * @return Id, in hex.
+     */
+    static String blobId(final byte[] content) {
+        final MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-1");
+        } catch (final NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+        sha.update(
+            String.format("blob %d\0", content.length)
+                .getBytes(StandardCharsets.US_ASCII)
+        );
+        return ObjectStore.hex(sha.digest(content), 0);
+    }
+}
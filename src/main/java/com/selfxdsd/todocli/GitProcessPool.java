@@ -0,0 +1,411 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs git processes, at most a given number at the same time: callers
+ * wait for a free slot, so the number of git processes (and their file
+ * descriptors) is bounded independently of the threads parsing the files.
+ * <br><br>
+ * Every process has its standard input closed and its standard error
+ * drained in the background, so it never blocks on a full pipe, and it is
+ * killed, along with its children, if it runs longer than the timeout. It
+ * is always waited for, so no zombie is left behind, and a non-zero exit
+ * code is reported as a {@link GitException}. The counters (spawned
+ * processes, spawn and run times, failures, timeouts) are kept for the
+ * whole life of the pool.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class GitProcessPool {
+
+    /**
+     * Kills the processes which run for too long.
+     */
+    private static final ScheduledThreadPoolExecutor WATCHDOG =
+        GitProcessPool.watchdog();
+
+    /**
+     * Drains the standard error of the processes.
+     */
+    private static final ExecutorService DRAINS =
+        Executors.newCachedThreadPool(GitProcessPool.daemons("git-stderr"));
+
+    /**
+     * How much of the standard error is kept, for the error messages.
+     */
+    private static final int ERRORS_KEPT = 4096;
+
+    /**
+     * Free process slots.
+     */
+    private final Semaphore slots;
+
+    /**
+     * How long a process may run.
+     */
+    private final Duration timeout;
+
+    /**
+     * Number of spawned processes.
+     */
+    private final LongAdder spawned = new LongAdder();
+
+    /**
+     * Time spent spawning the processes, in nanoseconds.
+     */
+    private final LongAdder spawning = new LongAdder();
+
+    /**
+     * Number of processes which exited (or were killed).
+     */
+    private final LongAdder exited = new LongAdder();
+
+    /**
+     * Time from spawn to exit of the processes, in nanoseconds.
+     */
+    private final LongAdder running = new LongAdder();
+
+    /**
+     * Number of processes which exited with an error.
+     */
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * Number of processes killed because of the timeout.
+     */
+    private final LongAdder killed = new LongAdder();
+
+    /**
+     * Ctor. As many processes as processors, for at most 2 minutes each.
+     */
+    public GitProcessPool() {
+        this(Runtime.getRuntime().availableProcessors(), Duration.ofMinutes(2));
+    }
+
+    /**
+     * Ctor.
+     * @param processes How many processes may run at the same time.
+     * @param timeout How long a process may run before it is killed.
+     */
+    public GitProcessPool(final int processes, final Duration timeout) {
+        if (processes < 1) {
+            throw new IllegalArgumentException(
+                "At least one git process must be allowed."
+            );
+        }
+        this.slots = new Semaphore(processes, true);
+        this.timeout = timeout;
+    }
+
+    /**
+     * Runs git, waiting for a free slot first.
+     * @param dir Directory where git runs.
+     * @param args Arguments of git.
+     * @param output What to do with the standard output of git.
+     * @param <T> Type of the result.
+     * @return What the output returned.
+     * @throws IOException If git cannot be run, fails or times out.
+     */
+    public <T> T run(
+        final Path dir, final List<String> args, final Output<T> output
+    ) throws IOException {
+        try {
+            this.slots.acquire();
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException(exception);
+        }
+        try {
+            return this.spawn(dir, args, output);
+        } finally {
+            this.slots.release();
+        }
+    }
+
+    /**
+     * Number of spawned processes.
+     * @return Processes.
+     */
+    public long spawned() {
+        return this.spawned.sum();
+    }
+
+    /**
+     * Time spent spawning the processes.
+     * @return Total duration.
+     */
+    public Duration spawnTime() {
+        return Duration.ofNanos(this.spawning.sum());
+    }
+
+    /**
+     * Number of processes which exited, were killed or failed to be read.
+     * @return Processes.
+     */
+    public long exited() {
+        return this.exited.sum();
+    }
+
+    /**
+     * Time from spawn to exit of the processes.
+     * @return Total duration.
+     */
+    public Duration runTime() {
+        return Duration.ofNanos(this.running.sum());
+    }
+
+    /**
+     * Number of processes which exited with an error.
+     * @return Processes.
+     */
+    public long failures() {
+        return this.failed.sum();
+    }
+
+    /**
+     * Number of processes killed because they ran for too long.
+     * @return Processes.
+     */
+    public long timeouts() {
+        return this.killed.sum();
+    }
+
+    /**
+     * Spawns the process, reads its output and waits for it.
+     * @param dir Directory where git runs.
+     * @param args Arguments of git.
+     * @param output What to do with the standard output of git.
+     * @param <T> Type of the result.
+     * @return What the output returned.
+     * @throws IOException If git cannot be run, fails or times out.
+     */
+    private <T> T spawn(
+        final Path dir, final List<String> args, final Output<T> output
+    ) throws IOException {
+        final List<String> command = new ArrayList<>(args.size() + 1);
+        command.add("git");
+        command.addAll(args);
+        final long start = System.nanoTime();
+        final Process process = new ProcessBuilder(command)
+            .directory(dir.toFile())
+            .start();
+        this.spawning.add(System.nanoTime() - start);
+        this.spawned.increment();
+        process.getOutputStream().close();
+        final Future<String> errors = DRAINS.submit(
+            () -> GitProcessPool.drain(process.getErrorStream())
+        );
+        final AtomicBoolean expired = new AtomicBoolean();
+        final ScheduledFuture<?> kill = this.watch(process, expired);
+        final T result;
+        try {
+            result = this.read(process, output);
+        } finally {
+            kill.cancel(false);
+            process.destroyForcibly();
+            this.exited.increment();
+            this.running.add(System.nanoTime() - start);
+        }
+        this.check(command, process, expired.get(), errors);
+        return result;
+    }
+
+    /**
+     * Kills the process and its children, if it is still running when the
+     * timeout expires.
+     * @param process Process.
+     * @param expired Set when the timeout expires.
+     * @return The scheduled kill, to be cancelled once the process exits.
+     */
+    private ScheduledFuture<?> watch(
+        final Process process, final AtomicBoolean expired
+    ) {
+        return WATCHDOG.schedule(
+            () -> {
+                expired.set(true);
+                process.descendants().forEach(ProcessHandle::destroyForcibly);
+                process.destroyForcibly();
+            },
+            this.timeout.toNanos(), TimeUnit.NANOSECONDS
+        );
+    }
+
+    /**
+     * Reads the standard output of the process, then waits for it to exit.
+     * @param process Process.
+     * @param output What to do with the standard output.
+     * @param <T> Type of the result.
+     * @return What the output returned.
+     * @throws IOException If the output cannot be read.
+     */
+    private <T> T read(final Process process, final Output<T> output)
+        throws IOException {
+        final T result;
+        try (InputStream stdout = process.getInputStream()) {
+            result = output.read(stdout);
+        }
+        try {
+            process.waitFor();
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException(exception);
+        }
+        return result;
+    }
+
+    /**
+     * Checks how the process ended.
+     * @param command Command.
+     * @param process Process, which has exited.
+     * @param expired Whether it was killed because of the timeout.
+     * @param errors Its standard error.
+     * @throws IOException If it timed out or exited with an error.
+     */
+    private void check(
+        final List<String> command,
+        final Process process,
+        final boolean expired,
+        final Future<String> errors
+    ) throws IOException {
+        if (expired) {
+            this.killed.increment();
+            throw new IOException(
+                String.format(
+                    "%s killed after %s", String.join(" ", command),
+                    this.timeout
+                )
+            );
+        }
+        if (process.exitValue() != 0) {
+            this.failed.increment();
+            throw new GitException(
+                command, process.exitValue(), GitProcessPool.errors(errors)
+            );
+        }
+    }
+
+    /**
+     * The standard error, as drained.
+     * @param errors Drained standard error.
+     * @return Its beginning, empty if it could not be read.
+     */
+    private static String errors(final Future<String> errors) {
+        String text = "";
+        try {
+            text = errors.get();
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException exception) {
+            text = String.valueOf(exception.getCause());
+        }
+        return text;
+    }
+
+    /**
+     * Reads a stream to its end, keeping only its beginning.
+     * @param stream Stream.
+     * @return Beginning of the stream.
+     * @throws IOException If it cannot be read.
+     */
+    private static String drain(final InputStream stream) throws IOException {
+        final StringBuilder kept = new StringBuilder();
+        try (Reader reader = new InputStreamReader(
+            stream, StandardCharsets.UTF_8
+        )) {
+            final char[] buffer = new char[ERRORS_KEPT];
+            int read = reader.read(buffer);
+            while (read >= 0) {
+                kept.append(
+                    buffer, 0, Math.min(read, ERRORS_KEPT - kept.length())
+                );
+                read = reader.read(buffer);
+            }
+        }
+        return kept.toString();
+    }
+
+    /**
+     * Single thread killing the processes which time out.
+     * @return Executor.
+     */
+    private static ScheduledThreadPoolExecutor watchdog() {
+        final ScheduledThreadPoolExecutor watchdog =
+            new ScheduledThreadPoolExecutor(
+                1, GitProcessPool.daemons("git-watchdog")
+            );
+        watchdog.setRemoveOnCancelPolicy(true);
+        return watchdog;
+    }
+
+    /**
+     * Factory of daemon threads, which do not keep the JVM alive.
+     * @param name Name of the threads.
+     * @return Thread factory.
+     */
+    private static ThreadFactory daemons(final String name) {
+        return runnable -> {
+            final Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * What to do with the standard output of git.
+     * @param <T> Type of the result.
+     */
+    public interface Output<T> {
+
+        /**
+         * Reads the standard output. It is closed afterwards, so whatever
+         * is not read is discarded.
+         * @param stdout Standard output of git.
+         * @return Result.
+         * @throws IOException If it cannot be read.
+         */
+        T read(InputStream stdout) throws IOException;
+    }
+}
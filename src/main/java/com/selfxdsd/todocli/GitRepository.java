@@ -0,0 +1,256 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A Git repository on disk: its working tree and its git directory, which
+ * are the same directory if the repository is bare.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class GitRepository {
+
+    /**
+     * Name of the git directory.
+     */
+    private static final String DOT_GIT = ".git";
+
+    /**
+     * Prefix of the ".git" file pointing to the actual git directory
+     * (worktrees, submodules).
+     */
+    private static final String GITDIR = "gitdir:";
+
+    /**
+     * Prefix of a symbolic reference, such as HEAD.
+     */
+    private static final String SYMREF = "ref:";
+
+    /**
+     * Root of the working tree.
+     */
+    private final Path worktree;
+
+    /**
+     * The git directory.
+     */
+    private final Path gitDir;
+
+    /**
+     * Ctor.
+     * @param worktree Root of the working tree.
+     * @param gitDir The git directory.
+     */
+    public GitRepository(final Path worktree, final Path gitDir) {
+        this.worktree = worktree;
+        this.gitDir = gitDir;
+    }
+
+    /**
+     * Finds the repository containing the given path, looking into it and
+     * all its parents. A bare repository has no working tree: its git
+     * directory stands for it, so the files of its commits are seen as if
+     * they were checked out right in it.
+     * @param path Path inside the repository.
+     * @return GitRepository.
+     * @throws IOException If the path is not inside a git repository.
+     */
+    public static GitRepository find(final Path path) throws IOException {
+        Path dir = path.toAbsolutePath().normalize();
+        while (dir != null && !Files.exists(dir.resolve(DOT_GIT))
+            && !GitRepository.bare(dir)) {
+            dir = dir.getParent();
+        }
+        if (dir == null) {
+            throw new IOException(
+                String.format("%s is not inside a git repository.", path)
+            );
+        }
+        final Path dotGit = dir.resolve(DOT_GIT);
+        final Path gitDir;
+        if (!Files.exists(dotGit)) {
+            gitDir = dir;
+        } else if (Files.isDirectory(dotGit)) {
+            gitDir = dotGit;
+        } else {
+            final String content = new String(
+                Files.readAllBytes(dotGit), StandardCharsets.UTF_8
+            ).trim();
+            if (!content.startsWith(GITDIR)) {
+                throw new IOException(
+                    String.format("Invalid git file %s.", dotGit)
+                );
+            }
+            gitDir = dir.resolve(
+                content.substring(GITDIR.length()).trim()
+            ).normalize();
+        }
+        return new GitRepository(dir, gitDir);
+    }
+
+    /**
+     * Root of the working tree, the git directory of a bare repository.
+     * @return Absolute path.
+     */
+    public Path worktree() {
+        return this.worktree;
+    }
+
+    /**
+     * The git directory (usually worktree/.git).
+     * @return Absolute path.
+     */
+    public Path gitDir() {
+        return this.gitDir;
+    }
+
+    /**
+     * The common git directory, shared by all the working trees of the
+     * repository: the git directory itself, unless it belongs to a linked
+     * working tree.
+     * @return Absolute path.
+     * @throws IOException If the commondir file cannot be read.
+     */
+    public Path commonDir() throws IOException {
+        final Path file = this.gitDir.resolve("commondir");
+        Path common = this.gitDir;
+        if (Files.isRegularFile(file)) {
+            common = this.gitDir.resolve(
+                new String(
+                    Files.readAllBytes(file), StandardCharsets.UTF_8
+                ).trim()
+            ).normalize();
+        }
+        return common;
+    }
+
+    /**
+     * Resolves a reference (HEAD, a branch, a tag or a full ref name) to
+     * the object it points to, following the symbolic references. The
+     * names are tried as git does: as given (only HEAD-like names and full
+     * ref names), then under refs/, refs/tags/, refs/heads/ and
+     * refs/remotes/. A full object id is returned as it is.
+     * @param name Name of the reference.
+     * @return Object id, in hex.
+     * @throws IOException If the reference does not exist.
+     */
+    public String resolve(final String name) throws IOException {
+        String found = null;
+        if (name.matches("[0-9a-f]{40}")) {
+            found = name;
+        }
+        final String[] prefixes = {
+            "", "refs/", "refs/tags/", "refs/heads/", "refs/remotes/",
+        };
+        int start = 1;
+        if (name.matches("[A-Z_]+|refs/.+")) {
+            start = 0;
+        }
+        for (int idx = start; found == null && idx < prefixes.length; ++idx) {
+            found = this.ref(prefixes[idx] + name, 0);
+        }
+        if (found == null) {
+            throw new IOException(
+                String.format("Unknown revision %s in %s.", name, this.gitDir)
+            );
+        }
+        return found;
+    }
+
+    /**
+     * Checks if the directory is the git directory of a bare repository:
+     * it has a HEAD, objects and refs, like any git directory, but it is
+     * not the .git of a working tree.
+     * @param dir Directory.
+     * @return True or false.
+     */
+    private static boolean bare(final Path dir) {
+        return !DOT_GIT.equals(String.valueOf(dir.getFileName()))
+            && Files.isRegularFile(dir.resolve("HEAD"))
+            && Files.isDirectory(dir.resolve("objects"))
+            && Files.isDirectory(dir.resolve("refs"));
+    }
+
+    /**
+     * Reads a reference, loose or packed.
+     * @param name Full name of the reference.
+     * @param depth How many symbolic references were followed so far.
+     * @return Object id or null if there is no such reference.
+     * @throws IOException If the reference cannot be read.
+     */
+    private String ref(final String name, final int depth) throws IOException {
+        Path file = this.gitDir.resolve(name);
+        if (!Files.isRegularFile(file)) {
+            file = this.commonDir().resolve(name);
+        }
+        String found = null;
+        if (depth < 5 && Files.isRegularFile(file)) {
+            final String content = new String(
+                Files.readAllBytes(file), StandardCharsets.UTF_8
+            ).trim();
+            if (content.startsWith(SYMREF)) {
+                found = this.ref(
+                    content.substring(SYMREF.length()).trim(), depth + 1
+                );
+            } else {
+                found = content;
+            }
+        } else if (depth < 5) {
+            found = this.packed(name);
+        }
+        return found;
+    }
+
+    /**
+     * Looks the reference up in the packed-refs file.
+     * @param name Full name of the reference.
+     * @return Object id or null if it is not there.
+     * @throws IOException If the file cannot be read.
+     */
+    private String packed(final String name) throws IOException {
+        final Path file = this.commonDir().resolve("packed-refs");
+        String found = null;
+        if (Files.isRegularFile(file)) {
+            for (final String line : Files.readAllLines(file)) {
+                if (line.endsWith(" " + name) && line.indexOf(' ') == 40) {
+                    found = line.substring(0, 40);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * The index (staging area) of this repository.
+     * @return GitIndex.
+     */
+    public GitIndex index() {
+        return new GitIndex(this.gitDir.resolve("index"));
+    }
+}
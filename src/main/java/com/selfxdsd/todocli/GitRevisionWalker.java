@@ -0,0 +1,303 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Walks the files of a git commit instead of the working tree, so the
+ * commit does not have to be checked out: its trees are read straight
+ * from the object store and the blobs are fed to the {@link TodoVisitor}
+ * as they are, read only when they are parsed. The files are skipped the
+ * way a scan of a clean checkout of the commit would skip them: the
+ * excluded directories and, if asked to, whatever the committed .gitignore
+ * files ignore. Symbolic links and submodules are not followed.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class GitRevisionWalker {
+
+    /**
+     * Name of the ignore files.
+     */
+    private static final String GITIGNORE = ".gitignore";
+
+    /**
+     * Id of the commit.
+     */
+    private final String rev;
+
+    /**
+     * Names of the directories which are not visited.
+     */
+    private final Set<String> excluded;
+
+    /**
+     * Whether .gitignore files are honored.
+     */
+    private final boolean gitignore;
+
+    /**
+     * Ctor.
+     * @param rev Id of the commit, in hex.
+     * @param excluded Names of the directories to skip, besides the version
+     *  control metadata ones.
+     * @param gitignore Whether to honor the .gitignore files.
+     */
+    public GitRevisionWalker(
+        final String rev, final Collection<String> excluded,
+        final boolean gitignore
+    ) {
+        this.rev = rev;
+        this.excluded = new HashSet<>(TodoVisitor.VCS_DIRS);
+        this.excluded.addAll(excluded);
+        this.gitignore = gitignore;
+    }
+
+    /**
+     * Walks the files of the commit which are below the given root.
+     * @param root Root of the walk, in the working tree of the repository.
+     * @param visitor Visitor parsing the files.
+     * @throws IOException If the commit cannot be read.
+     */
+    public void walk(final Path root, final TodoVisitor visitor)
+        throws IOException {
+        final GitRepository repo = GitRepository.find(root);
+        final ObjectStore store = new ObjectStore(
+            repo.commonDir().resolve("objects")
+        );
+        String tree = new GitCommit(
+            store.object(this.rev, GitObject.COMMIT).data()
+        ).tree();
+        final Path relative = repo.worktree().relativize(
+            root.toAbsolutePath().normalize()
+        );
+        for (final Path name : relative) {
+            if (tree != null && !name.toString().isEmpty()) {
+                tree = this.subtree(store, tree, name.toString());
+            }
+        }
+        final FileVisitResult pre = visitor.preVisitDirectory(
+            root, Files.readAttributes(root, BasicFileAttributes.class)
+        );
+        if (pre == FileVisitResult.CONTINUE) {
+            if (tree != null) {
+                this.walk(store, tree, root, null, visitor);
+            }
+            visitor.postVisitDirectory(root, null);
+        }
+    }
+
+    /**
+     * Walks a tree.
+     * @param store Object store.
+     * @param tree Id of the tree.
+     * @param dir Directory of the tree.
+     * @param parent Ignore rules of the parent directory, or null.
+     * @param visitor Visitor parsing the files.
+     * @throws IOException If the tree cannot be read.
+     * @checkstyle ParameterNumber (5 lines)
+     */
+    private void walk(final ObjectStore store, final String tree,
+        final Path dir, final IgnoreRules parent, final TodoVisitor visitor)
+        throws IOException {
+        final List<Entry> entries = GitRevisionWalker.entries(
+            store.object(tree, GitObject.TREE).data()
+        );
+        final IgnoreRules rules = this.rules(store, entries, dir, parent);
+        for (final Entry entry : entries) {
+            final Path path = dir.resolve(entry.name);
+            if (entry.isTree()) {
+                if (!this.excluded.contains(entry.name)
+                    && !GitRevisionWalker.ignored(rules, path, true)) {
+                    this.walk(store, entry.sha, path, rules, visitor);
+                }
+            } else if (entry.isFile()
+                && !GitRevisionWalker.ignored(rules, path, false)) {
+                visitor.visitContent(
+                    path, () -> store.object(entry.sha, GitObject.BLOB).data()
+                );
+            }
+        }
+    }
+
+    /**
+     * Ignore rules applying inside a directory: the ones of its committed
+     * .gitignore, if any, chained to the parent ones.
+     * @param store Object store.
+     * @param entries Entries of the directory's tree.
+     * @param dir Directory.
+     * @param parent Rules of the parent directory, or null.
+     * @return Rules, the parent ones if there is no .gitignore or they are
+     *  not honored.
+     * @throws IOException If the .gitignore cannot be read.
+     * @checkstyle ParameterNumber (5 lines)
+     */
+    private IgnoreRules rules(final ObjectStore store,
+        final List<Entry> entries, final Path dir, final IgnoreRules parent)
+        throws IOException {
+        IgnoreRules rules = parent;
+        for (final Entry entry : entries) {
+            if (this.gitignore && entry.isFile()
+                && GITIGNORE.equals(entry.name)) {
+                rules = new IgnoreRules(
+                    dir,
+                    new String(
+                        store.object(entry.sha, GitObject.BLOB).data(),
+                        StandardCharsets.UTF_8
+                    ).lines().collect(Collectors.toList()),
+                    parent
+                );
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Id of a directory in a tree.
+     * @param store Object store.
+     * @param tree Id of the tree.
+     * @param name Name of the directory.
+     * @return Id of its tree or null if there is no such directory.
+     * @throws IOException If the tree cannot be read.
+     */
+    private String subtree(final ObjectStore store, final String tree,
+        final String name) throws IOException {
+        String found = null;
+        for (final Entry entry : GitRevisionWalker.entries(
+            store.object(tree, GitObject.TREE).data()
+        )) {
+            if (entry.isTree() && entry.name.equals(name)) {
+                found = entry.sha;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Checks if a path is ignored.
+     * @param rules Rules of its directory, or null.
+     * @param path File or directory.
+     * @param directory Whether it is a directory.
+     * @return True or false.
+     */
+    private static boolean ignored(final IgnoreRules rules, final Path path,
+        final boolean directory) {
+        return rules != null && rules.ignored(path, directory);
+    }
+
+    /**
+     * Entries of a tree.
+     * @param tree Content of the tree: mode, space, name, NUL, 20 bytes id.
+     * @return Entries, in order.
+     */
+    private static List<Entry> entries(final byte[] tree) {
+        final List<Entry> entries = new ArrayList<>();
+        int pos = 0;
+        while (pos < tree.length) {
+            int space = pos;
+            while (tree[space] != ' ') {
+                ++space;
+            }
+            int end = space + 1;
+            while (tree[end] != 0) {
+                ++end;
+            }
+            entries.add(
+                new Entry(
+                    new String(
+                        tree, pos, space - pos, StandardCharsets.US_ASCII
+                    ),
+                    new String(
+                        tree, space + 1, end - space - 1,
+                        StandardCharsets.UTF_8
+                    ),
+                    ObjectStore.hex(tree, end + 1)
+                )
+            );
+            pos = end + 21;
+        }
+        return entries;
+    }
+
+    /**
+     * An entry of a tree.
+     */
+    private static final class Entry {
+
+        /**
+         * Mode, in octal.
+         */
+        private final String mode;
+
+        /**
+         * Name.
+         */
+        private final String name;
+
+        /**
+         * Id of the blob or tree.
+         */
+        private final String sha;
+
+        /**
+         * Ctor.
+         * @param mode Mode, in octal.
+         * @param name Name.
+         * @param sha Id of the blob or tree.
+         */
+        Entry(final String mode, final String name, final String sha) {
+            this.mode = mode;
+            this.name = name;
+            this.sha = sha;
+        }
+
+        /**
+         * Is it a directory?
+         * @return True or false.
+         */
+        boolean isTree() {
+            return "40000".equals(this.mode);
+        }
+
+        /**
+         * Is it a regular file, executable or not?
+         * @return True or false.
+         */
+        boolean isFile() {
+            return this.mode.startsWith("100");
+        }
+    }
+}
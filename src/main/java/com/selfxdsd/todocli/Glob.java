@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+/**
+ * Glob matcher for the ignore patterns which cannot be compiled into a
+ * {@link PatternTrie}. Supports '*' and '?' (never matching '/'), '**'
+ * (matching across directories), character classes such as [a-z] or [!0-9]
+ * and backslash escapes.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+final class Glob {
+
+    /**
+     * The pattern.
+     */
+    private final String pattern;
+
+    /**
+     * Ctor.
+     * @param pattern Glob pattern.
+     */
+    Glob(final String pattern) {
+        this.pattern = pattern;
+    }
+
+    /**
+     * Checks if the whole text matches this glob.
+     * @param text Text.
+     * @return True or false.
+     */
+    boolean matches(final String text) {
+        return this.matches(text, 0, 0);
+    }
+
+    /**
+     * Matches the pattern starting at the given position against the text
+     * starting at the given index.
+     * @param text Text.
+     * @param from Position in the pattern.
+     * @param start Index in the text.
+     * @return True or false.
+     */
+    private boolean matches(
+        final String text, final int from, final int start
+    ) {
+        int pos = from;
+        int idx = start;
+        Boolean result = null;
+        while (result == null && pos < this.pattern.length()) {
+            final char chr = this.pattern.charAt(pos);
+            if (chr == '*') {
+                if (this.isAt(pos + 1, '*')) {
+                    result = this.doubleStar(text, pos + 2, idx);
+                } else {
+                    result = this.star(text, pos + 1, idx);
+                }
+            } else if (idx >= text.length()) {
+                result = false;
+            } else {
+                final int next = this.single(text.charAt(idx), pos);
+                if (next < 0) {
+                    result = false;
+                } else {
+                    pos = next;
+                    ++idx;
+                }
+            }
+        }
+        if (result == null) {
+            result = idx == text.length();
+        }
+        return result;
+    }
+
+    /**
+     * Matches a single character against the pattern element ('?', class
+     * or literal) at the given position.
+     * @param chr Character.
+     * @param pos Position in the pattern.
+     * @return Position after the element or -1 if it does not match.
+     */
+    private int single(final char chr, final int pos) {
+        final char elem = this.pattern.charAt(pos);
+        int next = -1;
+        if (elem == '?') {
+            if (chr != '/') {
+                next = pos + 1;
+            }
+        } else if (elem == '[' && this.pattern.indexOf(']', pos + 2) > 0) {
+            next = this.inClass(chr, pos);
+        } else if (elem == '\\' && pos + 1 < this.pattern.length()) {
+            if (this.pattern.charAt(pos + 1) == chr) {
+                next = pos + 2;
+            }
+        } else if (elem == chr) {
+            next = pos + 1;
+        }
+        return next;
+    }
+
+    /**
+     * Matches a character against the class starting at the given position.
+     * @param chr Character.
+     * @param pos Position of '['.
+     * @return Position after the class or -1 if it does not match.
+     */
+    private int inClass(final char chr, final int pos) {
+        int idx = pos + 1;
+        final boolean negated = this.isAt(idx, '!') || this.isAt(idx, '^');
+        if (negated) {
+            ++idx;
+        }
+        boolean found = false;
+        boolean first = true;
+        while (idx < this.pattern.length()
+            && (first || this.pattern.charAt(idx) != ']')) {
+            first = false;
+            final int end = this.rangeEnd(idx);
+            found = found || chr >= this.pattern.charAt(idx)
+                && chr <= this.pattern.charAt(end);
+            idx = end + 1;
+        }
+        int next = -1;
+        if (found != negated && chr != '/') {
+            next = idx + 1;
+        }
+        return next;
+    }
+
+    /**
+     * Position of the upper bound of the class range starting at the given
+     * position, such as "a-z"; the position itself for a single character.
+     * @param pos Position of the lower bound.
+     * @return Position of the upper bound.
+     */
+    private int rangeEnd(final int pos) {
+        int end = pos;
+        if (this.isAt(pos + 1, '-') && pos + 2 < this.pattern.length()
+            && !this.isAt(pos + 2, ']')) {
+            end = pos + 2;
+        }
+        return end;
+    }
+
+    /**
+     * Matches a single star: anything but '/'.
+     * @param text Text.
+     * @param pos Position in the pattern, after the star.
+     * @param start Index in the text.
+     * @return True or false.
+     */
+    private boolean star(final String text, final int pos, final int start) {
+        boolean result = false;
+        int idx = start;
+        while (!result) {
+            result = this.matches(text, pos, idx);
+            if (idx >= text.length() || text.charAt(idx) == '/') {
+                break;
+            }
+            ++idx;
+        }
+        return result;
+    }
+
+    /**
+     * Matches a double star: anything, including '/'. When followed by '/'
+     * it matches zero or more whole directories.
+     * @param text Text.
+     * @param pos Position in the pattern, after the double star.
+     * @param start Index in the text.
+     * @return True or false.
+     */
+    private boolean doubleStar(
+        final String text, final int pos, final int start
+    ) {
+        boolean result;
+        if (this.isAt(pos, '/')) {
+            result = this.matches(text, pos + 1, start);
+            for (int idx = start + 1; !result && idx <= text.length(); ++idx) {
+                if (text.charAt(idx - 1) == '/') {
+                    result = this.matches(text, pos + 1, idx);
+                }
+            }
+        } else {
+            result = false;
+            for (int idx = start; !result && idx <= text.length(); ++idx) {
+                result = this.matches(text, pos, idx);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks the pattern character at the given position.
+     * @param pos Position.
+     * @param chr Expected character.
+     * @return True if the position is valid and holds the character.
+     */
+    private boolean isAt(final int pos, final char chr) {
+        return pos < this.pattern.length() && this.pattern.charAt(pos) == chr;
+    }
+}
@@ -0,0 +1,346 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Compiled rules of one .gitignore file, chained to the rules of the parent
+ * directories. Literal patterns are compiled into {@link PatternTrie}s (file
+ * names, name prefixes such as "build*", name suffixes such as "*.class",
+ * anchored paths such as "/target" and anchored directories such as
+ * "docs/**"), so a path is checked in time proportional to its length; only
+ * the remaining patterns go to the {@link Glob} fallback.<br><br>
+ * As in Git, the last matching rule wins and rules of a deeper .gitignore
+ * override the ones of its parents. See https://git-scm.com/docs/gitignore.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class IgnoreRules {
+
+    /**
+     * Name of the ignore file.
+     */
+    private static final String GITIGNORE = ".gitignore";
+
+    /**
+     * Characters with special meaning in a pattern.
+     */
+    private static final String WILDCARDS = "*?[\\";
+
+    /**
+     * Directory containing the ignore file.
+     */
+    private final Path base;
+
+    /**
+     * Rules of the parent directories, or null.
+     */
+    private final IgnoreRules parent;
+
+    /**
+     * Negation flag of each rule.
+     */
+    private final List<Boolean> negated = new ArrayList<>();
+
+    /**
+     * Directory-only flag of each rule.
+     */
+    private final List<Boolean> dirOnly = new ArrayList<>();
+
+    /**
+     * Unanchored literal file names.
+     */
+    private final PatternTrie names = new PatternTrie();
+
+    /**
+     * Unanchored file name prefixes ("name*").
+     */
+    private final PatternTrie prefixes = new PatternTrie();
+
+    /**
+     * Unanchored file name suffixes ("*name"), stored reversed.
+     */
+    private final PatternTrie suffixes = new PatternTrie();
+
+    /**
+     * Anchored literal paths.
+     */
+    private final PatternTrie paths = new PatternTrie();
+
+    /**
+     * Anchored directories whose whole content is ignored ("path/**").
+     */
+    private final PatternTrie trees = new PatternTrie();
+
+    /**
+     * Unanchored globs, matched against the file name.
+     */
+    private final List<Glob> nameGlobs = new ArrayList<>();
+
+    /**
+     * Rule index of each unanchored glob.
+     */
+    private final List<Integer> nameGlobRules = new ArrayList<>();
+
+    /**
+     * Anchored globs, matched against the relative path.
+     */
+    private final List<Glob> pathGlobs = new ArrayList<>();
+
+    /**
+     * Rule index of each anchored glob.
+     */
+    private final List<Integer> pathGlobRules = new ArrayList<>();
+
+    /**
+     * Ctor.
+     * @param base Directory the patterns are relative to.
+     * @param lines Lines of the ignore file.
+     * @param parent Rules of the parent directories, or null.
+     */
+    public IgnoreRules(
+        final Path base, final List<String> lines, final IgnoreRules parent
+    ) {
+        this.base = base;
+        this.parent = parent;
+        for (final String line : lines) {
+            this.compile(line);
+        }
+    }
+
+    /**
+     * Rules applying inside the given directory: the ones of its .gitignore,
+     * if any, chained to the parent ones.
+     * @param dir Directory.
+     * @param parent Rules of the parent directory, or null.
+     * @return Rules, the parent ones if there is no .gitignore; null if
+     *  there are no rules at all.
+     * @throws IOException If the .gitignore cannot be read.
+     */
+    public static IgnoreRules load(final Path dir, final IgnoreRules parent)
+        throws IOException {
+        final Path file = dir.resolve(GITIGNORE);
+        final IgnoreRules rules;
+        if (Files.isRegularFile(file)) {
+            rules = new IgnoreRules(
+                dir, Files.readAllLines(file, StandardCharsets.UTF_8), parent
+            );
+        } else {
+            rules = parent;
+        }
+        return rules;
+    }
+
+    /**
+     * Checks if the given path is ignored.
+     * @param path Path of a file or directory below the base directory.
+     * @param directory Whether the path is a directory.
+     * @return True or false.
+     */
+    public boolean ignored(final Path path, final boolean directory) {
+        final String relative = this.relative(path);
+        final String name = String.valueOf(path.getFileName());
+        final IntPredicate accept = rule -> directory
+            || !this.dirOnly.get(rule);
+        int best = this.names.exact(name, accept);
+        best = Math.max(best, this.prefixes.prefix(name, accept));
+        best = Math.max(best, this.suffixes.suffix(name, accept));
+        best = Math.max(best, this.paths.exact(relative, accept));
+        best = Math.max(best, this.trees.prefix(relative, accept));
+        best = Math.max(
+            best, this.globs(this.nameGlobs, this.nameGlobRules, name, accept)
+        );
+        best = Math.max(
+            best,
+            this.globs(this.pathGlobs, this.pathGlobRules, relative, accept)
+        );
+        final boolean ignored;
+        if (best >= 0) {
+            ignored = !this.negated.get(best);
+        } else if (this.parent != null) {
+            ignored = this.parent.ignored(path, directory);
+        } else {
+            ignored = false;
+        }
+        return ignored;
+    }
+
+    /**
+     * Highest accepted rule among the matching globs.
+     * @param globs Globs.
+     * @param rules Rule index of each glob.
+     * @param text Text to match.
+     * @param accept Which rules can be considered.
+     * @return Rule index or -1.
+     * @checkstyle ParameterNumber (5 lines)
+     */
+    private int globs(
+        final List<Glob> globs,
+        final List<Integer> rules,
+        final String text,
+        final IntPredicate accept
+    ) {
+        int best = -1;
+        for (int idx = globs.size() - 1; best < 0 && idx >= 0; --idx) {
+            final int rule = rules.get(idx);
+            if (accept.test(rule) && globs.get(idx).matches(text)) {
+                best = rule;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Compiles one line of the ignore file.
+     * @param line Line.
+     */
+    private void compile(final String line) {
+        String pattern = this.trimTrailing(line);
+        if (!pattern.isEmpty() && pattern.charAt(0) != '#') {
+            final boolean negation = pattern.charAt(0) == '!';
+            if (negation || pattern.startsWith("\\!")
+                || pattern.startsWith("\\#")) {
+                pattern = pattern.substring(1);
+            }
+            final boolean directory = pattern.endsWith("/");
+            if (directory) {
+                pattern = pattern.substring(0, pattern.length() - 1);
+            }
+            if (pattern.startsWith("**/")
+                && pattern.indexOf('/', 3) < 0) {
+                pattern = pattern.substring(3);
+            }
+            if (!pattern.isEmpty()) {
+                final int rule = this.negated.size();
+                this.negated.add(negation);
+                this.dirOnly.add(directory);
+                this.index(pattern, rule);
+            }
+        }
+    }
+
+    /**
+     * Indexes a pattern in the matching trie, or as a glob.
+     * @param pattern Pattern, without negation or trailing slash.
+     * @param rule Rule index.
+     */
+    private void index(final String pattern, final int rule) {
+        if (pattern.charAt(0) == '/') {
+            this.indexAnchored(pattern.substring(1), rule);
+        } else if (pattern.indexOf('/') >= 0) {
+            this.indexAnchored(pattern, rule);
+        } else {
+            this.indexName(pattern, rule);
+        }
+    }
+
+    /**
+     * Indexes a pattern matched against the path relative to the base.
+     * @param pattern Pattern, without leading slash.
+     * @param rule Rule index.
+     */
+    private void indexAnchored(final String pattern, final int rule) {
+        final String tree = pattern.substring(
+            0, Math.max(pattern.length() - 2, 0)
+        );
+        if (this.isLiteral(pattern)) {
+            this.paths.add(pattern, rule);
+        } else if (pattern.endsWith("/**") && this.isLiteral(tree)) {
+            this.trees.add(tree, rule);
+        } else {
+            this.pathGlobs.add(new Glob(pattern));
+            this.pathGlobRules.add(rule);
+        }
+    }
+
+    /**
+     * Indexes a pattern matched against the file name, at any depth.
+     * @param pattern Pattern, without slashes.
+     * @param rule Rule index.
+     */
+    private void indexName(final String pattern, final int rule) {
+        final String rest = pattern.substring(1);
+        final String head = pattern.substring(0, pattern.length() - 1);
+        if (this.isLiteral(pattern)) {
+            this.names.add(pattern, rule);
+        } else if (pattern.charAt(0) == '*' && this.isLiteral(rest)) {
+            this.suffixes.add(new StringBuilder(rest).reverse(), rule);
+        } else if (pattern.endsWith("*") && this.isLiteral(head)) {
+            this.prefixes.add(head, rule);
+        } else {
+            this.nameGlobs.add(new Glob(pattern));
+            this.nameGlobRules.add(rule);
+        }
+    }
+
+    /**
+     * Checks that a pattern has no wildcards.
+     * @param pattern Pattern.
+     * @return True or false.
+     */
+    private boolean isLiteral(final String pattern) {
+        boolean literal = true;
+        for (int idx = 0; literal && idx < pattern.length(); ++idx) {
+            literal = WILDCARDS.indexOf(pattern.charAt(idx)) < 0;
+        }
+        return literal;
+    }
+
+    /**
+     * Removes trailing spaces, unless they are escaped.
+     * @param line Line.
+     * @return Trimmed line.
+     */
+    private String trimTrailing(final String line) {
+        int end = line.length();
+        while (end > 0 && Character.isWhitespace(line.charAt(end - 1))
+            && !(end > 1 && line.charAt(end - 2) == '\\')) {
+            --end;
+        }
+        return line.substring(0, end);
+    }
+
+    /**
+     * Path relative to the base directory, with '/' as separator.
+     * @param path Path.
+     * @return Relative path.
+     */
+    private String relative(final Path path) {
+        final StringBuilder relative = new StringBuilder();
+        for (final Path name : this.base.relativize(path)) {
+            if (relative.length() > 0) {
+                relative.append('/');
+            }
+            relative.append(name);
+        }
+        return relative.toString();
+    }
+}
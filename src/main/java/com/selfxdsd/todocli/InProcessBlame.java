@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link Attributions} computed in-process, without running git: the
+ * history is read straight from the repository's object store, see
+ * {@link GitHistory}. One history is kept per repository, so its caches
+ * are shared by all the files. The files are blamed as they are in the
+ * working tree or, if a commit is given, as they are in that commit. It is
+ * thread-safe.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class InProcessBlame implements Attributions {
+
+    /**
+     * Histories, by git directory.
+     */
+    private final Map<Path, GitHistory> histories = new ConcurrentHashMap<>();
+
+    /**
+     * Id of the commit whose files are blamed, null for the working tree.
+     */
+    private final String rev;
+
+    /**
+     * Ctor. Blames the files of the working tree.
+     */
+    public InProcessBlame() {
+        this(null);
+    }
+
+    /**
+     * Ctor.
+     * @param rev Id of the commit whose files are blamed, null for the
+     *  working tree.
+     */
+    public InProcessBlame(final String rev) {
+        this.rev = rev;
+    }
+
+    @Override
+    public Map<Integer, Attribution> attribute(
+        final String path, final List<Todo> todos
+    ) throws IOException {
+        return this.attribute(TodoSource.file(Paths.get(path)), todos);
+    }
+
+    @Override
+    public Map<Integer, Attribution> attribute(
+        final TodoSource source, final List<Todo> todos
+    ) throws IOException {
+        final Path file = Paths.get(source.path()).toAbsolutePath()
+            .normalize();
+        Map<Integer, Attribution> lines = Map.of();
+        final GitRepository repo = this.repository(file);
+        if (repo != null) {
+            final Set<Integer> starts = new HashSet<>();
+            for (final Todo todo : todos) {
+                starts.add(todo.getStart());
+            }
+            final StringBuilder relative = new StringBuilder();
+            for (final Path name : repo.worktree().relativize(file)) {
+                if (relative.length() > 0) {
+                    relative.append('/');
+                }
+                relative.append(name);
+            }
+            if (this.rev == null) {
+                TodoSource worktree = source;
+                if (worktree.content() == null) {
+                    worktree = TodoSource.bytes(
+                        source.path(), Files.readAllBytes(file)
+                    );
+                }
+                lines = this.history(repo).blame(
+                    relative.toString(), worktree, starts
+                );
+            } else {
+                lines = this.history(repo).blame(
+                    this.rev, relative.toString(), starts
+                );
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * The repository of the file.
+     * @param file File.
+     * @return Repository or null if the file is not in one.
+     */
+    private GitRepository repository(final Path file) {
+        GitRepository repo;
+        try {
+            repo = GitRepository.find(file.getParent());
+        } catch (final IOException exception) {
+            repo = null;
+        }
+        return repo;
+    }
+
+    /**
+     * The history of a repository.
+     * @param repo Repository.
+     * @return History.
+     * @throws IOException If its common directory cannot be read.
+     */
+    private GitHistory history(final GitRepository repo) throws IOException {
+        GitHistory history = this.histories.get(repo.gitDir());
+        if (history == null) {
+            history = new GitHistory(
+                repo, new ObjectStore(repo.commonDir().resolve("objects"))
+            );
+            final GitHistory known = this.histories.putIfAbsent(
+                repo.gitDir(), history
+            );
+            if (known != null) {
+                history = known;
+            }
+        }
+        return history;
+    }
+}
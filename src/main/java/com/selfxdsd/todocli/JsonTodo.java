@@ -1,6 +1,7 @@
 package com.selfxdsd.todocli;
 
 import javax.json.Json;
+import javax.json.JsonObject;
 import javax.json.JsonValue;
 import java.util.Optional;
 
@@ -31,4 +32,28 @@ public class JsonTodo extends AbstractJsonObject {
                 .add("file", todo.getPath())
                 .build());
     }
+
+    /**
+     * Ctor.
+     * @param json Todo as JsonObject, e.g. read from todos.json.
+     */
+    public JsonTodo(final JsonObject json) {
+        super(json);
+    }
+
+    /**
+     * Converts it back to a Todo.
+     * @return Todo.
+     */
+    public final Todo todo() {
+        final Todo todo = new Todo(
+            this.getInt("start"), this.getInt("end"),
+            this.getString("originatingTicket").intern(),
+            this.getInt("estimatedTime"), this.getString("body")
+        );
+        todo.setPath(this.getString("file", null));
+        todo.setAuthor(this.getString("author", null));
+        todo.setTimestamp(this.getString("timestamp", null));
+        return todo;
+    }
 }
@@ -30,9 +30,10 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.List;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Json Serializer for {@link Todo}.
@@ -43,21 +44,22 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public final class JsonTodosSerializer implements TodosSerializer {
 
     /**
-     * Todos to be serialized.
+     * Todos to be serialized. They are added one by one, by several
+     * threads, so adding must not copy them all.
      */
-    private final List<Todo> todos;
+    private final Collection<Todo> todos;
 
     /**
      * Ctor.
      */
     public JsonTodosSerializer() {
-        todos = new CopyOnWriteArrayList<>();
+        todos = new ConcurrentLinkedQueue<>();
     }
 
 
     @Override
     public void add(final Todo... todo) {
-        todos.addAll(List.of(todo));
+        Collections.addAll(todos, todo);
     }
 
     @Override
@@ -0,0 +1,291 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.util.Arrays;
+
+/**
+ * Myers' diff of two texts, by lines, in linear space: the middle snake of
+ * the edit graph is found with a forward and a backward search, then both
+ * halves are diffed the same way. Only the matching lines are reported.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+final class LineDiff {
+
+    /**
+     * Lines of the old text.
+     */
+    private final String[] old;
+
+    /**
+     * Lines of the new text.
+     */
+    private final String[] now;
+
+    /**
+     * Matching old line of each new line, -1 if it was added.
+     */
+    private final int[] matches;
+
+    /**
+     * Ctor.
+     * @param old Lines of the old text.
+     * @param now Lines of the new text.
+     */
+    LineDiff(final String[] old, final String[] now) {
+        this.old = old;
+        this.now = now;
+        this.matches = new int[now.length];
+    }
+
+    /**
+     * Diffs the texts.
+     * @return For each new line, the index of the same old line, or -1 if
+     *  the line was added or changed.
+     */
+    int[] matches() {
+        Arrays.fill(this.matches, -1);
+        int left = 0;
+        int top = 0;
+        while (left < this.old.length && top < this.now.length
+            && this.old[left].equals(this.now[top])) {
+            this.matches[top++] = left++;
+        }
+        int right = this.old.length;
+        int bottom = this.now.length;
+        while (right > left && bottom > top
+            && this.old[right - 1].equals(this.now[bottom - 1])) {
+            this.matches[--bottom] = --right;
+        }
+        this.diff(left, top, right, bottom);
+        return this.matches;
+    }
+
+    /**
+     * Diffs a box of the edit graph.
+     * @param left First old line.
+     * @param top First new line.
+     * @param right End of the old lines.
+     * @param bottom End of the new lines.
+     */
+    private void diff(final int left, final int top, final int right,
+        final int bottom) {
+        final int[] snake = this.middle(left, top, right, bottom);
+        if (snake != null) {
+            this.diff(left, top, snake[0], snake[1]);
+            final int diagonal = Math.min(
+                snake[2] - snake[0], snake[3] - snake[1]
+            );
+            int xpos = snake[0];
+            int ypos = snake[1];
+            if (snake[4] > 0) {
+                xpos = snake[2] - diagonal;
+                ypos = snake[3] - diagonal;
+            }
+            for (int step = 0; step < diagonal; ++step) {
+                this.matches[ypos + step] = xpos + step;
+            }
+            this.diff(snake[2], snake[3], right, bottom);
+        }
+    }
+
+    /**
+     * Finds the middle snake of a box.
+     * @param left First old line.
+     * @param top First new line.
+     * @param right End of the old lines.
+     * @param bottom End of the new lines.
+     * @return Start x, start y, end x, end y and 1 if the diagonal is at
+     *  the end of the snake (0 if it is at its start); null if the box is
+     *  empty.
+     * @checkstyle ParameterNumber (5 lines)
+     */
+    private int[] middle(final int left, final int top, final int right,
+        final int bottom) {
+        final int size = right - left + bottom - top;
+        int[] snake = null;
+        if (size > 0) {
+            final int max = (size + 1) / 2;
+            final int[] forward = new int[2 * max + 3];
+            final int[] backward = new int[2 * max + 3];
+            forward[max + 2] = left;
+            backward[max + 2] = bottom;
+            final int[] box = {left, top, right, bottom, max + 1};
+            for (int dist = 0; snake == null && dist <= max; ++dist) {
+                snake = this.forward(box, forward, backward, dist);
+                if (snake == null) {
+                    snake = this.backward(box, forward, backward, dist);
+                }
+            }
+        }
+        return snake;
+    }
+
+    /**
+     * One step of the forward search.
+     * @param box Left, top, right, bottom and the offset of the diagonals.
+     * @param forward Furthest x on each forward diagonal.
+     * @param backward Furthest y on each backward diagonal.
+     * @param dist Number of edits.
+     * @return Snake or null if the searches did not meet.
+     */
+    private int[] forward(final int[] box, final int[] forward,
+        final int[] backward, final int dist) {
+        final int delta = box[2] - box[0] - (box[3] - box[1]);
+        final int off = box[4];
+        int[] snake = null;
+        for (int diag = dist; snake == null && diag >= -dist; diag -= 2) {
+            final int prev;
+            int xpos;
+            if (LineDiff.fromAbove(forward, off + diag, diag, dist)) {
+                prev = forward[off + diag + 1];
+                xpos = prev;
+            } else {
+                prev = forward[off + diag - 1];
+                xpos = prev + 1;
+            }
+            int ypos = box[1] + xpos - box[0] - diag;
+            final int start = this.startY(dist, xpos, prev, ypos);
+            while (xpos < box[2] && ypos < box[3]
+                && this.old[xpos].equals(this.now[ypos])) {
+                ++xpos;
+                ++ypos;
+            }
+            forward[off + diag] = xpos;
+            final int back = diag - delta;
+            if ((delta & 1) != 0 && Math.abs(back) < dist
+                && ypos >= backward[off + back]) {
+                snake = new int[] {prev, start, xpos, ypos, 1};
+            }
+        }
+        return snake;
+    }
+
+    /**
+     * One step of the backward search.
+     * @param box Left, top, right, bottom and the offset of the diagonals.
+     * @param forward Furthest x on each forward diagonal.
+     * @param backward Furthest y on each backward diagonal.
+     * @param dist Number of edits.
+     * @return Snake or null if the searches did not meet.
+     */
+    private int[] backward(final int[] box, final int[] forward,
+        final int[] backward, final int dist) {
+        final int delta = box[2] - box[0] - (box[3] - box[1]);
+        final int off = box[4];
+        int[] snake = null;
+        for (int back = dist; snake == null && back >= -dist; back -= 2) {
+            final int diag = back + delta;
+            final int prev;
+            int ypos;
+            if (LineDiff.fromBelow(backward, off + back, back, dist)) {
+                prev = backward[off + back + 1];
+                ypos = prev;
+            } else {
+                prev = backward[off + back - 1];
+                ypos = prev - 1;
+            }
+            int xpos = box[0] + ypos - box[1] + diag;
+            final int start = this.startX(dist, ypos, prev, xpos);
+            while (xpos > box[0] && ypos > box[1]
+                && this.old[xpos - 1].equals(this.now[ypos - 1])) {
+                --xpos;
+                --ypos;
+            }
+            backward[off + back] = ypos;
+            if ((delta & 1) == 0 && Math.abs(diag) <= dist
+                && xpos <= forward[off + diag]) {
+                snake = new int[] {xpos, ypos, start, prev, 0};
+            }
+        }
+        return snake;
+    }
+
+    /**
+     * Whether the forward path reaches the diagonal from the one above,
+     * going down, rather than from the one below, going right.
+     * @param forward Furthest x on each forward diagonal.
+     * @param index Index of the diagonal.
+     * @param diag Diagonal.
+     * @param dist Number of edits.
+     * @return True if it goes down.
+     */
+    private static boolean fromAbove(final int[] forward, final int index,
+        final int diag, final int dist) {
+        return diag == -dist
+            || diag != dist && forward[index - 1] < forward[index + 1];
+    }
+
+    /**
+     * Whether the backward path reaches the diagonal going up, rather
+     * than going left.
+     * @param backward Furthest y on each backward diagonal.
+     * @param index Index of the diagonal.
+     * @param back Backward diagonal.
+     * @param dist Number of edits.
+     * @return True if it goes up.
+     */
+    private static boolean fromBelow(final int[] backward, final int index,
+        final int back, final int dist) {
+        return back == -dist
+            || back != dist && backward[index - 1] > backward[index + 1];
+    }
+
+    /**
+     * Where a forward snake starts vertically: one line above, if its first
+     * move went down.
+     * @param dist Number of edits.
+     * @param xpos X after the first move.
+     * @param prev X before the first move.
+     * @param ypos Y after the first move.
+     * @return Y before the first move.
+     */
+    private int startY(final int dist, final int xpos, final int prev,
+        final int ypos) {
+        int start = ypos;
+        if (dist != 0 && xpos == prev) {
+            start = ypos - 1;
+        }
+        return start;
+    }
+
+    /**
+     * Where a backward snake starts horizontally: one line to the right,
+     * if its first move went up.
+     * @param dist Number of edits.
+     * @param ypos Y after the first move.
+     * @param prev Y before the first move.
+     * @param xpos X after the first move.
+     * @return X before the first move.
+     */
+    private int startX(final int dist, final int ypos, final int prev,
+        final int xpos) {
+        int start = xpos;
+        if (dist != 0 && ypos == prev) {
+            start = xpos + 1;
+        }
+        return start;
+    }
+}
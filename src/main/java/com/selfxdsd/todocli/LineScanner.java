@@ -0,0 +1,344 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Splits the characters read from a {@link Reader} into lines, as
+ * {@link java.io.BufferedReader#readLine()} does (a line ends with \n, \r
+ * or \r\n), but without creating a String per line: the current line is a
+ * view over a reusable buffer, which only grows for a line longer than
+ * itself. The line is a {@link CharSequence}, so it can be searched in
+ * place.<br><br>
+ * Tabs count as 4 columns, as TodoParser always assumed, so the columns
+ * of a line are computed from its characters instead of rewriting it.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+final class LineScanner implements CharSequence {
+
+    /**
+     * Columns of a tab.
+     */
+    static final int TAB = 4;
+
+    /**
+     * What a tab is replaced with.
+     */
+    private static final String TABBED = " ".repeat(TAB);
+
+    /**
+     * Initial size of the buffer.
+     */
+    private static final int SIZE = 8192;
+
+    /**
+     * Where the characters come from.
+     */
+    private final Reader reader;
+
+    /**
+     * How long a line may be.
+     */
+    private final int max;
+
+    /**
+     * Buffer.
+     */
+    private char[] buffer = new char[SIZE];
+
+    /**
+     * Start of the characters not split yet.
+     */
+    private int pos;
+
+    /**
+     * End of the characters read so far.
+     */
+    private int limit;
+
+    /**
+     * Whether the end of the input was reached.
+     */
+    private boolean eof;
+
+    /**
+     * Whether the last line ended with \r, so a \n right after it is part
+     * of its end.
+     */
+    private boolean pending;
+
+    /**
+     * Start of the current line.
+     */
+    private int start;
+
+    /**
+     * End of the current line, excluding its end of line.
+     */
+    private int end;
+
+    /**
+     * Number of lines split so far.
+     */
+    private int lines;
+
+    /**
+     * Ctor. Lines may be of any length.
+     * @param reader Where the characters come from.
+     */
+    LineScanner(final Reader reader) {
+        this(reader, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Ctor. A longer line is not kept in the buffer, it is rejected as
+     * soon as it is read past the limit.
+     * @param reader Where the characters come from.
+     * @param max How long a line may be.
+     */
+    LineScanner(final Reader reader, final int max) {
+        this.reader = reader;
+        this.max = max;
+    }
+
+    /**
+     * Moves to the next line.
+     * @return False if there is none.
+     * @throws IOException If the input cannot be read.
+     * @throws QuarantineException If the line is too long.
+     */
+    public boolean next() throws IOException {
+        if (this.pending && this.available()
+            && this.buffer[this.pos] == '\n') {
+            ++this.pos;
+        }
+        this.pending = false;
+        int scanned = 0;
+        boolean found = false;
+        while (!found && (this.pos + scanned < this.limit || this.more())) {
+            final int idx = this.terminator(this.pos + scanned);
+            scanned = idx - this.pos;
+            found = idx < this.limit;
+            this.checkLength(scanned);
+        }
+        final int scan = this.pos + scanned;
+        final boolean line = found || this.pos < this.limit;
+        if (line) {
+            this.start = this.pos;
+            this.end = scan;
+            this.pos = Math.min(scan + 1, this.limit);
+            this.pending = found && this.buffer[scan] == '\r';
+            ++this.lines;
+        }
+        return line;
+    }
+
+    @Override
+    public int length() {
+        return this.end - this.start;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        return this.buffer[this.start + index];
+    }
+
+    @Override
+    public CharSequence subSequence(final int from, final int until) {
+        return new String(this.buffer, this.start + from, until - from);
+    }
+
+    @Override
+    public String toString() {
+        return new String(this.buffer, this.start, this.length());
+    }
+
+    /**
+     * The current line, with its tabs replaced by spaces.
+     * @return Line.
+     */
+    public String expanded() {
+        final StringBuilder line = new StringBuilder(this.length());
+        this.append(0, this.length(), line);
+        return line.toString();
+    }
+
+    /**
+     * Index of the character covering the given column: a tab covers 4.
+     * @param column Column, from 0.
+     * @return Index or -1 if the line is shorter.
+     */
+    public int index(final int column) {
+        int index = 0;
+        int col = 0;
+        while (index < this.length() && col + this.width(index) <= column) {
+            col += this.width(index);
+            ++index;
+        }
+        if (index == this.length()) {
+            index = -1;
+        }
+        return index;
+    }
+
+    /**
+     * Column of the given character: a tab covers 4.
+     * @param index Index of the character.
+     * @return Column, from 0.
+     */
+    public int column(final int index) {
+        int col = 0;
+        for (int idx = 0; idx < index; ++idx) {
+            col += this.width(idx);
+        }
+        return col;
+    }
+
+    /**
+     * Appends the current line, from the given column and without its
+     * trailing whitespace, with its tabs replaced by spaces.
+     * @param column Column, from 0, which must be within the line.
+     * @param text Where to append it.
+     */
+    public void appendFrom(final int column, final StringBuilder text) {
+        final int index = this.index(column);
+        int last = this.length();
+        while (last > index
+            && Character.isWhitespace(this.charAt(last - 1))) {
+            --last;
+        }
+        if (last > index) {
+            int from = index;
+            if (this.charAt(index) == '\t') {
+                text.append(TABBED, 0, this.column(index) + TAB - column);
+                from = index + 1;
+            }
+            this.append(from, last, text);
+        }
+    }
+
+    /**
+     * Appends characters of the current line, with tabs replaced by spaces.
+     * @param from Index of the first one.
+     * @param until Index after the last one.
+     * @param text Where to append them.
+     */
+    public void append(
+        final int from, final int until, final StringBuilder text
+    ) {
+        int copied = from;
+        for (int idx = from; idx < until; ++idx) {
+            if (this.charAt(idx) == '\t') {
+                text.append(this.buffer, this.start + copied, idx - copied);
+                text.append(TABBED);
+                copied = idx + 1;
+            }
+        }
+        text.append(this.buffer, this.start + copied, until - copied);
+    }
+
+    /**
+     * Columns taken by a character of the current line.
+     * @param index Index of the character.
+     * @return Columns.
+     */
+    private int width(final int index) {
+        int width = 1;
+        if (this.charAt(index) == '\t') {
+            width = TAB;
+        }
+        return width;
+    }
+
+    /**
+     * Checks that the line being split is not too long.
+     * @param length Its length so far.
+     * @throws QuarantineException If it is too long.
+     */
+    private void checkLength(final int length) throws QuarantineException {
+        if (length > this.max) {
+            throw new QuarantineException(
+                String.format(
+                    "line %d is longer than %d characters",
+                    this.lines + 1, this.max
+                )
+            );
+        }
+    }
+
+    /**
+     * Finds the next end of line.
+     * @param from Where to start looking.
+     * @return Its index, or the limit if there is none in the buffer.
+     */
+    private int terminator(final int from) {
+        int idx = from;
+        while (idx < this.limit && this.buffer[idx] != '\n'
+            && this.buffer[idx] != '\r') {
+            ++idx;
+        }
+        return idx;
+    }
+
+    /**
+     * Makes sure there is at least one character to read.
+     * @return False if the input is over.
+     * @throws IOException If it cannot be read.
+     */
+    private boolean available() throws IOException {
+        return this.pos < this.limit || this.more();
+    }
+
+    /**
+     * Reads more characters, after the ones not split yet, which are moved
+     * to the start of the buffer. The buffer grows if they fill it.
+     * @return False if the input is over.
+     * @throws IOException If it cannot be read.
+     */
+    private boolean more() throws IOException {
+        boolean read = false;
+        if (!this.eof) {
+            final int kept = this.limit - this.pos;
+            if (kept == this.buffer.length) {
+                this.buffer = Arrays.copyOf(this.buffer, kept * 2);
+            }
+            System.arraycopy(this.buffer, this.pos, this.buffer, 0, kept);
+            this.pos = 0;
+            this.limit = kept;
+            final int count = this.reader.read(
+                this.buffer, kept, this.buffer.length - kept
+            );
+            this.eof = count < 0;
+            read = !this.eof;
+            if (read) {
+                this.limit += count;
+            }
+        }
+        return read;
+    }
+}
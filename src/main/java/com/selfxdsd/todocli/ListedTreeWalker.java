@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileVisitor;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * {@link TreeWalker} which visits only the given paths below the root,
+ * as if the whole tree was walked: the directories leading to them are
+ * pre- and post-visited around them, so the visitor can skip them and
+ * load their ignore rules, and a listed directory is walked entirely.
+ * The paths which do not exist anymore are not visited.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class ListedTreeWalker implements TreeWalker {
+
+    /**
+     * Paths to visit, relative to the root, in order.
+     */
+    private final Set<String> paths;
+
+    /**
+     * Ctor.
+     * @param paths Paths to visit, relative to the root, with '/' or the
+     *  separator of the file system.
+     */
+    public ListedTreeWalker(final Collection<String> paths) {
+        this.paths = new TreeSet<>(paths);
+    }
+
+    @Override
+    public void walk(final Path root, final FileVisitor<Path> visitor)
+        throws IOException {
+        final FileVisitResult pre = visitor.preVisitDirectory(
+            root, Files.readAttributes(root, BasicFileAttributes.class)
+        );
+        if (pre == FileVisitResult.CONTINUE) {
+            final Deque<Path> open = new ArrayDeque<>();
+            final Set<Path> skipped = new HashSet<>();
+            open.push(root);
+            for (final String path : this.paths) {
+                final Path file = root.resolve(path);
+                if (!file.equals(root)
+                    && !ListedTreeWalker.under(file, skipped)) {
+                    ListedTreeWalker.close(open, file, visitor);
+                    if (ListedTreeWalker.open(open, file, skipped, visitor)) {
+                        ListedTreeWalker.visit(file, visitor);
+                    }
+                }
+            }
+            while (!open.isEmpty()) {
+                visitor.postVisitDirectory(open.pop(), null);
+            }
+        }
+    }
+
+    /**
+     * Visits a file or, if it is a directory, walks it.
+     * @param file File or directory, whose parent is open.
+     * @param visitor Visitor.
+     * @throws IOException If something goes wrong.
+     */
+    private static void visit(
+        final Path file, final FileVisitor<Path> visitor
+    ) throws IOException {
+        final BasicFileAttributes attrs = ListedTreeWalker.attributes(file);
+        if (attrs != null && attrs.isRegularFile()) {
+            visitor.visitFile(file, attrs);
+        } else if (attrs != null && attrs.isDirectory()) {
+            Files.walkFileTree(file, visitor);
+        }
+    }
+
+    /**
+     * Post-visits the open directories which are not above the file.
+     * @param open Open directories, the deepest first.
+     * @param file Next file.
+     * @param visitor Visitor.
+     * @throws IOException If something goes wrong.
+     */
+    private static void close(
+        final Deque<Path> open, final Path file,
+        final FileVisitor<Path> visitor
+    ) throws IOException {
+        while (!file.getParent().startsWith(open.peek())) {
+            visitor.postVisitDirectory(open.pop(), null);
+        }
+    }
+
+    /**
+     * Pre-visits the directories between the deepest open one and the file.
+     * @param open Open directories, the deepest first.
+     * @param file Next file.
+     * @param skipped Directories the visitor skipped so far.
+     * @param visitor Visitor.
+     * @return Whether all of them are open, so the file may be visited.
+     * @throws IOException If something goes wrong.
+     */
+    private static boolean open(
+        final Deque<Path> open, final Path file, final Set<Path> skipped,
+        final FileVisitor<Path> visitor
+    ) throws IOException {
+        final Deque<Path> missing = new ArrayDeque<>();
+        for (Path dir = file.getParent(); !dir.equals(open.peek());
+            dir = dir.getParent()) {
+            missing.push(dir);
+        }
+        boolean opened = true;
+        while (opened && !missing.isEmpty()) {
+            final Path dir = missing.pop();
+            final BasicFileAttributes attrs = ListedTreeWalker.attributes(dir);
+            opened = attrs != null;
+            if (opened && visitor.preVisitDirectory(dir, attrs)
+                != FileVisitResult.CONTINUE) {
+                skipped.add(dir);
+                opened = false;
+            }
+            if (opened) {
+                open.push(dir);
+            }
+        }
+        return opened;
+    }
+
+    /**
+     * Checks if the file is below one of the skipped directories.
+     * @param file File.
+     * @param skipped Skipped directories.
+     * @return True or false.
+     */
+    private static boolean under(final Path file, final Set<Path> skipped) {
+        boolean under = false;
+        for (Path dir = file.getParent(); dir != null && !under;
+            dir = dir.getParent()) {
+            under = skipped.contains(dir);
+        }
+        return under;
+    }
+
+    /**
+     * Attributes of a path, without following links.
+     * @param path Path.
+     * @return Attributes or null if it does not exist anymore.
+     * @throws IOException If they cannot be read.
+     */
+    private static BasicFileAttributes attributes(final Path path)
+        throws IOException {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(
+                path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS
+            );
+        } catch (final NoSuchFileException exception) {
+            attrs = null;
+        }
+        return attrs;
+    }
+}
@@ -0,0 +1,260 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton over bytes, finding any of a vocabulary of TODO
+ * markers (e.g. @todo, TODO, @fixme, FIXME) in a single pass, whatever the
+ * number of markers. The transitions are a complete DFA kept in one
+ * primitive int[] table (256 entries per state), so scanning is a table
+ * lookup per byte, without boxing or backtracking.<br><br>
+ * Markers have to be ASCII. When scanning characters, anything outside
+ * ASCII simply cannot be part of a marker.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class MarkerAutomaton {
+
+    /**
+     * The markers looked for by default.
+     */
+    public static final List<String> DEFAULT_MARKERS = List.of(
+        "@todo", "TODO", "@fixme", "FIXME"
+    );
+
+    /**
+     * Size of the alphabet.
+     */
+    private static final int ALPHABET = 256;
+
+    /**
+     * Byte used for non-ASCII characters, never part of a marker.
+     */
+    private static final int NON_ASCII = 0x80;
+
+    /**
+     * The markers.
+     */
+    private final List<String> markers;
+
+    /**
+     * Transitions: next state is delta[state * 256 + byte].
+     */
+    private final int[] delta;
+
+    /**
+     * Length of the longest marker ending in each state, 0 if none.
+     */
+    private final int[] matches;
+
+    /**
+     * Length of the longest marker.
+     */
+    private final int longest;
+
+    /**
+     * Ctor. Uses the default markers.
+     */
+    public MarkerAutomaton() {
+        this(DEFAULT_MARKERS);
+    }
+
+    /**
+     * Ctor.
+     * @param markers Markers, non-empty ASCII strings.
+     */
+    public MarkerAutomaton(final List<String> markers) {
+        if (markers.isEmpty()) {
+            throw new IllegalArgumentException("No TODO markers given.");
+        }
+        this.markers = List.copyOf(markers);
+        int states = 1;
+        int max = 0;
+        for (final String marker : markers) {
+            if (marker.isEmpty() || !marker.chars().allMatch(c -> c < 128)) {
+                throw new IllegalArgumentException(
+                    String.format("Invalid TODO marker '%s'.", marker)
+                );
+            }
+            states += marker.length();
+            max = Math.max(max, marker.length());
+        }
+        this.longest = max;
+        this.delta = new int[states * ALPHABET];
+        this.matches = new int[states];
+        final int used = this.trie();
+        this.links(used);
+    }
+
+    /**
+     * The markers.
+     * @return List of markers.
+     */
+    public List<String> markers() {
+        return this.markers;
+    }
+
+    /**
+     * Length of the longest marker.
+     * @return Length.
+     */
+    public int longest() {
+        return this.longest;
+    }
+
+    /**
+     * Finds the first marker (the one ending first) in the given bytes.
+     * @param bytes Bytes.
+     * @param from Start index, inclusive.
+     * @param until End index, exclusive.
+     * @return Index where the marker starts or -1 if there is none.
+     */
+    public int find(final ByteBuffer bytes, final int from, final int until) {
+        int state = 0;
+        int found = -1;
+        for (int idx = from; found < 0 && idx < until; ++idx) {
+            state = this.delta[state * ALPHABET + (bytes.get(idx) & 0xFF)];
+            if (this.matches[state] > 0) {
+                found = idx - this.matches[state] + 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Finds the first marker (the one ending first) in the given text.
+     * @param text Text.
+     * @param from Start index, inclusive.
+     * @param until End index, exclusive.
+     * @return Index where the marker starts or -1 if there is none.
+     */
+    public int find(final CharSequence text, final int from, final int until) {
+        int state = 0;
+        int found = -1;
+        for (int idx = from; found < 0 && idx < until; ++idx) {
+            state = this.delta[state * ALPHABET
+                + Math.min(text.charAt(idx), NON_ASCII)];
+            if (this.matches[state] > 0) {
+                found = idx - this.matches[state] + 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Length of the marker starting at the given index of the text.
+     * @param text Text.
+     * @param start Index.
+     * @return Length of the longest marker starting there, 0 if none.
+     */
+    public int markerAt(final CharSequence text, final int start) {
+        int state = 0;
+        int length = 0;
+        final int until = Math.min(text.length(), start + this.longest);
+        for (int idx = start; idx < until; ++idx) {
+            state = this.delta[state * ALPHABET
+                + Math.min(text.charAt(idx), NON_ASCII)];
+            if (this.matches[state] == idx - start + 1) {
+                length = this.matches[state];
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Builds the trie of the markers, as the goto function.
+     * @return Number of states used.
+     */
+    private int trie() {
+        Arrays.fill(this.delta, -1);
+        int used = 1;
+        for (final String marker : this.markers) {
+            int state = 0;
+            for (int idx = 0; idx < marker.length(); ++idx) {
+                final int edge = state * ALPHABET + marker.charAt(idx);
+                if (this.delta[edge] < 0) {
+                    this.delta[edge] = used;
+                    ++used;
+                }
+                state = this.delta[edge];
+            }
+            this.matches[state] = marker.length();
+        }
+        return used;
+    }
+
+    /**
+     * Completes the transitions of the root state, which loop back to it
+     * on any byte not starting a marker.
+     * @param queue Queue where to put the states of depth one.
+     * @return Number of states put in the queue.
+     */
+    private int rootLinks(final int[] queue) {
+        int tail = 0;
+        for (int chr = 0; chr < ALPHABET; ++chr) {
+            if (this.delta[chr] < 0) {
+                this.delta[chr] = 0;
+            } else {
+                queue[tail] = this.delta[chr];
+                ++tail;
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Computes the failure links breadth-first and turns the goto function
+     * into complete DFA transitions.
+     * @param used Number of states.
+     */
+    private void links(final int used) {
+        final int[] fail = new int[used];
+        final int[] queue = new int[used];
+        int head = 0;
+        int tail = this.rootLinks(queue);
+        while (head < tail) {
+            final int state = queue[head];
+            ++head;
+            this.matches[state] = Math.max(
+                this.matches[state], this.matches[fail[state]]
+            );
+            for (int chr = 0; chr < ALPHABET; ++chr) {
+                final int edge = state * ALPHABET + chr;
+                final int next = this.delta[edge];
+                final int fallback = this.delta[fail[state] * ALPHABET + chr];
+                if (next < 0) {
+                    this.delta[edge] = fallback;
+                } else {
+                    fail[next] = fallback;
+                    queue[tail] = next;
+                    ++tail;
+                }
+            }
+        }
+    }
+}
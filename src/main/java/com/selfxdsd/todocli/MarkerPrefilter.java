@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Cheap check, on the raw bytes of a file, whether it contains any TODO
+ * marker at all. Most files do not, and for them we can skip the expensive
+ * git blame + regex parsing entirely.<br><br>
+ * The file is read in large chunks into a per-thread buffer, which is
+ * searched with a {@link MarkerAutomaton}; consecutive chunks overlap so a
+ * marker crossing a chunk boundary is not missed. The bytes of a UTF-16
+ * file (one starting with its byte order mark) cannot be searched like
+ * this, so such a file always may contain TODOs.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class MarkerPrefilter {
+
+    /**
+     * Size of the chunks read from a file.
+     */
+    private static final int CHUNK = 64 * 1024;
+
+    /**
+     * Automaton finding the markers.
+     */
+    private final MarkerAutomaton automaton;
+
+    /**
+     * Reading buffer of each thread.
+     */
+    private final ThreadLocal<ByteBuffer> buffers =
+        ThreadLocal.withInitial(() -> ByteBuffer.allocate(CHUNK));
+
+    /**
+     * Ctor. Looks for the default markers.
+     */
+    public MarkerPrefilter() {
+        this(new MarkerAutomaton());
+    }
+
+    /**
+     * Ctor.
+     * @param automaton Automaton finding the markers.
+     */
+    public MarkerPrefilter(final MarkerAutomaton automaton) {
+        this.automaton = automaton;
+    }
+
+    /**
+     * Checks if the given file contains any of the markers.
+     * @param path Path to the file.
+     * @return True if there is at least one marker.
+     * @throws IOException If the file cannot be read.
+     */
+    public boolean mayContainTodos(final Path path) throws IOException {
+        final ByteBuffer buffer = this.buffers.get();
+        buffer.clear();
+        boolean found = false;
+        try (FileChannel channel = FileChannel.open(
+            path, StandardOpenOption.READ
+        )) {
+            while (!found && channel.read(buffer) > 0) {
+                buffer.flip();
+                found = this.contains(buffer);
+                final int keep = Math.min(
+                    this.automaton.longest() - 1, buffer.limit()
+                );
+                buffer.position(buffer.limit() - keep);
+                buffer.compact();
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Checks if the given bytes contain any of the markers, or are UTF-16.
+     * @param bytes Bytes, between position and limit.
+     * @return True or false.
+     */
+    public boolean contains(final ByteBuffer bytes) {
+        return MarkerPrefilter.wide(bytes)
+            || this.automaton.find(bytes, bytes.position(), bytes.limit())
+            >= 0;
+    }
+
+    /**
+     * Do the bytes start with a UTF-16 byte order mark?
+     * @param bytes Bytes, between position and limit.
+     * @return True or false.
+     */
+    private static boolean wide(final ByteBuffer bytes) {
+        boolean wide = false;
+        if (bytes.remaining() >= 2) {
+            final int mark = bytes.getShort(bytes.position()) & 0xFFFF;
+            wide = mark == 0xFEFF || mark == 0xFFFE;
+        }
+        return wide;
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonValue;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Serializer merging the found TODOs into the ones of a previous scan:
+ * the previous TODOs of the rescanned files, or of the files below the
+ * rescanned directories, are replaced, the ones of the other files are
+ * kept as they are. If there is no previous scan, only
+ * the found TODOs are serialized.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class MergedTodosSerializer implements TodosSerializer {
+
+    /**
+     * Serializer of the merged TODOs.
+     */
+    private final TodosSerializer origin;
+
+    /**
+     * The todos.json of the previous scan.
+     */
+    private final Path previous;
+
+    /**
+     * Paths of the rescanned files, known once the scan is done.
+     */
+    private final Supplier<Collection<String>> rescanned;
+
+    /**
+     * Ctor.
+     * @param origin Serializer of the merged TODOs.
+     * @param previous The todos.json of the previous scan.
+     * @param rescanned Paths of the rescanned files and directories, as in
+     *  todos.json, known once the scan is done.
+     */
+    public MergedTodosSerializer(
+        final TodosSerializer origin, final Path previous,
+        final Supplier<Collection<String>> rescanned
+    ) {
+        this.origin = origin;
+        this.previous = previous;
+        this.rescanned = rescanned;
+    }
+
+    @Override
+    public void add(final Todo... todo) {
+        this.origin.add(todo);
+    }
+
+    @Override
+    public URI serialize() {
+        if (Files.isRegularFile(this.previous)) {
+            final Collection<String> replaced = this.rescanned.get();
+            try (JsonReader reader = Json.createReader(
+                Files.newBufferedReader(this.previous, StandardCharsets.UTF_8)
+            )) {
+                for (final JsonValue value : reader.readArray()) {
+                    final JsonObject json = value.asJsonObject();
+                    if (!MergedTodosSerializer.replaced(
+                        json.getString("file", ""), replaced
+                    )) {
+                        this.origin.add(new JsonTodo(json).todo());
+                    }
+                }
+            } catch (final IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+        return this.origin.serialize();
+    }
+
+    /**
+     * Checks if a file was rescanned, itself or as part of a directory.
+     * @param file Path of the file, as in todos.json.
+     * @param rescanned Paths of the rescanned files and directories.
+     * @return True or false.
+     */
+    static boolean replaced(
+        final String file, final Collection<String> rescanned
+    ) {
+        boolean replaced = rescanned.contains(file);
+        for (int idx = file.lastIndexOf('/'); idx > 0 && !replaced;
+            idx = file.lastIndexOf('/', idx - 1)) {
+            replaced = rescanned.contains(file.substring(0, idx));
+        }
+        return replaced;
+    }
+}
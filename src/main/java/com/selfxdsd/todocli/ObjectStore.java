@@ -0,0 +1,276 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The object store of a git repository: loose objects and packfiles.
+ * The packs are opened the first time an object is read. An object which
+ * is found nowhere may have been packed since (git gc, git fetch), so the
+ * pack directory is listed again and the new packs are opened. It is
+ * thread-safe.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+final class ObjectStore {
+
+    /**
+     * The objects directory.
+     */
+    private final Path objects;
+
+    /**
+     * Delta bases, shared by all the packs.
+     */
+    private final DeltaBaseCache bases;
+
+    /**
+     * Lock guarding the opening of the packs.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Packs, by .idx file, opened on first use.
+     */
+    private volatile Map<Path, PackFile> packs;
+
+    /**
+     * Ctor.
+     * @param objects The objects directory, usually .git/objects.
+     */
+    ObjectStore(final Path objects) {
+        this(objects, new DeltaBaseCache());
+    }
+
+    /**
+     * Ctor.
+     * @param objects The objects directory, usually .git/objects.
+     * @param bases Cache of the delta bases.
+     */
+    ObjectStore(final Path objects, final DeltaBaseCache bases) {
+        this.objects = objects;
+        this.bases = bases;
+    }
+
+    /**
+     * Reads an object.
+     * @param id Object id, in hex.
+     * @return Object or null if it is missing (e.g. shallow clones).
+     * @throws IOException If the object store cannot be read.
+     */
+    GitObject object(final String id) throws IOException {
+        final byte[] raw = ObjectStore.bytes(id);
+        final Map<Path, PackFile> known = this.packs();
+        GitObject object = ObjectStore.packed(known.values(), raw);
+        if (object == null) {
+            object = this.loose(id);
+        }
+        if (object == null) {
+            final Map<Path, PackFile> current = this.rescan(known);
+            if (current != known) {
+                object = ObjectStore.packed(current.values(), raw);
+            }
+        }
+        return object;
+    }
+
+    /**
+     * Reads an object, which must be of the given type.
+     * @param id Object id, in hex.
+     * @param type Expected type.
+     * @return Object.
+     * @throws IOException If the object is missing or of another type.
+     */
+    GitObject object(final String id, final int type) throws IOException {
+        final GitObject object = this.object(id);
+        if (object == null || object.type() != type) {
+            throw new IOException(
+                String.format("Object %s missing or of the wrong type.", id)
+            );
+        }
+        return object;
+    }
+
+    /**
+     * Reads a loose object.
+     * @param id Object id, in hex.
+     * @return Object or null if there is no such loose object.
+     * @throws IOException If it cannot be read.
+     */
+    private GitObject loose(final String id) throws IOException {
+        final Path file = this.objects.resolve(id.substring(0, 2))
+            .resolve(id.substring(2));
+        GitObject object = null;
+        if (Files.isRegularFile(file)) {
+            final byte[] raw;
+            try (InputStream input = new InflaterInputStream(
+                Files.newInputStream(file)
+            )) {
+                raw = input.readAllBytes();
+            }
+            int nul = 0;
+            while (raw[nul] != 0) {
+                ++nul;
+            }
+            final String header = new String(
+                raw, 0, nul, StandardCharsets.US_ASCII
+            );
+            object = new GitObject(
+                GitObject.typeOf(header.substring(0, header.indexOf(' '))),
+                Arrays.copyOfRange(raw, nul + 1, raw.length)
+            );
+        }
+        return object;
+    }
+
+    /**
+     * The packs of the repository.
+     * @return Packs, by .idx file.
+     * @throws IOException If they cannot be opened.
+     */
+    private Map<Path, PackFile> packs() throws IOException {
+        Map<Path, PackFile> open = this.packs;
+        if (open == null) {
+            synchronized (this.lock) {
+                open = this.packs;
+                if (open == null) {
+                    open = this.open(Map.of());
+                    this.packs = open;
+                }
+            }
+        }
+        return open;
+    }
+
+    /**
+     * Lists the packs again, unless another thread already did since the
+     * given ones were listed.
+     * @param known Packs listed so far.
+     * @return Packs listed now, the known ones if nothing changed.
+     * @throws IOException If the new packs cannot be opened.
+     */
+    private Map<Path, PackFile> rescan(final Map<Path, PackFile> known)
+        throws IOException {
+        Map<Path, PackFile> current;
+        synchronized (this.lock) {
+            current = this.packs;
+            if (current == known) {
+                final Map<Path, PackFile> open = this.open(known);
+                if (!open.keySet().equals(known.keySet())) {
+                    current = open;
+                    this.packs = open;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Opens the packs of the pack directory, reusing the ones already open.
+     * The packs which are not listed anymore are left out.
+     * @param known Packs open so far.
+     * @return Packs, by .idx file.
+     * @throws IOException If they cannot be opened.
+     */
+    private Map<Path, PackFile> open(final Map<Path, PackFile> known)
+        throws IOException {
+        final Map<Path, PackFile> open = new LinkedHashMap<>();
+        final Path dir = this.objects.resolve("pack");
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(
+                dir, "*.idx"
+            )) {
+                for (final Path idx : files) {
+                    PackFile pack = known.get(idx);
+                    if (pack == null) {
+                        pack = new PackFile(idx, this.bases);
+                    }
+                    open.put(idx, pack);
+                }
+            }
+        }
+        return Collections.unmodifiableMap(open);
+    }
+
+    /**
+     * Reads an object from the first pack which has it.
+     * @param packs Packs.
+     * @param id Object id.
+     * @return Object or null if none of the packs has it.
+     * @throws IOException If a pack cannot be read.
+     */
+    private static GitObject packed(
+        final Collection<PackFile> packs, final byte[] id
+    ) throws IOException {
+        GitObject object = null;
+        for (final PackFile pack : packs) {
+            if (object == null) {
+                object = pack.object(id);
+            }
+        }
+        return object;
+    }
+
+    /**
+     * Object id from hex.
+     * @param id Id in hex.
+     * @return Id in bytes.
+     */
+    static byte[] bytes(final String id) {
+        final byte[] bytes = new byte[id.length() / 2];
+        for (int idx = 0; idx < bytes.length; ++idx) {
+            bytes[idx] = (byte) Integer.parseInt(
+                id.substring(2 * idx, 2 * idx + 2), 16
+            );
+        }
+        return bytes;
+    }
+
+    /**
+     * Object id in hex.
+     * @param bytes Array containing the id.
+     * @param offset Offset of the id.
+     * @return Id in hex.
+     */
+    static String hex(final byte[] bytes, final int offset) {
+        final StringBuilder hex = new StringBuilder(40);
+        for (int idx = offset; idx < offset + 20; ++idx) {
+            hex.append(Character.forDigit((bytes[idx] >>> 4) & 0xf, 16))
+                .append(Character.forDigit(bytes[idx] & 0xf, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,473 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A packfile and its version 2 index, both memory-mapped. An object is
+ * looked up with the index's fanout table, which gives the range of ids
+ * starting with the same byte, and a binary search in that range. Deltas
+ * (OFS_DELTA and REF_DELTA) are resolved through a {@link DeltaBaseCache},
+ * so the bases shared by many objects are inflated and patched only once.
+ * <br><br>
+ * A buffer holds at most 2 GiB, so the pack is mapped in segments of 1 GiB,
+ * an object being read across them if need be. The files are closed once
+ * they are mapped: the mappings stay valid until they are collected. Nothing
+ * is modified after the construction, every read works on its own view of
+ * the mapped buffers, so the same PackFile can be used by many threads.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+final class PackFile {
+
+    /**
+     * Size of an object id.
+     */
+    private static final int ID_SIZE = 20;
+
+    /**
+     * Index signature: \377tOc.
+     */
+    private static final int IDX_SIGNATURE = 0xff744f63;
+
+    /**
+     * Position of the fanout table in the index.
+     */
+    private static final int FANOUT = 8;
+
+    /**
+     * Position of the ids in the index.
+     */
+    private static final int IDS = FANOUT + 256 * 4;
+
+    /**
+     * Type of deltas against a base at a relative offset.
+     */
+    private static final int OFS_DELTA = 6;
+
+    /**
+     * Type of deltas against a base given by id.
+     */
+    private static final int REF_DELTA = 7;
+
+    /**
+     * Size of the segments the pack is mapped in.
+     */
+    private static final int SEGMENT = 1 << 30;
+
+    /**
+     * Maximum length of an object header, with its delta base.
+     */
+    private static final int HEADER = 32;
+
+    /**
+     * The index, mapped.
+     */
+    private final ByteBuffer idx;
+
+    /**
+     * Number of objects.
+     */
+    private final int count;
+
+    /**
+     * The pack, mapped in segments.
+     */
+    private final ByteBuffer[] segments;
+
+    /**
+     * Size of the segments, but the last one.
+     */
+    private final int segment;
+
+    /**
+     * Size of the pack.
+     */
+    private final long size;
+
+    /**
+     * Delta bases.
+     */
+    private final DeltaBaseCache bases;
+
+    /**
+     * Ctor.
+     * @param index The .idx file; the pack is next to it.
+     * @param bases Delta bases, may be shared by many packs.
+     * @throws IOException If the files cannot be opened.
+     */
+    PackFile(final Path index, final DeltaBaseCache bases)
+        throws IOException {
+        this(index, bases, SEGMENT);
+    }
+
+    /**
+     * Ctor.
+     * @param index The .idx file; the pack is next to it.
+     * @param bases Delta bases, may be shared by many packs.
+     * @param segment Size of the segments the pack is mapped in.
+     * @throws IOException If the files cannot be opened.
+     */
+    PackFile(final Path index, final DeltaBaseCache bases, final int segment)
+        throws IOException {
+        this.idx = PackFile.map(index);
+        if (this.idx.getInt(0) != IDX_SIGNATURE || this.idx.getInt(4) != 2) {
+            throw new IOException(
+                String.format("Unsupported pack index %s.", index)
+            );
+        }
+        this.count = this.idx.getInt(FANOUT + 255 * 4);
+        final String name = index.getFileName().toString();
+        final Path pack = index.resolveSibling(
+            name.substring(0, name.length() - ".idx".length()) + ".pack"
+        );
+        try (FileChannel file = FileChannel.open(
+            pack, StandardOpenOption.READ
+        )) {
+            this.size = file.size();
+            this.segments = new ByteBuffer[
+                Math.toIntExact((this.size + segment - 1) / segment)
+            ];
+            for (int nth = 0; nth < this.segments.length; ++nth) {
+                final long start = (long) nth * segment;
+                this.segments[nth] = file.map(
+                    FileChannel.MapMode.READ_ONLY, start,
+                    Math.min(segment, this.size - start)
+                );
+            }
+        }
+        this.segment = segment;
+        this.bases = bases;
+    }
+
+    /**
+     * Reads an object.
+     * @param id Object id.
+     * @return Object or null if it is not in this pack.
+     * @throws IOException If the pack cannot be read.
+     */
+    GitObject object(final byte[] id) throws IOException {
+        final long offset = this.offset(id);
+        GitObject object = null;
+        if (offset >= 0) {
+            object = this.read(offset);
+        }
+        return object;
+    }
+
+    /**
+     * Number of objects in the pack.
+     * @return Count.
+     */
+    int count() {
+        return this.count;
+    }
+
+    /**
+     * Id (name) of the n-th object of the index, in id order.
+     * @param nth Position of the object.
+     * @return Id, in hex.
+     */
+    String name(final int nth) {
+        final byte[] id = new byte[ID_SIZE];
+        this.idx.duplicate().position(IDS + nth * ID_SIZE).get(id);
+        return ObjectStore.hex(id, 0);
+    }
+
+    /**
+     * Offset of an object in the pack: the fanout table gives the range of
+     * ids with the same first byte, which is then binary searched.
+     * @param id Object id.
+     * @return Offset or -1 if it is not in this pack.
+     */
+    private long offset(final byte[] id) {
+        final int first = id[0] & 0xff;
+        int low = 0;
+        if (first > 0) {
+            low = this.idx.getInt(FANOUT + (first - 1) * 4);
+        }
+        int high = this.idx.getInt(FANOUT + first * 4) - 1;
+        long offset = -1;
+        while (offset < 0 && low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int cmp = this.compare(IDS + mid * ID_SIZE, id);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                offset = this.offsetAt(mid);
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Compares an id of the index with the given one.
+     * @param pos Position of the id in the index.
+     * @param id Id to compare with.
+     * @return Negative, zero or positive.
+     */
+    private int compare(final int pos, final byte[] id) {
+        int cmp = 0;
+        for (int idx = 1; cmp == 0 && idx < ID_SIZE; ++idx) {
+            cmp = Integer.compare(
+                this.idx.get(pos + idx) & 0xff, id[idx] & 0xff
+            );
+        }
+        return cmp;
+    }
+
+    /**
+     * Pack offset of the n-th object of the index: 31 bits, or an index
+     * in the table of the large offsets if the highest bit is set.
+     * @param nth Position of the object in the index.
+     * @return Offset.
+     */
+    private long offsetAt(final int nth) {
+        final int offsets = IDS + this.count * (ID_SIZE + 4);
+        final int small = this.idx.getInt(offsets + nth * 4);
+        final long offset;
+        if (small < 0) {
+            offset = this.idx.getLong(
+                offsets + this.count * 4 + (small & 0x7fffffff) * 8
+            );
+        } else {
+            offset = small;
+        }
+        return offset;
+    }
+
+    /**
+     * Reads the object at the given offset, resolving its deltas.
+     * @param offset Offset in the pack.
+     * @return Object.
+     * @throws IOException If the pack cannot be read.
+     */
+    private GitObject read(final long offset) throws IOException {
+        final ByteBuffer header = this.header(offset);
+        int byt = header.get() & 0xff;
+        final int type = (byt >>> 4) & 7;
+        long size = byt & 0x0f;
+        int shift = 4;
+        while ((byt & 0x80) != 0) {
+            byt = header.get() & 0xff;
+            size |= (long) (byt & 0x7f) << shift;
+            shift += 7;
+        }
+        final long base = this.base(type, offset, header);
+        final byte[] data = this.inflate(offset + header.position(), size);
+        final GitObject object;
+        if (base < 0) {
+            object = new GitObject(type, data);
+        } else {
+            final GitObject original = this.cached(base);
+            object = new GitObject(
+                original.type(), Delta.apply(original.data(), data)
+            );
+        }
+        return object;
+    }
+
+    /**
+     * Reads a delta base, from the cache if it is there.
+     * @param offset Offset of the base in the pack.
+     * @return Object.
+     * @throws IOException If the pack cannot be read.
+     */
+    private GitObject cached(final long offset) throws IOException {
+        GitObject base = this.bases.get(this, offset);
+        if (base == null) {
+            base = this.read(offset);
+            this.bases.put(this, offset, base);
+        }
+        return base;
+    }
+
+    /**
+     * Offset of the base of a delta.
+     * @param type Type of the object.
+     * @param offset Offset of the object.
+     * @param header Object header, positioned after the type and size.
+     * @return Offset of the base, -1 if the object is not a delta.
+     * @throws IOException If the base is not in this pack.
+     */
+    private long base(final int type, final long offset,
+        final ByteBuffer header) throws IOException {
+        long base = -1;
+        if (type == OFS_DELTA) {
+            base = offset - PackFile.relative(header);
+        } else if (type == REF_DELTA) {
+            final byte[] id = new byte[ID_SIZE];
+            header.get(id);
+            base = this.offset(id);
+            if (base < 0) {
+                throw new IOException("Delta base not found in the pack.");
+            }
+        }
+        return base;
+    }
+
+    /**
+     * The header of the object at the given offset, copied if it spans two
+     * segments.
+     * @param offset Offset of the object.
+     * @return Buffer with the header, and maybe more.
+     * @throws IOException If the pack cannot be read.
+     */
+    private ByteBuffer header(final long offset) throws IOException {
+        ByteBuffer header = this.segmentAt(offset);
+        final int length = (int) Math.min(HEADER, this.size - offset);
+        if (header.remaining() < length) {
+            final ByteBuffer copy = ByteBuffer.allocate(length);
+            long pos = offset;
+            while (copy.hasRemaining()) {
+                final ByteBuffer part = this.segmentAt(pos);
+                final int taken = Math.min(part.remaining(), copy.remaining());
+                part.limit(part.position() + taken);
+                pos += taken;
+                copy.put(part);
+            }
+            header = copy.flip();
+        }
+        return header.slice();
+    }
+
+    /**
+     * View of the segment containing the given offset.
+     * @param offset Offset in the pack.
+     * @return Buffer positioned at the offset, up to the end of its segment.
+     * @throws IOException If the offset is not in the pack.
+     */
+    private ByteBuffer segmentAt(final long offset) throws IOException {
+        if (offset < 0 || offset >= this.size) {
+            throw new IOException("Offset out of the pack.");
+        }
+        return this.segments[(int) (offset / this.segment)].duplicate()
+            .position((int) (offset % this.segment));
+    }
+
+    /**
+     * Inflates the data starting at the given offset.
+     * @param offset Offset of the compressed data in the pack.
+     * @param size Size of the inflated data.
+     * @return Inflated data.
+     * @throws IOException If the data cannot be read or is corrupted.
+     */
+    private byte[] inflate(final long offset, final long size)
+        throws IOException {
+        final byte[] data = new byte[Math.toIntExact(size)];
+        final Inflater inflater = new Inflater();
+        try {
+            this.inflate(inflater, offset, data);
+            if (!inflater.finished()) {
+                throw new IOException("Truncated pack.");
+            }
+        } catch (final DataFormatException exception) {
+            throw new IOException(exception);
+        } finally {
+            inflater.end();
+        }
+        return data;
+    }
+
+    /**
+     * Inflates the data, segment by segment.
+     * @param inflater Inflater.
+     * @param offset Offset of the compressed data in the pack.
+     * @param data Where to put the inflated data.
+     * @throws IOException If the pack cannot be read.
+     * @throws DataFormatException If the data is corrupted.
+     */
+    private void inflate(final Inflater inflater, final long offset,
+        final byte[] data) throws IOException, DataFormatException {
+        long pos = offset;
+        final int[] done = {0};
+        boolean progress = true;
+        while (progress && !inflater.finished()) {
+            if (inflater.needsInput() && pos < this.size) {
+                final ByteBuffer input = this.segmentAt(pos);
+                pos += input.remaining();
+                inflater.setInput(input);
+            }
+            progress = PackFile.step(inflater, data, done);
+        }
+    }
+
+    /**
+     * Inflates as much as possible of the available input.
+     * @param inflater Inflater.
+     * @param data Where to put the inflated data.
+     * @param done How much of the data is inflated already, updated.
+     * @return Whether some input was consumed or some data inflated.
+     * @throws DataFormatException If the data is corrupted.
+     */
+    private static boolean step(final Inflater inflater, final byte[] data,
+        final int[] done) throws DataFormatException {
+        final long before = inflater.getBytesRead();
+        final int inflated = inflater.inflate(
+            data, done[0], data.length - done[0]
+        );
+        done[0] += inflated;
+        return inflated > 0 || inflater.getBytesRead() > before;
+    }
+
+    /**
+     * Reads the relative offset of the base of an OFS_DELTA.
+     * @param header Object header, positioned at the offset.
+     * @return Relative offset.
+     */
+    private static long relative(final ByteBuffer header) {
+        int byt = header.get() & 0xff;
+        long offset = byt & 0x7f;
+        while ((byt & 0x80) != 0) {
+            byt = header.get() & 0xff;
+            offset = ((offset + 1) << 7) | (byt & 0x7f);
+        }
+        return offset;
+    }
+
+    /**
+     * Maps a file in memory.
+     * @param file File.
+     * @return Read-only buffer.
+     * @throws IOException If it cannot be mapped.
+     */
+    private static ByteBuffer map(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(
+            file, StandardOpenOption.READ
+        )) {
+            return channel.map(
+                FileChannel.MapMode.READ_ONLY, 0, channel.size()
+            );
+        }
+    }
+}
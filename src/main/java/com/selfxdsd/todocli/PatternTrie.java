@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Character trie of ignore patterns. Each key is associated with the
+ * indexes of the rules it was compiled from, so a whole family of literal
+ * patterns is matched in a single walk over the text, in time proportional
+ * to the length of the text, instead of testing every pattern.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+final class PatternTrie {
+
+    /**
+     * Root node.
+     */
+    private final Node root = new Node();
+
+    /**
+     * Adds a key.
+     * @param key Key.
+     * @param rule Index of the rule.
+     */
+    void add(final CharSequence key, final int rule) {
+        Node node = this.root;
+        for (int idx = 0; idx < key.length(); ++idx) {
+            node = node.child(key.charAt(idx), true);
+        }
+        node.rules = Arrays.copyOf(node.rules, node.rules.length + 1);
+        node.rules[node.rules.length - 1] = rule;
+    }
+
+    /**
+     * Highest accepted rule of a key equal to the text.
+     * @param text Text.
+     * @param accept Which rules can be considered.
+     * @return Rule index or -1 if there is none.
+     */
+    int exact(final String text, final IntPredicate accept) {
+        Node node = this.root;
+        for (int idx = 0; node != null && idx < text.length(); ++idx) {
+            node = node.child(text.charAt(idx), false);
+        }
+        int best = -1;
+        if (node != null) {
+            best = node.best(best, accept);
+        }
+        return best;
+    }
+
+    /**
+     * Highest accepted rule of a key which is a prefix of the text.
+     * @param text Text.
+     * @param accept Which rules can be considered.
+     * @return Rule index or -1 if there is none.
+     */
+    int prefix(final String text, final IntPredicate accept) {
+        Node node = this.root;
+        int best = -1;
+        for (int idx = 0; node != null && idx < text.length(); ++idx) {
+            node = node.child(text.charAt(idx), false);
+            if (node != null) {
+                best = node.best(best, accept);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Highest accepted rule of a key which, reversed, is a suffix of the
+     * text. Suffix keys have to be added reversed.
+     * @param text Text.
+     * @param accept Which rules can be considered.
+     * @return Rule index or -1 if there is none.
+     */
+    int suffix(final String text, final IntPredicate accept) {
+        Node node = this.root;
+        int best = -1;
+        for (int idx = text.length() - 1; node != null && idx >= 0; --idx) {
+            node = node.child(text.charAt(idx), false);
+            if (node != null) {
+                best = node.best(best, accept);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Node of the trie.
+     */
+    private static final class Node {
+
+        /**
+         * Labels of the children.
+         */
+        private char[] labels = new char[0];
+
+        /**
+         * Children.
+         */
+        private Node[] children = new Node[0];
+
+        /**
+         * Rules whose key ends in this node.
+         */
+        private int[] rules = new int[0];
+
+        /**
+         * Finds (and optionally creates) the child with the given label.
+         * @param label Label.
+         * @param create Create the child if it is missing.
+         * @return Child or null.
+         */
+        private Node child(final char label, final boolean create) {
+            Node child = null;
+            for (int idx = 0; child == null && idx < this.labels.length;
+                ++idx) {
+                if (this.labels[idx] == label) {
+                    child = this.children[idx];
+                }
+            }
+            if (child == null && create) {
+                child = new Node();
+                final int size = this.labels.length + 1;
+                this.labels = Arrays.copyOf(this.labels, size);
+                this.children = Arrays.copyOf(this.children, size);
+                this.labels[size - 1] = label;
+                this.children[size - 1] = child;
+            }
+            return child;
+        }
+
+        /**
+         * Highest accepted rule ending here, compared to the given one.
+         * @param current Best rule so far.
+         * @param accept Which rules can be considered.
+         * @return Best rule.
+         */
+        private int best(final int current, final IntPredicate accept) {
+            int best = current;
+            for (final int rule : this.rules) {
+                if (rule > best && accept.test(rule)) {
+                    best = rule;
+                }
+            }
+            return best;
+        }
+    }
+}
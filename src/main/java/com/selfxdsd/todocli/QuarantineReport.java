@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonValue;
+import javax.json.JsonWriter;
+import javax.json.stream.JsonGenerator;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * The quarantined.json file, written next to todos.json after each scan:
+ * the files which were too costly to parse, see {@link TodoParser}, with
+ * the reason, as an array of {"file", "reason"} objects. Only the TODOs
+ * found before the limit of these files are in todos.json. The file is
+ * deleted when no file is quarantined, so its presence tells a script
+ * that the scan is incomplete.<br><br>
+ * After a scan of the changed files only, the previous entries of the
+ * files which were not rescanned are kept, as {@link MergedTodosSerializer}
+ * keeps their TODOs.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class QuarantineReport {
+
+    /**
+     * The quarantined.json file.
+     */
+    private final Path file;
+
+    /**
+     * Paths of the rescanned files, known once the scan is done, null if
+     * all the files were scanned.
+     */
+    private final Supplier<Collection<String>> rescanned;
+
+    /**
+     * Ctor, for a scan of all the files.
+     * @param file The quarantined.json file.
+     */
+    public QuarantineReport(final Path file) {
+        this(file, null);
+    }
+
+    /**
+     * Ctor, for a scan of the changed files only.
+     * @param file The quarantined.json file.
+     * @param rescanned Paths of the rescanned files and directories, as in
+     *  todos.json, known once the scan is done.
+     */
+    public QuarantineReport(
+        final Path file, final Supplier<Collection<String>> rescanned
+    ) {
+        this.file = file;
+        this.rescanned = rescanned;
+    }
+
+    /**
+     * Writes the quarantined files, or deletes the file if there is none.
+     * @param quarantined Paths of the quarantined files, with the reason.
+     * @throws IOException If the file cannot be read or written.
+     */
+    public void write(final Map<String, String> quarantined)
+        throws IOException {
+        final Map<String, String> all = new TreeMap<>(quarantined);
+        if (this.rescanned != null && Files.isRegularFile(this.file)) {
+            all.putAll(this.kept(all));
+        }
+        if (all.isEmpty()) {
+            Files.deleteIfExists(this.file);
+        } else {
+            final JsonArrayBuilder array = Json.createArrayBuilder();
+            for (final Map.Entry<String, String> entry : all.entrySet()) {
+                array.add(
+                    Json.createObjectBuilder()
+                        .add("file", entry.getKey())
+                        .add("reason", entry.getValue())
+                );
+            }
+            try (JsonWriter writer = Json
+                .createWriterFactory(
+                    Map.of(JsonGenerator.PRETTY_PRINTING, true)
+                )
+                .createWriter(
+                    Files.newBufferedWriter(this.file, StandardCharsets.UTF_8)
+                )) {
+                writer.writeArray(array.build());
+            }
+        }
+    }
+
+    /**
+     * The previous entries of the files which were not rescanned.
+     * @param found Files quarantined by this scan.
+     * @return Paths of the files, with the reason.
+     * @throws IOException If the file cannot be read.
+     */
+    private Map<String, String> kept(final Map<String, String> found)
+        throws IOException {
+        final Collection<String> replaced = this.rescanned.get();
+        final Map<String, String> kept = new TreeMap<>();
+        try (JsonReader reader = Json.createReader(
+            Files.newBufferedReader(this.file, StandardCharsets.UTF_8)
+        )) {
+            for (final JsonValue value : reader.readArray()) {
+                final JsonObject json = value.asJsonObject();
+                final String path = json.getString("file", "");
+                if (!found.containsKey(path)
+                    && !MergedTodosSerializer.replaced(path, replaced)) {
+                    kept.put(path, json.getString("reason", ""));
+                }
+            }
+        }
+        return kept;
+    }
+}
@@ -0,0 +1,409 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * What the last scan found in each file, so the next scan parses only the
+ * files which changed since: for each file, its size, modification time
+ * and TODOs and, if it has any TODO marker, the id of its content as a git
+ * blob. A file is unchanged if its size and modification time are the
+ * same or, for the files with markers, if its content is the same.<br><br>
+ * The TODOs carry their blame, which may change without the file changing:
+ * when HEAD moved since the last scan, the files with markers are reused
+ * only if all their TODOs were committed already; e.g. a file which was
+ * not tracked yet had none. A scan with other markers, another blame
+ * backend or another root does not reuse anything.<br><br>
+ * The state is kept in a file, a JSON object per line: a header, then one
+ * line per file. It is thread-safe.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class ScanState {
+
+    /**
+     * Version of the file format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * File where the state is kept, null if it is not kept.
+     */
+    private final Path file;
+
+    /**
+     * What the scan depends on besides the files, such as the markers.
+     */
+    private final String config;
+
+    /**
+     * HEAD commit at the time of this scan, empty if there is none.
+     */
+    private final String head;
+
+    /**
+     * Whether HEAD is the same as in the last scan.
+     */
+    private final boolean sameHead;
+
+    /**
+     * Files of the last scan, by path.
+     */
+    private final Map<String, Entry> previous;
+
+    /**
+     * Files of this scan, by path.
+     */
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+
+    /**
+     * Ctor. A state which is not kept, so nothing is ever reused.
+     */
+    public ScanState() {
+        this(null, "", "", false, new HashMap<>());
+    }
+
+    /**
+     * Ctor.
+     * @param file File where the state is kept, null if it is not kept.
+     * @param config What the scan depends on besides the files.
+     * @param head HEAD commit at the time of this scan, empty if none.
+     * @param sameHead Whether HEAD is the same as in the last scan.
+     * @param previous Files of the last scan, by path.
+     * @checkstyle ParameterNumber (10 lines)
+     */
+    private ScanState(
+        final Path file, final String config, final String head,
+        final boolean sameHead, final Map<String, Entry> previous
+    ) {
+        this.file = file;
+        this.config = config;
+        this.head = head;
+        this.sameHead = sameHead;
+        this.previous = previous;
+    }
+
+    /**
+     * Loads the state of the last scan. If the file is missing, cannot be
+     * read or belongs to a scan with another configuration, nothing is
+     * reused.
+     * @param file File where the state is kept.
+     * @param config What the scan depends on besides the files, such as
+     *  the markers.
+     * @param head HEAD commit at the time of this scan, empty if none.
+     * @return State.
+     */
+    public static ScanState load(
+        final Path file, final String config, final String head
+    ) {
+        final Map<String, Entry> previous = new HashMap<>();
+        String last = null;
+        if (Files.isRegularFile(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(
+                file, StandardCharsets.UTF_8
+            )) {
+                final JsonObject header = ScanState.json(reader.readLine());
+                if (header.getInt("version") == VERSION
+                    && config.equals(header.getString("config"))) {
+                    last = header.getString("head");
+                    String line = reader.readLine();
+                    while (line != null) {
+                        final Entry entry = new Entry(ScanState.json(line));
+                        previous.put(entry.path, entry);
+                        line = reader.readLine();
+                    }
+                }
+            } catch (final IOException | JsonException
+                | ClassCastException | NullPointerException exception) {
+                previous.clear();
+            }
+        }
+        return new ScanState(
+            file, config, head, head.equals(last), previous
+        );
+    }
+
+    /**
+     * The TODOs the last scan found in the file, if it did not change.
+     * @param path File.
+     * @param attrs Its attributes.
+     * @return TODOs or null if the file has to be parsed.
+     * @throws IOException If the file cannot be read.
+     */
+    public List<Todo> reuse(final Path path, final BasicFileAttributes attrs)
+        throws IOException {
+        final Entry entry = this.previous.get(path.toString());
+        List<Todo> todos = null;
+        if (entry != null && entry.size == attrs.size()
+            && (this.sameHead || entry.settled())) {
+            final long time = attrs.lastModifiedTime().toMillis();
+            if (entry.time == time || entry.hash != null
+                && entry.hash.equals(ScanState.hash(path))) {
+                this.current.put(entry.path, entry.touched(time));
+                todos = entry.todos();
+            }
+        }
+        return todos;
+    }
+
+    /**
+     * Records what this scan found in a file.
+     * @param path File.
+     * @param attrs Its attributes.
+     * @param source Its content, as it was parsed; null if it has no TODO
+     *  marker at all.
+     * @param todos Found TODOs.
+     * @throws IOException If the file cannot be read.
+     */
+    public void record(
+        final Path path, final BasicFileAttributes attrs,
+        final TodoSource source, final List<Todo> todos
+    ) throws IOException {
+        if (this.file != null) {
+            String hash = null;
+            if (source != null) {
+                hash = source.blobId();
+            }
+            if (source != null && hash == null) {
+                hash = ScanState.hash(path);
+            }
+            final Entry entry = new Entry(
+                path.toString(), attrs.size(),
+                attrs.lastModifiedTime().toMillis(), hash, todos
+            );
+            this.current.put(entry.path, entry);
+        }
+    }
+
+    /**
+     * Saves the state of this scan, with the files it saw, for the next
+     * one. The file is replaced atomically.
+     * @throws IOException If it cannot be written.
+     */
+    public void save() throws IOException {
+        if (this.file != null) {
+            final Path dir = this.file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            final Path temp = Files.createTempFile(dir, "scan", ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(
+                temp, StandardCharsets.UTF_8
+            )) {
+                writer.write(
+                    Json.createObjectBuilder()
+                        .add("version", VERSION)
+                        .add("config", this.config)
+                        .add("head", this.head)
+                        .build().toString()
+                );
+                writer.newLine();
+                for (final Entry entry : this.current.values()) {
+                    writer.write(entry.json().toString());
+                    writer.newLine();
+                }
+            }
+            Files.move(
+                temp, this.file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE
+            );
+        }
+    }
+
+    /**
+     * Parses a line of the file.
+     * @param line Line.
+     * @return JSON object.
+     */
+    private static JsonObject json(final String line) {
+        return Json.createReader(
+            new StringReader(Objects.requireNonNull(line))
+        ).readObject();
+    }
+
+    /**
+     * Id of the file's content as a git blob.
+     * @param path File.
+     * @return Id.
+     * @throws IOException If the file cannot be read.
+     */
+    private static String hash(final Path path) throws IOException {
+        return GitObject.blobId(Files.readAllBytes(path));
+    }
+
+    /**
+     * What a scan found in a file.
+     */
+    private static final class Entry {
+
+        /**
+         * Path of the file.
+         */
+        private final String path;
+
+        /**
+         * Size of the file.
+         */
+        private final long size;
+
+        /**
+         * Modification time, in milliseconds since the epoch.
+         */
+        private final long time;
+
+        /**
+         * Id of the content as a git blob, null if it has no TODO markers.
+         */
+        private final String hash;
+
+        /**
+         * Found TODOs, as JSON.
+         */
+        private final List<JsonObject> found;
+
+        /**
+         * Ctor.
+         * @param path Path of the file.
+         * @param size Size of the file.
+         * @param time Modification time.
+         * @param hash Id of the content, null if it has no markers.
+         * @param todos Found TODOs.
+         * @checkstyle ParameterNumber (5 lines)
+         */
+        Entry(final String path, final long size, final long time,
+            final String hash, final List<Todo> todos) {
+            this.path = path;
+            this.size = size;
+            this.time = time;
+            this.hash = hash;
+            this.found = new ArrayList<>(todos.size());
+            for (final Todo todo : todos) {
+                this.found.add(new JsonTodo(todo));
+            }
+        }
+
+        /**
+         * Ctor.
+         * @param json The entry, as written by {@link #json()}.
+         */
+        Entry(final JsonObject json) {
+            this.path = json.getString("path");
+            this.size = json.getJsonNumber("size").longValue();
+            this.time = json.getJsonNumber("time").longValue();
+            this.hash = json.getString("hash", null);
+            this.found = json.getJsonArray("todos")
+                .getValuesAs(JsonObject.class);
+        }
+
+        /**
+         * Ctor.
+         * @param entry Entry.
+         * @param time New modification time.
+         */
+        private Entry(final Entry entry, final long time) {
+            this.path = entry.path;
+            this.size = entry.size;
+            this.time = time;
+            this.hash = entry.hash;
+            this.found = entry.found;
+        }
+
+        /**
+         * The same entry, with another modification time.
+         * @param modified Modification time.
+         * @return Entry.
+         */
+        Entry touched(final long modified) {
+            return new Entry(this, modified);
+        }
+
+        /**
+         * Could the blame of its TODOs have changed since HEAD moved? Not
+         * if it has no markers or all its TODOs are committed.
+         * @return True if it cannot have changed.
+         */
+        boolean settled() {
+            boolean settled = true;
+            if (this.hash != null) {
+                settled = !this.found.isEmpty();
+                for (final JsonObject todo : this.found) {
+                    settled = settled && !Attribution.NOT_COMMITTED.equals(
+                        todo.getString("author", "")
+                    );
+                }
+            }
+            return settled;
+        }
+
+        /**
+         * The found TODOs.
+         * @return New TODOs.
+         */
+        List<Todo> todos() {
+            final List<Todo> todos = new ArrayList<>(this.found.size());
+            for (final JsonObject json : this.found) {
+                todos.add(new JsonTodo(json).todo());
+            }
+            return todos;
+        }
+
+        /**
+         * The entry, as JSON.
+         * @return JSON object.
+         */
+        JsonObject json() {
+            final JsonArrayBuilder todos = Json.createArrayBuilder();
+            for (final JsonObject todo : this.found) {
+                todos.add(todo);
+            }
+            final JsonObjectBuilder json = Json.createObjectBuilder()
+                .add("path", this.path)
+                .add("size", this.size)
+                .add("time", this.time)
+                .add("todos", todos);
+            if (this.hash != null) {
+                json.add("hash", this.hash);
+            }
+            return json.build();
+        }
+    }
+}
@@ -27,14 +27,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * The main program.
  *
  * @version $Id$
  * @checkstyle HideUtilityClassConstructor (100 lines)
+ * @checkstyle ClassDataAbstractionCoupling (100 lines)
+ * @checkstyle ClassFanOutComplexity (100 lines)
  * @since 0.0.1
  */
 public class TodoFinderCli {
@@ -77,14 +86,7 @@ public class TodoFinderCli {
      * @param args Command line arguments
      */
     private static void initOptions(final String[] args) {
-        Options options = new Options();
-
-        Option versionOption = new Option("v", "version", false,
-                "print utility version to the"
-                        + " standard output stream and exit"
-        );
-        versionOption.setRequired(false);
-        options.addOption(versionOption);
+        Options options = options();
 
         CommandLineParser cmdParser = new DefaultParser();
         HelpFormatter formatter = new HelpFormatter();
@@ -105,24 +107,632 @@ public class TodoFinderCli {
             );
 
         } else {
-            run();
+            scan(cmd, options, formatter);
+        }
+    }
+
+    /**
+     * Scans the directory structure, or the given commit, as the command
+     * line arguments say. They are all checked before git is run.
+     *
+     * @param cmd Command line arguments.
+     * @param options Possible command line arguments.
+     * @param formatter Prints the help, if the arguments are wrong.
+     */
+    private static void scan(
+        final CommandLine cmd, final Options options,
+        final HelpFormatter formatter
+    ) {
+        final MarkerAutomaton markers = markers(cmd.getOptionValues("m"));
+        final GitProcessPool pool = new GitProcessPool();
+        final TreeWalker walker = walker(
+            cmd.getOptionValue("w"), markers.markers(), pool
+        );
+        final Function<String, Attributions> backend = backend(
+            cmd.getOptionValue("b"), pool
+        );
+        if (walker == null || backend == null
+            || quiet(cmd.getOptionValue("l")) == null || conflicting(cmd)) {
+            formatter.printHelp(
+                String.format(NAME_AND_VERSION, CONFIG.version()), options
+            );
+        } else if (cmd.hasOption("l")) {
+            watch(cmd, markers, pool);
+        } else {
+            scan(cmd, markers, pool, walker, backend);
+        }
+    }
+
+    /**
+     * Scans the directory structure, or only its files changed since the
+     * given commit, or the given commit, once.
+     *
+     * @param cmd Command line arguments, already checked.
+     * @param markers TODO markers.
+     * @param pool Runs the git processes.
+     * @param walker File tree walker, if the working tree is scanned.
+     * @param backend Attributions of the commit being scanned, by its id.
+     * @checkstyle ParameterNumber (5 lines)
+     */
+    private static void scan(
+        final CommandLine cmd, final MarkerAutomaton markers,
+        final GitProcessPool pool, final TreeWalker walker,
+        final Function<String, Attributions> backend
+    ) {
+        final String rev;
+        try {
+            rev = revision(cmd.getOptionValue("r"), pool);
+        } catch (final IOException ex) {
+            System.err.println("Could not find the given revision!");
+            ex.printStackTrace();
+            return;
+        }
+        final GitDiffTreeWalker diff = diff(cmd.getOptionValue("d"), pool);
+        final List<String> excluded = excluded(cmd.getOptionValues("x"));
+        final TodoVisitor visitor = new TodoVisitor(
+            serializer(diff),
+            new TodoParser(markers, cached(backend.apply(rev), cmd, rev)),
+            logger,
+            excluded,
+            !cmd.hasOption("n"),
+            state(cmd, markers.markers(), rev)
+        );
+        if (diff != null) {
+            run(diff, visitor, report(diff));
+        } else if (rev == null) {
+            run(walker, visitor, report(null));
+        } else {
+            final GitRevisionWalker revision = new GitRevisionWalker(
+                rev, excluded, !cmd.hasOption("n")
+            );
+            run(
+                (dir, any) -> revision.walk(dir, visitor), visitor,
+                report(null)
+            );
+        }
+        log(pool);
+    }
+
+    /**
+     * Possible command line arguments.
+     *
+     * @return Options.
+     */
+    private static Options options() {
+        Options options = new Options();
+        options.addOption(option("v", "version", false,
+                "print utility version to the"
+                        + " standard output stream and exit"
+        ));
+        options.addOption(option("w", "walker", true,
+                "file tree walker: serial (default), parallel, index"
+                        + " or grep"
+        ));
+        options.addOption(option("b", "blame", true,
+                "where TODO authors come from: git (default, runs"
+                        + " git blame) or internal (reads the history"
+                        + " in-process)"
+        ));
+        options.addOption(option("c", "blame-cache", true,
+                "directory where the blames are kept from one run to"
+                        + " the next, default: .git/todo-finder; none"
+                        + " disables the cache"
+        ));
+        options.addOption(option("s", "state", true,
+                "file where what the scan found is kept, so the next"
+                        + " one parses only the changed files, default:"
+                        + " .git/todo-finder/scan-state; none disables it"
+        ));
+        options.addOption(option("d", "since", true,
+                "scan only the files changed between the given commit"
+                        + " and HEAD, merging their TODOs into the"
+                        + " previous todos.json"
+        ));
+        final Option watch = option("l", "watch", true,
+                "keep running and rescan the changed files, once no"
+                        + " change came for the given (positive) milliseconds"
+                        + " (default: 300)"
+        );
+        watch.setOptionalArg(true);
+        options.addOption(watch);
+        options.addOption(option("r", "rev", true,
+                "scan the files of the given commit, read from the"
+                        + " repository, instead of the working tree;"
+                        + " not with --since, --watch nor --walker"
+        ));
+        options.addOption(listOption("x", "exclude",
+                "comma-separated names of directories to skip,"
+                        + " besides .git, .hg and .svn"
+        ));
+        options.addOption(option("n", "no-gitignore", false,
+                "also scan the files ignored by .gitignore"
+        ));
+        options.addOption(listOption("m", "markers",
+                "comma-separated TODO markers to look for,"
+                        + " default: @todo,TODO,@fixme,FIXME"
+        ));
+        return options;
+    }
+
+    /**
+     * Builds an optional command line argument.
+     *
+     * @param name Short name.
+     * @param longName Long name.
+     * @param hasArg Whether it takes a value.
+     * @param description Description.
+     * @return Option.
+     */
+    private static Option option(
+        final String name, final String longName,
+        final boolean hasArg, final String description
+    ) {
+        final Option option = new Option(name, longName, hasArg, description);
+        option.setRequired(false);
+        return option;
+    }
+
+    /**
+     * Builds an optional command line argument taking a comma-separated
+     * list of values.
+     *
+     * @param name Short name.
+     * @param longName Long name.
+     * @param description Description.
+     * @return Option.
+     */
+    private static Option listOption(
+        final String name, final String longName, final String description
+    ) {
+        final Option option = option(name, longName, true, description);
+        option.setArgs(Option.UNLIMITED_VALUES);
+        option.setValueSeparator(',');
+        return option;
+    }
+
+    /**
+     * Checks if the command line asks for options which do not go
+     * together: the working tree is watched, not a commit nor a diff, and
+     * a commit is scanned entirely, not only its changed files, by reading
+     * its tree rather than walking the working tree.
+     *
+     * @param cmd Command line arguments.
+     * @return True or false.
+     */
+    private static boolean conflicting(final CommandLine cmd) {
+        final boolean conflicting;
+        if (cmd.hasOption("r")) {
+            conflicting = cmd.hasOption("l") || cmd.hasOption("d")
+                || cmd.hasOption("w");
+        } else {
+            conflicting = cmd.hasOption("l") && cmd.hasOption("d");
+        }
+        return conflicting;
+    }
+
+    /**
+     * Watches the directory structure: scans it all, like without watching,
+     * then parses only the changed files and merges their TODOs into
+     * todos.json, until the program is stopped.
+     *
+     * @param cmd Command line arguments.
+     * @param markers TODO markers.
+     * @param pool Runs the git processes.
+     */
+    private static void watch(
+        final CommandLine cmd, final MarkerAutomaton markers,
+        final GitProcessPool pool
+    ) {
+        final List<String> excluded = excluded(cmd.getOptionValues("x"));
+        final Duration quiet = quiet(cmd.getOptionValue("l"));
+        try {
+            new TreeWatcher(Paths.get(root), excluded, quiet).watch(
+                new TreeWatcher.Changes() {
+                    @Override
+                    public void all() {
+                        run(
+                            walker(
+                                cmd.getOptionValue("w"), markers.markers(),
+                                pool
+                            ),
+                            visitor(
+                                cmd, markers, pool, new JsonTodosSerializer(),
+                                state(cmd, markers.markers(), null)
+                            ),
+                            report(null)
+                        );
+                    }
+
+                    @Override
+                    public void changed(final Collection<String> paths) {
+                        rescan(cmd, markers, pool, paths);
+                    }
+                }
+            );
+        } catch (final IOException ex) {
+            System.err.println("Could not watch the given directory!");
+            ex.printStackTrace();
+        }
+        log(pool);
+    }
+
+    /**
+     * How long no change must come before the watched directory structure
+     * is rescanned, given by the user in milliseconds.
+     *
+     * @param millis Option value, null if it is missing or has no value.
+     * @return Quiet period, null if the value is not a positive number of
+     *  at most 9 digits.
+     */
+    private static Duration quiet(final String millis) {
+        Duration quiet = null;
+        if (millis == null) {
+            quiet = TreeWatcher.QUIET;
+        } else if (millis.matches("[1-9][0-9]{0,8}")) {
+            quiet = Duration.ofMillis(Long.parseLong(millis));
+        }
+        return quiet;
+    }
+
+    /**
+     * Parses the changed files of the watched directory structure and
+     * merges their TODOs into todos.json. The changes of todos.json and
+     * quarantined.json are not looked at, they are written by the scans.
+     *
+     * @param cmd Command line arguments.
+     * @param markers TODO markers.
+     * @param pool Runs the git processes.
+     * @param paths Paths of the changed files, relative to the root.
+     */
+    private static void rescan(
+        final CommandLine cmd, final MarkerAutomaton markers,
+        final GitProcessPool pool, final Collection<String> paths
+    ) {
+        final List<Path> outputs = List.of(output(), quarantine());
+        final List<String> changed = paths.stream()
+            .filter(
+                path -> !outputs.contains(
+                    Paths.get(root, path).toAbsolutePath().normalize()
+                )
+            )
+            .collect(Collectors.toList());
+        if (!changed.isEmpty()) {
+            run(
+                new ListedTreeWalker(changed),
+                visitor(
+                    cmd, markers, pool,
+                    new MergedTodosSerializer(
+                        new JsonTodosSerializer(), output(), () -> changed
+                    ),
+                    new ScanState()
+                ),
+                new QuarantineReport(quarantine(), () -> changed)
+            );
+        }
+    }
+
+    /**
+     * Visitor finding the TODOs of the working tree, for one scan of the
+     * watched directory structure. The attributions are picked again, so
+     * the commits made since the last scan are seen.
+     *
+     * @param cmd Command line arguments.
+     * @param markers TODO markers.
+     * @param pool Runs the git processes.
+     * @param serializer Serializer of the found TODOs.
+     * @param state State of the last scan.
+     * @return TodoVisitor.
+     */
+    private static TodoVisitor visitor(
+        final CommandLine cmd, final MarkerAutomaton markers,
+        final GitProcessPool pool, final TodosSerializer serializer,
+        final ScanState state
+    ) {
+        return new TodoVisitor(
+            serializer,
+            new TodoParser(
+                markers,
+                cached(
+                    backend(cmd.getOptionValue("b"), pool).apply(null),
+                    cmd, null
+                )
+            ),
+            logger,
+            excluded(cmd.getOptionValues("x")),
+            !cmd.hasOption("n"),
+            state
+        );
+    }
+
+    /**
+     * Picks the file tree walker.
+     *
+     * @param name Name of the walker, null for the default one.
+     * @param markers TODO markers, for the walkers looking for them.
+     * @param pool Runs the git processes, for the walkers needing them.
+     * @return TreeWalker or null if the name is unknown.
+     */
+    private static TreeWalker walker(
+        final String name, final List<String> markers,
+        final GitProcessPool pool
+    ) {
+        final TreeWalker walker;
+        if (name == null || "serial".equals(name)) {
+            walker = new SerialTreeWalker();
+        } else if ("parallel".equals(name)) {
+            walker = new ForkJoinTreeWalker();
+        } else if ("index".equals(name)) {
+            walker = new GitIndexTreeWalker();
+        } else if ("grep".equals(name)) {
+            walker = new GitGrepTreeWalker(markers, pool);
+        } else {
+            walker = null;
+        }
+        return walker;
+    }
+
+    /**
+     * Walker of the files changed since the given commit.
+     *
+     * @param since Option value, null if the option is missing.
+     * @param pool Runs the git processes.
+     * @return GitDiffTreeWalker or null if the option is missing.
+     */
+    private static GitDiffTreeWalker diff(
+        final String since, final GitProcessPool pool
+    ) {
+        GitDiffTreeWalker diff = null;
+        if (since != null) {
+            diff = new GitDiffTreeWalker(since, pool);
+        }
+        return diff;
+    }
+
+    /**
+     * Serializer of the found TODOs, into todos.json: merged into the
+     * previous ones if only the changed files are scanned.
+     *
+     * @param diff Walker of the changed files, null if all are scanned.
+     * @return TodosSerializer.
+     */
+    private static TodosSerializer serializer(final GitDiffTreeWalker diff) {
+        TodosSerializer serializer = new JsonTodosSerializer();
+        if (diff != null) {
+            serializer = new MergedTodosSerializer(
+                serializer, output(), diff::changed
+            );
+        }
+        return serializer;
+    }
+
+    /**
+     * Report of the files quarantined by the scan, in quarantined.json:
+     * merged into the previous one if only the changed files are scanned.
+     *
+     * @param diff Walker of the changed files, null if all are scanned.
+     * @return QuarantineReport.
+     */
+    private static QuarantineReport report(final GitDiffTreeWalker diff) {
+        QuarantineReport report = new QuarantineReport(quarantine());
+        if (diff != null) {
+            report = new QuarantineReport(quarantine(), diff::changed);
+        }
+        return report;
+    }
+
+    /**
+     * The quarantined.json file written by {@link QuarantineReport}, next
+     * to todos.json.
+     *
+     * @return Absolute path.
+     */
+    private static Path quarantine() {
+        return output().resolveSibling("quarantined.json");
+    }
+
+    /**
+     * The todos.json file written by {@link JsonTodosSerializer}.
+     *
+     * @return Absolute path.
+     */
+    private static Path output() {
+        return Paths.get(System.getProperty("user.dir"), "todos.json")
+            .toAbsolutePath().normalize();
+    }
+
+    /**
+     * Picks where the authors and timestamps of the TODOs come from. The
+     * name is checked before the commit being scanned is known.
+     *
+     * @param name Name of the backend, null for the default one.
+     * @param pool Runs the git processes.
+     * @return Attributions of the commit being scanned, by its id (null
+     *  for the working tree); or null if the name is unknown.
+     */
+    private static Function<String, Attributions> backend(
+        final String name, final GitProcessPool pool
+    ) {
+        final Function<String, Attributions> backend;
+        if (name == null || "git".equals(name)) {
+            backend = rev -> new GitBlame(pool, rev);
+        } else if ("internal".equals(name)) {
+            backend = InProcessBlame::new;
+        } else {
+            backend = null;
+        }
+        return backend;
+    }
+
+    /**
+     * Keeps the blames on disk, in the directory given by the user or in
+     * the git directory of the scanned repository.
+     *
+     * @param attributions Attributions to keep.
+     * @param cmd Command line arguments.
+     * @param rev Id of the commit being scanned, null for the working tree.
+     * @return Attributions, not kept if the user says so or there is no
+     *  repository to keep them in.
+     */
+    private static Attributions cached(
+        final Attributions attributions, final CommandLine cmd,
+        final String rev
+    ) {
+        final String dir = cmd.getOptionValue("c");
+        Path base = null;
+        if (dir == null) {
+            base = kept();
+        } else if (!"none".equals(dir)) {
+            base = Paths.get(dir);
+        }
+        Attributions cached = attributions;
+        if (base != null) {
+            cached = new CachedAttributions(
+                attributions,
+                new BlameCache(
+                    base.resolve("blame-" + cmd.getOptionValue("b", "git")),
+                    BlameCache.DEFAULT_SIZE
+                ),
+                rev
+            );
+        }
+        return cached;
+    }
+
+    /**
+     * State of the last scan, kept in the file given by the user or in the
+     * git directory of the scanned repository. Commits are always scanned
+     * from scratch, and a scan of the changed files only does not keep it.
+     *
+     * @param cmd Command line arguments.
+     * @param markers TODO markers.
+     * @param rev Id of the commit being scanned, null for the working tree.
+     * @return State, not kept if the user says so or there is no
+     *  repository to keep it in.
+     */
+    private static ScanState state(
+        final CommandLine cmd, final List<String> markers, final String rev
+    ) {
+        final String name = cmd.getOptionValue("s");
+        Path file = null;
+        if (name == null && kept() != null) {
+            file = kept().resolve("scan-state");
+        } else if (name != null && !"none".equals(name)) {
+            file = Paths.get(name);
+        }
+        ScanState state = new ScanState();
+        if (file != null && rev == null && !cmd.hasOption("d")) {
+            String head;
+            try {
+                head = GitRepository.find(Paths.get(root)).resolve("HEAD");
+            } catch (final IOException ex) {
+                head = "";
+            }
+            state = ScanState.load(
+                file,
+                String.join(
+                    "\n", Paths.get(root).toAbsolutePath().toString(),
+                    cmd.getOptionValue("b", "git"), String.join(",", markers)
+                ),
+                head
+            );
+        }
+        return state;
+    }
+
+    /**
+     * Directory where the blames and the scan state are kept by default:
+     * todo-finder, in the git directory of the scanned repository.
+     *
+     * @return Directory or null if the root is not in a repository.
+     */
+    private static Path kept() {
+        Path dir;
+        try {
+            dir = GitRepository.find(Paths.get(root)).commonDir()
+                .resolve("todo-finder");
+        } catch (final IOException ex) {
+            dir = null;
+        }
+        return dir;
+    }
+
+    /**
+     * Id of the commit to scan, given by the user as any revision git
+     * understands: a branch, a tag, an abbreviated id, HEAD~2 etc.
+     *
+     * @param rev Option value, null if the option is missing.
+     * @param pool Runs the git processes.
+     * @return Full id of the commit, null if the option is missing.
+     * @throws IOException If it is not a commit of the repository.
+     */
+    private static String revision(
+        final String rev, final GitProcessPool pool
+    ) throws IOException {
+        String commit = null;
+        if (rev != null) {
+            commit = pool.run(
+                Paths.get(root),
+                List.of("rev-parse", "--verify", rev + "^{commit}"),
+                stdout -> new String(
+                    stdout.readAllBytes(), StandardCharsets.UTF_8
+                ).trim()
+            );
+        }
+        return commit;
+    }
+
+    /**
+     * Names of the directories to skip, given by the user.
+     *
+     * @param names Option values, null if the option is missing.
+     * @return List of names.
+     */
+    private static List<String> excluded(final String[] names) {
+        final List<String> excluded;
+        if (names == null) {
+            excluded = List.of();
+        } else {
+            excluded = Arrays.asList(names);
         }
+        return excluded;
+    }
+
+    /**
+     * Automaton finding the TODO markers given by the user.
+     *
+     * @param markers Option values, null if the option is missing.
+     * @return MarkerAutomaton.
+     */
+    private static MarkerAutomaton markers(final String[] markers) {
+        final MarkerAutomaton automaton;
+        if (markers == null) {
+            automaton = new MarkerAutomaton();
+        } else {
+            automaton = new MarkerAutomaton(Arrays.asList(markers));
+        }
+        return automaton;
     }
 
     /**
      * Runs the utility, i.e. starts walking the directory structure
-     * and finding TODOs.
+     * and finding TODOs, then writes which files were quarantined.
+     *
+     * @param walker Walker of the directory structure.
+     * @param visitor Visitor finding the TODOs.
+     * @param report Report of the quarantined files.
      */
-    private static void run() {
+    private static void run(
+        final TreeWalker walker, final TodoVisitor visitor,
+        final QuarantineReport report
+    ) {
         logger.info(
             "Running {}, within directory '" + root + "'\n",
             String.format(NAME_AND_VERSION, CONFIG.version())
         );
 
         try {
-            Files.walkFileTree(Paths.get(root), new TodoVisitor(
-                new JsonTodosSerializer(), logger
-            ));
+            walker.walk(Paths.get(root), visitor);
+            report.write(visitor.quarantined());
         } catch (final IOException ex) {
             System.err.println(
                 "Could not walk the given directory structure!"
@@ -130,4 +740,22 @@ public class TodoFinderCli {
             ex.printStackTrace();
         }
     }
+
+    /**
+     * Logs how the git processes went.
+     *
+     * @param pool Pool which ran them.
+     */
+    private static void log(final GitProcessPool pool) {
+        final long spawned = Math.max(pool.spawned(), 1);
+        logger.info(
+            "Ran {} git processes: {} ms average spawn, {} ms average run,"
+                + " {} failed, {} timed out.",
+            pool.spawned(),
+            pool.spawnTime().toMillis() / spawned,
+            pool.runTime().toMillis() / spawned,
+            pool.failures(),
+            pool.timeouts()
+        );
+    }
 }
@@ -22,13 +22,16 @@
  */
 package com.selfxdsd.todocli;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
 
 /**
  * Todo Parser.
@@ -39,58 +42,284 @@ import java.util.regex.Pattern;
 public final class TodoParser {
 
     /**
-     * Git blame header pattern that should be at the start of each line.
+     * How long a line may be, by default.
      */
-    private static final String GIT_BLAME_PATTERN =
-        ".*\\((.+)\\s+(\\d{4}-\\d{2}-\\d{2}\\s\\d{2}:\\d{2}:\\d{2}\\s\\+\\d{4})"
-        + "\\s+\\d+\\)\\s";
+    public static final int MAX_LINE = 1 << 16;
 
     /**
-     * TODO Pattern.
+     * How much CPU time parsing a file may take, by default.
      */
-    private static final Pattern TODO_PATTERN = Pattern.compile(
-        "^" + GIT_BLAME_PATTERN
-            + "\\W*(@todo|TODO|@fixme|FIXME)\\s*(#\\d+:\\d+(m|min|mins))\\b(.*)"
-            + "$"
-    );
+    public static final Duration BUDGET = Duration.ofSeconds(10);
+
+    /**
+     * The CPU time is looked at every so many lines.
+     */
+    private static final int CHECKED = 1024;
+
+    /**
+     * Measures the CPU time of the parsing threads.
+     */
+    private static final ThreadMXBean THREADS =
+        ManagementFactory.getThreadMXBean();
+
+    /**
+     * Automaton finding the TODO markers.
+     */
+    private final MarkerAutomaton automaton;
+
+    /**
+     * Cheap check for TODO markers, before running git blame.
+     */
+    private final MarkerPrefilter prefilter;
+
+    /**
+     * Attributes the found TODOs, null if they are not attributed.
+     */
+    private final Attributions attributions;
+
+    /**
+     * How long a line may be.
+     */
+    private final int maxLine;
+
+    /**
+     * How much CPU time parsing a file may take, in nanoseconds.
+     */
+    private final long budget;
+
+    /**
+     * Ctor. Looks for the default markers: @todo, TODO, @fixme and FIXME.
+     */
+    public TodoParser() {
+        this(new MarkerAutomaton());
+    }
+
+    /**
+     * Ctor.
+     * @param automaton Automaton finding the TODO markers.
+     */
+    public TodoParser(final MarkerAutomaton automaton) {
+        this(automaton, new GitProcessPool());
+    }
+
+    /**
+     * Ctor.
+     * @param automaton Automaton finding the TODO markers.
+     * @param pool Runs the git processes.
+     */
+    public TodoParser(
+        final MarkerAutomaton automaton, final GitProcessPool pool
+    ) {
+        this(automaton, new GitBlame(pool));
+    }
+
+    /**
+     * Ctor.
+     * @param automaton Automaton finding the TODO markers.
+     * @param attributions Where the authors and timestamps come from, null
+     *  if the TODOs are not attributed at all.
+     */
+    public TodoParser(
+        final MarkerAutomaton automaton, final Attributions attributions
+    ) {
+        this(automaton, attributions, MAX_LINE, BUDGET);
+    }
+
+    /**
+     * Ctor. A file with a longer line, or whose parsing takes more CPU time
+     * (where the JVM cannot measure it, the elapsed time), is given up with
+     * a {@link QuarantineException}. The TODOs found before are kept.
+     * @param automaton Automaton finding the TODO markers.
+     * @param attributions Where the authors and timestamps come from, null
+     *  if the TODOs are not attributed at all.
+     * @param maxLine How long a line may be.
+     * @param budget How much CPU time parsing a file may take.
+     * @checkstyle ParameterNumber (10 lines)
+     */
+    public TodoParser(
+        final MarkerAutomaton automaton, final Attributions attributions,
+        final int maxLine, final Duration budget
+    ) {
+        this.automaton = automaton;
+        this.prefilter = new MarkerPrefilter(automaton);
+        this.attributions = attributions;
+        this.maxLine = maxLine;
+        this.budget = budget.toNanos();
+    }
 
     /**
      * Finds and returns a list of all TODOs found in the file given its path.
+     * Files without any TODO marker are not blamed nor parsed at all. The
+     * file is parsed as it is and only the lines of the found TODOs are
+     * blamed afterwards.
      * @param path Path to the file being parsed.
      * @return List of found TODOs.
      * @throws IOException If something goes wrong.
-     * @checkstyle ExecutableStatementCount (60 lines)
      */
     public List<Todo> parse(final String path) throws IOException {
         final List<Todo> todos = new ArrayList<>();
-        try (final BufferedReader reader = this.readFileWithBlame(path)) {
+        this.parse(path, todos::add);
+        return todos;
+    }
+
+    /**
+     * Finds the TODOs of the file given its path and pushes them to the
+     * sink, in order, as {@link #parse(String)} would return them. All of
+     * them are blamed at once, by one git blame, so each is pushed as soon
+     * as it is blamed: only the TODOs of the file are kept in between,
+     * without their authors.
+     * @param path Path to the file being parsed.
+     * @param sink Receives the found TODOs.
+     * @throws IOException If something goes wrong, or the sink fails.
+     */
+    public void parse(final String path, final Sink sink) throws IOException {
+        this.parse(TodoSource.file(Paths.get(path)), sink);
+    }
+
+    /**
+     * Finds the TODOs of the given source and pushes them to the sink. The
+     * source is parsed only if it may contain TODOs and its TODOs are
+     * blamed together, like the ones of a file. If there are no
+     * attributions, each TODO is pushed as soon as its body ends, without
+     * author nor timestamp.
+     * @param source Content of the file and its path.
+     * @param sink Receives the found TODOs.
+     * @throws IOException If something goes wrong, or the sink fails.
+     */
+    public void parse(final TodoSource source, final Sink sink)
+        throws IOException {
+        if (source.mayContainTodos(this.prefilter)) {
+            if (this.attributions == null) {
+                try (InputStream input = source.open()) {
+                    this.parse(source.path(), input, sink);
+                }
+            } else {
+                final List<Todo> found = new ArrayList<>();
+                QuarantineException quarantined = null;
+                try (InputStream input = source.open()) {
+                    this.parse(source.path(), input, found::add);
+                } catch (final QuarantineException exception) {
+                    quarantined = exception;
+                }
+                if (!found.isEmpty()) {
+                    this.attribute(source, found, sink);
+                }
+                if (quarantined != null) {
+                    throw quarantined;
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if the file may contain TODOs: if it has no TODO marker at
+     * all, {@link #parse(String)} would find nothing.
+     * @param path Path to the file.
+     * @return True if there is at least one marker.
+     * @throws IOException If the file cannot be read.
+     */
+    public boolean mayContainTodos(final String path) throws IOException {
+        return this.prefilter.mayContainTodos(Paths.get(path));
+    }
+
+    /**
+     * Finds and returns a list of all TODOs found in the given content of
+     * a file, which is not read from the file system: e.g. its blob in a
+     * git commit. It is parsed and blamed as {@link #parse(String)} would
+     * parse and blame the file having this very content.
+     * @param path Path of the file, given to the attributions.
+     * @param content Content of the file.
+     * @return List of found TODOs.
+     * @throws IOException If something goes wrong.
+     */
+    public List<Todo> parse(final String path, final byte[] content)
+        throws IOException {
+        final List<Todo> todos = new ArrayList<>();
+        this.parse(path, content, todos::add);
+        return todos;
+    }
+
+    /**
+     * Finds the TODOs of the given content of a file and pushes them to the
+     * sink, as {@link #parse(String, byte[])} would return them.
+     * @param path Path of the file, given to the attributions.
+     * @param content Content of the file.
+     * @param sink Receives the found TODOs.
+     * @throws IOException If something goes wrong, or the sink fails.
+     */
+    public void parse(
+        final String path, final byte[] content, final Sink sink
+    ) throws IOException {
+        this.parse(TodoSource.bytes(path, content), sink);
+    }
+
+    /**
+     * Sets the author and timestamp of the found TODOs, from the blame of
+     * their first line. TODOs which cannot be blamed (e.g. the file is not
+     * tracked by git) are left out.
+     * @param source Content of the file being parsed.
+     * @param found Found TODOs, in order.
+     * @param sink Receives the blamed TODOs.
+     * @throws IOException If git blame cannot be run, or the sink fails.
+     */
+    private void attribute(
+        final TodoSource source, final List<Todo> found, final Sink sink
+    ) throws IOException {
+        final Map<Integer, Attribution> lines =
+            this.attributions.attribute(source, found);
+        for (final Todo todo : found) {
+            final Attribution attribution = lines.get(todo.getStart());
+            if (attribution != null) {
+                todo.setAuthor(attribution.author());
+                todo.setTimestamp(attribution.timestamp());
+                sink.accept(todo);
+            }
+        }
+    }
+
+    /**
+     * Parses the content of a file.
+     * @param path Path to the file being parsed.
+     * @param input Content of the file.
+     * @param todos Receives each found TODO, as soon as its body ends.
+     * @throws IOException If something goes wrong.
+     * @throws QuarantineException If the file is too costly to parse.
+     * @checkstyle ExecutableStatementCount (60 lines)
+     */
+    private void parse(final String path, final InputStream input,
+        final Sink todos) throws IOException {
+        try (final Reader reader = new SourceReader(input)) {
             final StringBuilder bodyBuilder = new StringBuilder();
             final TodoBuilder todoBuilder = new TodoBuilder().setPath(path);
+            // tabs count as 4 spaces, to have constituency when check
+            // for alignment in the case of multiline body todos.
+            // NOTE: this assumes that user is using 4 spaces for a tab.
+            final LineScanner line = new LineScanner(reader, this.maxLine);
+            final TodoRecognizer todo = new TodoRecognizer(this.automaton);
+            final CommentLexer comments = CommentLexer.forFile(path);
+            final long deadline = TodoParser.cpuTime() + this.budget;
             int lineIndex = -1;
             int todoPosition = -1;
-            String line;
-            while ((line = reader.readLine()) != null) {
+            while (line.next()) {
                 lineIndex++;
-                // replace tabs with 4 spaces to have constituency when check
-                // for alignment in the case of multiline body todos.
-                // NOTE: this assumes that user is using 4 spaces for a tab.
-                line = line.replace("\t", " ".repeat(4));
+                this.checkBudget(deadline, lineIndex);
+                comments.next(line);
                 if (!hasTodoStarted(todoPosition)) {
-                    final Matcher matcher = this.canStartTodo(line);
-                    if (matcher != null) {
+                    if (this.canStartTodo(line, comments, todo)) {
                         todoPosition = this.startTodo(
-                            matcher,
+                            line,
+                            todo,
                             bodyBuilder,
                             todoBuilder,
-                            lineIndex,
-                            line
+                            lineIndex
                         );
                     }
-                } else if (this.isLinePartOfTodo(todoPosition, line)) {
+                } else if (
+                    this.isLinePartOfTodo(todoPosition, line, comments)
+                ) {
                     // this line might start a todo too even if is passing the
                     // todo line criteria.
-                    final Matcher matcher = this.canStartTodo(line);
-                    if (matcher != null) {
+                    if (this.canStartTodo(line, comments, todo)) {
                         this.endTodo(
                             bodyBuilder,
                             todoBuilder,
@@ -98,11 +327,11 @@ public final class TodoParser {
                             todos
                         );
                         todoPosition = this.startTodo(
-                            matcher,
+                            line,
+                            todo,
                             bodyBuilder,
                             todoBuilder,
-                            lineIndex,
-                            line
+                            lineIndex
                         );
                     } else {
                         this.addLineToTodo(todoPosition, line, bodyBuilder);
@@ -114,20 +343,54 @@ public final class TodoParser {
                         lineIndex,
                         todos
                     );
-                    final Matcher matcher = this.canStartTodo(line);
-                    if (matcher != null) {
+                    if (this.canStartTodo(line, comments, todo)) {
                         todoPosition = this.startTodo(
-                            matcher,
+                            line,
+                            todo,
                             bodyBuilder,
                             todoBuilder,
-                            lineIndex,
-                            line
+                            lineIndex
                         );
                     }
                 }
             }
         }
-        return todos;
+    }
+
+    /**
+     * Checks, every so many lines, that the parsing of the file did not
+     * take more CPU time than its budget.
+     * @param deadline CPU time when the budget is spent.
+     * @param lineIndex File line index.
+     * @throws QuarantineException If the budget is spent.
+     */
+    private void checkBudget(final long deadline, final int lineIndex)
+        throws QuarantineException {
+        if (lineIndex % CHECKED == CHECKED - 1
+            && TodoParser.cpuTime() > deadline) {
+            throw new QuarantineException(
+                String.format(
+                    "more than %s of CPU time, at line %d",
+                    Duration.ofNanos(this.budget), lineIndex + 1
+                )
+            );
+        }
+    }
+
+    /**
+     * CPU time of the current thread, or the elapsed time if the JVM cannot
+     * measure it.
+     * @return Time, in nanoseconds.
+     */
+    private static long cpuTime() {
+        final long time;
+        if (THREADS.isCurrentThreadCpuTimeSupported()
+            && THREADS.isThreadCpuTimeEnabled()) {
+            time = THREADS.getCurrentThreadCpuTime();
+        } else {
+            time = System.nanoTime();
+        }
+        return time;
     }
 
     /**
@@ -140,81 +403,168 @@ public final class TodoParser {
     }
 
     /**
-     * Checks if the line has valid todo in it.
+     * Checks if the line has valid todo in it. Only its comments are
+     * looked at: lines without any marker in them are rejected by the
+     * automaton, without looking further. Since only non-word characters
+     * may precede the marker, the TODO is looked for only from the
+     * candidate marker offsets, the rightmost first.
      * @param line Line.
-     * @return Matcher or null if there is no todo.
+     * @param comments Comments of the line.
+     * @param todo Recognizes the TODO, keeping where its parts are.
+     * @return True if there is a todo.
      */
-    private Matcher canStartTodo(final String line){
-        final Matcher matcher = TODO_PATTERN.matcher(line);
-        final Matcher canStart;
-        if (matcher.find()) {
-            canStart = matcher;
-        } else {
-            canStart = null;
+    private boolean canStartTodo(final LineScanner line,
+        final CommentLexer comments, final TodoRecognizer todo){
+        boolean canStart = false;
+        if (this.marked(line, comments)) {
+            int start = Math.min(this.firstWordChar(line), line.length() - 1);
+            while (!canStart && start >= 0) {
+                canStart = comments.covers(start)
+                    && this.automaton.markerAt(line, start) > 0
+                    && todo.recognize(line, start);
+                --start;
+            }
         }
         return canStart;
     }
 
+    /**
+     * Checks if there is a marker in the comments of the line.
+     * @param line Line.
+     * @param comments Comments of the line.
+     * @return True or false.
+     */
+    private boolean marked(final LineScanner line,
+        final CommentLexer comments) {
+        boolean marked = false;
+        for (int idx = 0; !marked && idx < comments.comments(); ++idx) {
+            marked = this.automaton.find(
+                line, comments.start(idx), comments.end(idx)
+            ) >= 0;
+        }
+        return marked;
+    }
+
+    /**
+     * Index of the first word character ([a-zA-Z_0-9]) of the line.
+     * @param line Line.
+     * @return Index, or the length of the line if there is none.
+     */
+    private int firstWordChar(final CharSequence line) {
+        int index = 0;
+        while (index < line.length() && !this.isWordChar(line.charAt(index))) {
+            ++index;
+        }
+        return index;
+    }
+
+    /**
+     * Is it a word character, as in the \w regex class?
+     * @param chr Character.
+     * @return True or false.
+     */
+    private boolean isWordChar(final char chr) {
+        return chr < 0x80 && (Character.isLetterOrDigit(chr) || chr == '_');
+    }
+
     /**
      * Starts a todo.
-     * @param matcher Matcher
+     * @param line File line.
+     * @param todo Where the parts of the todo are in the line.
      * @param bodyBuilder Todo body builder
      * @param todoBuilder Tod builder.
      * @param lineIndex File line index.
-     * @param line File line
      * @return Starting position.
+     * @checkstyle ParameterNumber (10 lines)
      */
-    private int startTodo(final Matcher matcher,
+    private int startTodo(final LineScanner line,
+                          final TodoRecognizer todo,
                           final StringBuilder bodyBuilder,
                           final TodoBuilder todoBuilder,
-                          final int lineIndex,
-                          final String line){
-        final int todoPosition = matcher.start(3);
-        todoBuilder.setAuthor(matcher.group(1).trim())
-            .setTimestamp(matcher.group(2))
-            .setStart(lineIndex + 1);
-        bodyBuilder.append(matcher.group(6));
-        this.addHeader(todoBuilder, matcher.group(4));
+                          final int lineIndex){
+        final int todoPosition = line.column(todo.start());
+        todoBuilder.setStart(lineIndex + 1);
+        line.append(todo.bodyStart(), todo.bodyEnd(), bodyBuilder);
+        this.addHeader(todoBuilder, line, todo);
         return todoPosition;
     }
 
     /**
      * Ends the todo. This will create the Todo from builder and
-     * add it to the list. Also resets the body builder and reset
+     * push it to the sink. Also resets the body builder and reset
      * the todoPosition (-1).
      * @param bodyBuilder Todo body builder.
      * @param todoBuilder Todo builder.
      * @param lineIndex File line index.
-     * @param todos List of todos.
+     * @param todos Sink of todos.
      * @return Todo position reset value.
+     * @throws IOException If the sink fails.
      */
     private int endTodo(final StringBuilder bodyBuilder,
                         final TodoBuilder todoBuilder,
                         final int lineIndex,
-                        final List<Todo> todos){
+                        final Sink todos) throws IOException {
         final String body = bodyBuilder.toString().trim();
         if (!body.isBlank() && !body.startsWith("Autogenerated")) {
             final Todo todo = todoBuilder
                 .setBody(body)
                 .setEnd(lineIndex)
                 .build();
-            todos.add(todo);
+            todos.accept(todo);
         }
         bodyBuilder.setLength(0);
         return -1;
     }
 
     /**
-     * Checks if current line could be part of todo.
+     * Checks if current line could be part of todo: it is blank up to the
+     * todo position, except for at most one non-word character (e.g. the
+     * star of a Javadoc comment), as the regex ^\s*\W?\s+$ would say of
+     * the line up to the todo position, included. It is checked on the
+     * characters of the line, with a tab as 4 spaces. The todo position
+     * must be in a comment, so the code following a TODO is not taken for
+     * its body.
      * @param todoPosition Todo position.
      * @param line File line.
+     * @param comments Comments of the line.
      * @return Boolean.
      */
-    private boolean isLinePartOfTodo(final int todoPosition, final String line){
-        return todoPosition < line.length()
-            && Character.isSpaceChar(line.charAt(todoPosition))
-            && line.substring(0, todoPosition + 1)
-             .matches("^"+GIT_BLAME_PATTERN+"\\s*\\W?\\s+$");
+    private boolean isLinePartOfTodo(final int todoPosition,
+        final LineScanner line, final CommentLexer comments){
+        final int index = line.index(todoPosition);
+        boolean part = index >= 0 && comments.covers(index)
+            && (line.charAt(index) == ' ' || line.charAt(index) == '\t');
+        if (part) {
+            int idx = this.blankFrom(line, index);
+            if (idx >= 0 && !this.isWordChar(line.charAt(idx))) {
+                idx = this.blankFrom(line, idx - 1);
+            }
+            part = idx < 0;
+        }
+        return part;
+    }
+
+    /**
+     * Skips the blank characters, going backwards.
+     * @param line File line.
+     * @param index Index where to start.
+     * @return Index of the first character which is not blank or -1.
+     */
+    private int blankFrom(final LineScanner line, final int index) {
+        int idx = index;
+        while (idx >= 0 && this.isBlank(line.charAt(idx))) {
+            --idx;
+        }
+        return idx;
+    }
+
+    /**
+     * Is it a blank character, as in the \s regex class?
+     * @param chr Character.
+     * @return True or false.
+     */
+    private boolean isBlank(final char chr) {
+        return chr == ' ' || chr >= '\t' && chr <= '\r';
     }
 
     /**
@@ -224,40 +574,39 @@ public final class TodoParser {
      * @param line File line.
      */
     private void addLineToTodo(final int todoPosition,
-                               final String line,
+                               final LineScanner line,
                                final StringBuilder bodyBuilder){
-        bodyBuilder.append(line.substring(todoPosition).stripTrailing());
+        line.appendFrom(todoPosition, bodyBuilder);
     }
 
     /**
      * Adds the header consisting of ticket id and estimated time to todo
-     * builder.
+     * builder. The estimate was already read by the recognizer and the
+     * ticket id is interned, so the TODOs of the same ticket share it.
      * @param todoBuilder TodoBuilder.
-     * @param header Header.
+     * @param line File line.
+     * @param todo Where the header is in the line.
      */
     private void addHeader(final TodoBuilder todoBuilder,
-                           final String header) {
-        final String[] parts = header.split(":");
-        todoBuilder.setTicketId(parts[0]);
-        todoBuilder.setEstimatedTime(
-            Integer.parseInt(
-                parts[1].replaceAll("[A-Za-z]+", "")
-            )
+                           final LineScanner line,
+                           final TodoRecognizer todo) {
+        todoBuilder.setTicketId(
+            line.subSequence(todo.headerStart(), todo.ticketEnd())
+                .toString().intern()
         );
+        todoBuilder.setEstimatedTime(todo.estimate());
     }
 
     /**
-     * Reads file together with its git blame.
-     * @param path File path.
-     * @return Reader.
-     * @throws IOException If something goes wrong.
+     * Receives the TODOs, one by one, as they are found.
      */
-    private BufferedReader readFileWithBlame(final String path)
-        throws IOException {
-        final String command = "git blame " + path;
-        final Process process = Runtime.getRuntime().exec(command);
-        return new BufferedReader(
-            new InputStreamReader(process.getInputStream())
-        );
+    public interface Sink {
+
+        /**
+         * Receives a TODO.
+         * @param todo Found TODO.
+         * @throws IOException If it cannot be handled.
+         */
+        void accept(Todo todo) throws IOException;
     }
 }
@@ -0,0 +1,395 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.util.List;
+
+/**
+ * Recognizes the start of a TODO in a line: a marker, the #ticket:estimate
+ * header and the beginning of the body. It says what the regex
+ * (marker1|marker2|...)\s*(#\d+:\d+(m|min|mins|h))\b(.*)$ would say,
+ * looking at the line from a given index, but in one pass and without ever
+ * going back, so it takes linear time whatever the line is. The estimate
+ * is read along, in minutes: a header whose estimate does not fit an int
+ * is not recognized.<br><br>
+ * The markers are tried in their order, like the alternatives of the
+ * regex, and what follows a marker is deterministic: the digits, the
+ * colon and the unit can only be matched one way. The word boundary after
+ * the unit is the one of the regex up to Java 18: a letter, a digit, an
+ * underscore or a non-spacing mark continues the word. The body ends at
+ * the first line terminator, which has to be the last character.<br><br>
+ * Like a regex Matcher, it keeps the spans of what it recognized last, so
+ * it is not thread-safe.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+final class TodoRecognizer {
+
+    /**
+     * Estimation units, matched only when a word boundary follows them.
+     */
+    private static final List<String> UNITS = List.of(
+        "m", "min", "mins", "h"
+    );
+
+    /**
+     * Minutes in an hour.
+     */
+    private static final int HOUR = 60;
+
+    /**
+     * Line terminators, as the . of a regex knows them.
+     */
+    private static final String TERMINATORS = "\n\r\u0085\u2028\u2029";
+
+    /**
+     * The markers.
+     */
+    private final List<String> markers;
+
+    /**
+     * Where the marker starts.
+     */
+    private int start;
+
+    /**
+     * Where the header starts, at its #.
+     */
+    private int header;
+
+    /**
+     * Where the ticket ends, at the colon of the header.
+     */
+    private int colon;
+
+    /**
+     * Where the header ends and the body starts.
+     */
+    private int body;
+
+    /**
+     * The estimate, in minutes.
+     */
+    private int estimate;
+
+    /**
+     * Where the body ends.
+     */
+    private int end;
+
+    /**
+     * Ctor.
+     * @param automaton Automaton with the markers.
+     */
+    TodoRecognizer(final MarkerAutomaton automaton) {
+        this.markers = automaton.markers();
+    }
+
+    /**
+     * Recognizes a TODO starting at the given index of the line.
+     * @param line Line.
+     * @param from Index where the marker should start.
+     * @return True if there is a TODO there.
+     */
+    public boolean recognize(final CharSequence line, final int from) {
+        int found = -1;
+        for (int idx = 0; found < 0 && idx < this.markers.size(); ++idx) {
+            final String marker = this.markers.get(idx);
+            found = this.header(
+                line, TodoRecognizer.literal(line, from, marker)
+            );
+        }
+        if (found >= 0) {
+            this.start = from;
+            this.end = found;
+        }
+        return found >= 0;
+    }
+
+    /**
+     * Where the marker of the last TODO starts.
+     * @return Index.
+     */
+    public int start() {
+        return this.start;
+    }
+
+    /**
+     * Where the header (#ticket:estimate) of the last TODO starts.
+     * @return Index.
+     */
+    public int headerStart() {
+        return this.header;
+    }
+
+    /**
+     * Where the ticket (#123) of the last TODO ends, at the colon of the
+     * header.
+     * @return Index, after its last character.
+     */
+    public int ticketEnd() {
+        return this.colon;
+    }
+
+    /**
+     * The estimate of the last TODO.
+     * @return Minutes.
+     */
+    public int estimate() {
+        return this.estimate;
+    }
+
+    /**
+     * Where the header of the last TODO ends.
+     * @return Index, after its last character.
+     */
+    public int headerEnd() {
+        return this.body;
+    }
+
+    /**
+     * Where the body of the last TODO starts, on its first line.
+     * @return Index.
+     */
+    public int bodyStart() {
+        return this.body;
+    }
+
+    /**
+     * Where the body of the last TODO ends, on its first line.
+     * @return Index, after its last character.
+     */
+    public int bodyEnd() {
+        return this.end;
+    }
+
+    /**
+     * Recognizes what follows a marker:
+     * \s*(#\d+:\d+(m|min|mins|h))\b(.*)$.
+     * @param line Line.
+     * @param from Index after the marker, -1 if there is no marker.
+     * @return Index where the body ends, -1 if there is no TODO.
+     */
+    private int header(final CharSequence line, final int from) {
+        final int hash = TodoRecognizer.blanks(line, from);
+        final int sep = TodoRecognizer.digits(
+            line, TodoRecognizer.literal(line, hash, "#")
+        );
+        final int unit = TodoRecognizer.digits(
+            line, TodoRecognizer.literal(line, sep, ":")
+        );
+        final int body = TodoRecognizer.unit(line, unit);
+        int end = TodoRecognizer.body(line, body);
+        if (end >= 0) {
+            final int minutes = TodoRecognizer.minutes(
+                line, sep + 1, unit, line.charAt(unit) == 'h'
+            );
+            if (minutes < 0) {
+                end = -1;
+            } else {
+                this.header = hash;
+                this.colon = sep;
+                this.body = body;
+                this.estimate = minutes;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Reads the estimate, checking that it fits an int.
+     * @param line Line.
+     * @param from Index of its first digit.
+     * @param until Index after its last digit.
+     * @param hours Whether it is in hours.
+     * @return Minutes, -1 if there are too many.
+     */
+    private static int minutes(
+        final CharSequence line, final int from, final int until,
+        final boolean hours
+    ) {
+        int minutes = 0;
+        for (int idx = from; minutes >= 0 && idx < until; ++idx) {
+            final int digit = line.charAt(idx) - '0';
+            if (minutes > (Integer.MAX_VALUE - digit) / 10) {
+                minutes = -1;
+            } else {
+                minutes = minutes * 10 + digit;
+            }
+        }
+        if (hours && minutes >= 0) {
+            if (minutes > Integer.MAX_VALUE / HOUR) {
+                minutes = -1;
+            } else {
+                minutes = minutes * HOUR;
+            }
+        }
+        return minutes;
+    }
+
+    /**
+     * Skips the blanks, as in the \s regex class.
+     * @param line Line.
+     * @param from Index where to start, -1 if the match failed already.
+     * @return Index of the first character which is not blank.
+     */
+    private static int blanks(final CharSequence line, final int from) {
+        int idx = from;
+        while (idx >= 0 && idx < line.length()
+            && TodoRecognizer.blank(line.charAt(idx))) {
+            ++idx;
+        }
+        return idx;
+    }
+
+    /**
+     * Matches one or more digits, as \d+ does.
+     * @param line Line.
+     * @param from Index where to start, -1 if the match failed already.
+     * @return Index after the digits, -1 if there is none.
+     */
+    private static int digits(final CharSequence line, final int from) {
+        int idx = from;
+        while (idx >= 0 && idx < line.length()
+            && line.charAt(idx) >= '0' && line.charAt(idx) <= '9') {
+            ++idx;
+        }
+        int after = -1;
+        if (idx > from) {
+            after = idx;
+        }
+        return after;
+    }
+
+    /**
+     * Matches an estimation unit followed by a word boundary.
+     * @param line Line.
+     * @param from Index where to start, -1 if the match failed already.
+     * @return Index after the unit, -1 if there is none.
+     */
+    private static int unit(final CharSequence line, final int from) {
+        int after = -1;
+        for (int idx = 0; after < 0 && idx < UNITS.size(); ++idx) {
+            final int end = TodoRecognizer.literal(
+                line, from, UNITS.get(idx)
+            );
+            if (end >= 0 && TodoRecognizer.boundary(line, end)) {
+                after = end;
+            }
+        }
+        return after;
+    }
+
+    /**
+     * Matches the body, (.*)$: it runs up to the first line terminator,
+     * which must be the last character (or \r\n the last two).
+     * @param line Line.
+     * @param from Index where to start, -1 if the match failed already.
+     * @return Index where the body ends, -1 if it cannot.
+     */
+    private static int body(final CharSequence line, final int from) {
+        int idx = from;
+        while (idx >= 0 && idx < line.length()
+            && !TodoRecognizer.terminator(line.charAt(idx))) {
+            ++idx;
+        }
+        int end = -1;
+        if (idx >= 0 && TodoRecognizer.ending(line, idx)) {
+            end = idx;
+        }
+        return end;
+    }
+
+    /**
+     * Is the rest of the line where $ matches: nothing, a line terminator
+     * or \r\n?
+     * @param line Line.
+     * @param index Index of the rest.
+     * @return True or false.
+     */
+    private static boolean ending(final CharSequence line, final int index) {
+        final int left = line.length() - index;
+        return left <= 1 || left == 2 && line.charAt(index) == '\r'
+            && line.charAt(index + 1) == '\n';
+    }
+
+    /**
+     * Matches a literal.
+     * @param line Line.
+     * @param from Index where to start, -1 if the match failed already.
+     * @param literal Literal.
+     * @return Index after the literal, -1 if it is not there.
+     */
+    private static int literal(
+        final CharSequence line, final int from, final String literal
+    ) {
+        int after = -1;
+        if (from >= 0 && from + literal.length() <= line.length()) {
+            int idx = 0;
+            while (idx < literal.length()
+                && line.charAt(from + idx) == literal.charAt(idx)) {
+                ++idx;
+            }
+            if (idx == literal.length()) {
+                after = from + idx;
+            }
+        }
+        return after;
+    }
+
+    /**
+     * Is there a word boundary before the given index, knowing that the
+     * character before it is a word character?
+     * @param line Line.
+     * @param index Index.
+     * @return True or false.
+     */
+    private static boolean boundary(final CharSequence line, final int index) {
+        boolean boundary = true;
+        if (index < line.length()) {
+            final int chr = Character.codePointAt(line, index);
+            boundary = !Character.isLetterOrDigit(chr) && chr != '_'
+                && Character.getType(chr) != Character.NON_SPACING_MARK;
+        }
+        return boundary;
+    }
+
+    /**
+     * Is it a blank character, as in the \s regex class?
+     * @param chr Character.
+     * @return True or false.
+     */
+    private static boolean blank(final char chr) {
+        return chr == ' ' || chr >= '\t' && chr <= '\r';
+    }
+
+    /**
+     * Is it a line terminator?
+     * @param chr Character.
+     * @return True or false.
+     */
+    private static boolean terminator(final char chr) {
+        return TERMINATORS.indexOf(chr) >= 0;
+    }
+}
@@ -0,0 +1,311 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * What {@link TodoParser} parses: the content of a file, wherever it comes
+ * from, and the path given to the found TODOs and to the attributions. A
+ * file is read from the disk only when it is parsed, after the cheap check
+ * for markers. Bytes already in memory (a mapped file, a blob read from a
+ * packfile, a test fixture) are checked and parsed in place, without being
+ * copied. Streams and channels are read once, as they are parsed, so
+ * they are not checked for markers first.<br><br>
+ * The content of a file read at once stays in memory, with its id as a
+ * git blob, computed once: the scan state, the blame cache and the
+ * in-process blame use them without reading nor hashing the file again.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class TodoSource {
+
+    /**
+     * Path of the file.
+     */
+    private final String path;
+
+    /**
+     * Checks the content for markers.
+     */
+    private final Check check;
+
+    /**
+     * Opens the content.
+     */
+    private final Opening opening;
+
+    /**
+     * The whole content, null if it is not in memory.
+     */
+    private final byte[] content;
+
+    /**
+     * Id of the content as a git blob, null until it is computed.
+     */
+    private volatile String blob;
+
+    /**
+     * Ctor.
+     * @param path Path of the file.
+     * @param check Checks the content for markers.
+     * @param opening Opens the content.
+     */
+    private TodoSource(
+        final String path, final Check check, final Opening opening
+    ) {
+        this(path, check, opening, null);
+    }
+
+    /**
+     * Ctor.
+     * @param path Path of the file.
+     * @param check Checks the content for markers.
+     * @param opening Opens the content.
+     * @param content The whole content, null if it is not in memory.
+     * @checkstyle ParameterNumber (5 lines)
+     */
+    private TodoSource(
+        final String path, final Check check, final Opening opening,
+        final byte[] content
+    ) {
+        this.path = path;
+        this.check = check;
+        this.opening = opening;
+        this.content = content;
+    }
+
+    /**
+     * A file, read from the disk.
+     * @param file File.
+     * @return TodoSource.
+     */
+    public static TodoSource file(final Path file) {
+        return new TodoSource(
+            file.toString(),
+            prefilter -> prefilter.mayContainTodos(file),
+            () -> Files.newInputStream(file)
+        );
+    }
+
+    /**
+     * A file which the caller already checked for markers, read from the
+     * disk at once: it is not checked again, and it is parsed, blamed and
+     * hashed without being read again.
+     * @param file File, which may contain TODOs.
+     * @return TodoSource.
+     * @throws IOException If the file cannot be read.
+     */
+    public static TodoSource read(final Path file) throws IOException {
+        final byte[] content = Files.readAllBytes(file);
+        return new TodoSource(
+            file.toString(), prefilter -> true,
+            () -> new ByteArrayInputStream(content), content
+        );
+    }
+
+    /**
+     * Content already in memory, between the position and the limit of
+     * the buffer, which are left as they are.
+     * @param path Path of the file.
+     * @param content Content.
+     * @return TodoSource.
+     */
+    public static TodoSource bytes(
+        final String path, final ByteBuffer content
+    ) {
+        return new TodoSource(
+            path,
+            prefilter -> prefilter.contains(content.duplicate()),
+            () -> new BufferStream(content.duplicate())
+        );
+    }
+
+    /**
+     * Content already in memory.
+     * @param path Path of the file.
+     * @param content Content.
+     * @return TodoSource.
+     */
+    public static TodoSource bytes(final String path, final byte[] content) {
+        return new TodoSource(
+            path,
+            prefilter -> prefilter.contains(ByteBuffer.wrap(content)),
+            () -> new ByteArrayInputStream(content), content
+        );
+    }
+
+    /**
+     * Content read from a stream, which is closed once it is parsed.
+     * @param path Path of the file.
+     * @param content Content.
+     * @return TodoSource, which can be parsed once.
+     */
+    public static TodoSource stream(
+        final String path, final InputStream content
+    ) {
+        return new TodoSource(path, prefilter -> true, () -> content);
+    }
+
+    /**
+     * Content read from a channel, which is closed once it is parsed.
+     * @param path Path of the file.
+     * @param content Content.
+     * @return TodoSource, which can be parsed once.
+     */
+    public static TodoSource channel(
+        final String path, final ReadableByteChannel content
+    ) {
+        return TodoSource.stream(path, Channels.newInputStream(content));
+    }
+
+    /**
+     * Path of the file, given to the found TODOs and to the attributions.
+     * @return Path.
+     */
+    public String path() {
+        return this.path;
+    }
+
+    /**
+     * Checks if the content may contain TODOs, cheaply.
+     * @param prefilter Looks for the markers.
+     * @return False only if there is no marker at all.
+     * @throws IOException If the content cannot be read.
+     */
+    public boolean mayContainTodos(final MarkerPrefilter prefilter)
+        throws IOException {
+        return this.check.mayContainTodos(prefilter);
+    }
+
+    /**
+     * Opens the content, to be parsed.
+     * @return Stream, to be closed by the caller.
+     * @throws IOException If it cannot be opened.
+     */
+    public InputStream open() throws IOException {
+        return this.opening.open();
+    }
+
+    /**
+     * The whole content, if it is in memory.
+     * @return Bytes, not to be changed, or null.
+     */
+    byte[] content() {
+        return this.content;
+    }
+
+    /**
+     * Id of the content as a git blob, computed once.
+     * @return Id, null if the content is not in memory.
+     */
+    String blobId() {
+        String id = this.blob;
+        if (id == null && this.content != null) {
+            id = GitObject.blobId(this.content);
+            this.blob = id;
+        }
+        return id;
+    }
+
+    /**
+     * Checks the content for markers.
+     */
+    private interface Check {
+
+        /**
+         * Checks the content.
+         * @param prefilter Looks for the markers.
+         * @return False only if there is no marker at all.
+         * @throws IOException If the content cannot be read.
+         */
+        boolean mayContainTodos(MarkerPrefilter prefilter) throws IOException;
+    }
+
+    /**
+     * Opens the content.
+     */
+    private interface Opening {
+
+        /**
+         * Opens the content.
+         * @return Stream.
+         * @throws IOException If it cannot be opened.
+         */
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Stream reading a buffer, without copying it.
+     */
+    private static final class BufferStream extends InputStream {
+
+        /**
+         * The buffer, read from its position to its limit.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * Ctor.
+         * @param buffer The buffer, which is consumed.
+         */
+        BufferStream(final ByteBuffer buffer) {
+            super();
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            int read = -1;
+            if (this.buffer.hasRemaining()) {
+                read = this.buffer.get() & 0xFF;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int off, final int len) {
+            int read = -1;
+            if (len == 0) {
+                read = 0;
+            } else if (this.buffer.hasRemaining()) {
+                read = Math.min(len, this.buffer.remaining());
+                this.buffer.get(bytes, off, read);
+            }
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return this.buffer.remaining();
+        }
+    }
+}
@@ -29,22 +29,37 @@ import java.nio.file.FileVisitResult;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.nio.file.FileVisitResult.CONTINUE;
 
 /**
  * Performs the visit of the given directory structure and prints a list of
- * all extracted TODOs.
+ * all extracted TODOs. It is thread-safe, so it can be driven by a
+ * {@link ForkJoinTreeWalker} as well.
  *
  * @version $Id$
  * @since 0.0.1
  */
 public final class TodoVisitor extends SimpleFileVisitor<Path> {
 
+    /**
+     * Metadata directories of version control systems, never visited.
+     */
+    static final Set<String> VCS_DIRS = Set.of(".git", ".hg", ".svn");
+
     /**
      * The parser used to extract the TODOs.
      */
@@ -56,14 +71,60 @@ public final class TodoVisitor extends SimpleFileVisitor<Path> {
     private final TodosSerializer serializer;
 
     /**
-     * Service responsible to submit todos parsing jobs.
+     * Service responsible to submit todos parsing jobs. Its queue is
+     * bounded: when it is full, the walking thread parses the file itself,
+     * so the walk cannot run far ahead of the parsing.
+     */
+    private final ThreadPoolExecutor service = new ThreadPoolExecutor(
+        3, 3, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(256),
+        new ThreadPoolExecutor.CallerRunsPolicy()
+    );
+
+    /**
+     * Names of the directories which are not visited.
+     */
+    private final Set<String> excluded;
+
+    /**
+     * Number of directories skipped so far.
+     */
+    private final AtomicInteger skipped = new AtomicInteger();
+
+    /**
+     * Whether .gitignore files are honored.
+     */
+    private final boolean gitignore;
+
+    /**
+     * Ignore rules of the directories being visited.
+     */
+    private final Map<Path, IgnoreRules> ignores = new ConcurrentHashMap<>();
+
+    /**
+     * Number of files skipped so far, because they are ignored.
      */
-    private final ExecutorService service = Executors.newFixedThreadPool(3);
+    private final AtomicInteger ignored = new AtomicInteger();
+
+    /**
+     * What the last scan found, reused for the files which did not change.
+     */
+    private final ScanState state;
+
+    /**
+     * Number of files not parsed, because they did not change.
+     */
+    private final AtomicInteger reused = new AtomicInteger();
+
+    /**
+     * Files which were too costly to parse, with the reason.
+     */
+    private final Map<String, String> quarantine =
+        new ConcurrentSkipListMap<>();
 
     /**
      * Root path.
      */
-    private Path root;
+    private volatile Path root;
 
     /**
      * Logger.
@@ -77,30 +138,126 @@ public final class TodoVisitor extends SimpleFileVisitor<Path> {
      * @param logger Logger object.
      */
     public TodoVisitor(final TodosSerializer serializer, final Logger logger) {
+        this(serializer, logger, Set.of(), true);
+    }
+
+    /**
+     * Creates a new TodoVisitor object. The version control metadata
+     * directories (.git, .hg, .svn) are skipped, along with the given ones.
+     * If asked to, the files and directories ignored by the .gitignore
+     * files found along the way are skipped as well.
+     *
+     * @param serializer Todos serializer.
+     * @param logger Logger object.
+     * @param excluded Names of other directories to skip.
+     * @param gitignore Whether to honor the .gitignore files.
+     */
+    public TodoVisitor(
+        final TodosSerializer serializer,
+        final Logger logger,
+        final Collection<String> excluded,
+        final boolean gitignore
+    ) {
+        this(serializer, new TodoParser(), logger, excluded, gitignore);
+    }
+
+    /**
+     * Creates a new TodoVisitor object.
+     *
+     * @param serializer Todos serializer.
+     * @param parser The parser used to extract the TODOs.
+     * @param logger Logger object.
+     * @param excluded Names of other directories to skip.
+     * @param gitignore Whether to honor the .gitignore files.
+     * @checkstyle ParameterNumber (10 lines)
+     */
+    public TodoVisitor(
+        final TodosSerializer serializer,
+        final TodoParser parser,
+        final Logger logger,
+        final Collection<String> excluded,
+        final boolean gitignore
+    ) {
+        this(serializer, parser, logger, excluded, gitignore, new ScanState());
+    }
+
+    /**
+     * Creates a new TodoVisitor object, which parses only the files which
+     * changed since the last scan: the TODOs of the others are taken from
+     * the state of the last scan. The state of this scan is saved once the
+     * root directory is visited.
+     *
+     * @param serializer Todos serializer.
+     * @param parser The parser used to extract the TODOs.
+     * @param logger Logger object.
+     * @param excluded Names of other directories to skip.
+     * @param gitignore Whether to honor the .gitignore files.
+     * @param state State of the last scan.
+     * @checkstyle ParameterNumber (10 lines)
+     */
+    public TodoVisitor(
+        final TodosSerializer serializer,
+        final TodoParser parser,
+        final Logger logger,
+        final Collection<String> excluded,
+        final boolean gitignore,
+        final ScanState state
+    ) {
+        this.state = state;
         this.serializer = serializer;
-        this.parser = new TodoParser();
+        this.parser = parser;
         this.logger = logger;
+        this.excluded = new HashSet<>(VCS_DIRS);
+        this.excluded.addAll(excluded);
+        this.gitignore = gitignore;
     }
 
     @Override
     public FileVisitResult preVisitDirectory(
             final Path dir, final BasicFileAttributes attrs
     ) throws IOException {
+        final FileVisitResult result;
         if (root == null) {
             root = dir;
+            this.loadIgnores(dir);
+            result = super.preVisitDirectory(dir, attrs);
+        } else if (this.excluded.contains(String.valueOf(dir.getFileName()))
+            || this.isIgnored(dir, true)) {
+            this.skipped.incrementAndGet();
+            result = FileVisitResult.SKIP_SUBTREE;
+        } else {
+            this.loadIgnores(dir);
+            result = super.preVisitDirectory(dir, attrs);
         }
-        return super.preVisitDirectory(dir, attrs);
+        return result;
     }
 
     @Override
     public FileVisitResult postVisitDirectory(
             final Path dir, final IOException exc
     ) throws IOException {
+        this.ignores.remove(dir);
         if (dir.equals(root)) {
             try {
                 // scanning root has finished.
                 this.service.shutdown();
-                this.service.awaitTermination(5, TimeUnit.MINUTES);
+                while (!this.service.awaitTermination(1, TimeUnit.MINUTES)) {
+                    log(
+                        "Still parsing, {} files left.",
+                        this.service.getTaskCount()
+                            - this.service.getCompletedTaskCount()
+                    );
+                }
+                log(
+                    "Skipped {} excluded directories and {} ignored files.",
+                    this.skipped.get(), this.ignored.get()
+                );
+                log(
+                    "Reused the TODOs of {} unchanged files.",
+                    this.reused.get()
+                );
+                this.logQuarantine();
+                this.state.save();
                 this.serializer.serialize();
             } catch (final InterruptedException exception) {
                 throw new IOException(exception);
@@ -114,34 +271,178 @@ public final class TodoVisitor extends SimpleFileVisitor<Path> {
             final Path path,
             final BasicFileAttributes attrs
     ) throws IOException {
+        if (this.isIgnored(path, false)) {
+            this.ignored.incrementAndGet();
+        } else {
+            final List<Todo> known = this.state.reuse(path, attrs);
+            if (known == null) {
+                this.submit(
+                    path.toString(), sink -> this.parse(path, attrs, sink)
+                );
+            } else {
+                this.reused.incrementAndGet();
+                final Found found = new Found(path.toString());
+                for (final Todo todo : known) {
+                    found.accept(todo);
+                }
+                found.done();
+            }
+        }
+        return CONTINUE;
+    }
+
+    /**
+     * Visits a file whose content does not come from the file system, e.g.
+     * its blob in a git commit. It is parsed like the visited files, but
+     * it is not checked against the excluded directories nor the ignore
+     * rules: whoever feeds it does that. It must be called between the
+     * pre-visit and the post-visit of the root directory.
+     *
+     * @param path Path of the file, below the root directory.
+     * @param content Reads the content of the file, when it is parsed.
+     */
+    public void visitContent(final Path path, final Content content) {
         final String file = path.toString();
-        this.service.submit(() -> {
-            final List<Todo> todos;
-            try {
-                todos = parser.parse(file);
+        this.submit(
+            file, sink -> this.parser.parse(file, content.bytes(), sink)
+        );
+    }
 
-                if (todos.size() > 0) {
-                    log("Found {} TODOs in {}:", todos.size(), file);
-                }
+    /**
+     * Number of directories skipped so far, because they are version
+     * control metadata, were excluded or are ignored.
+     *
+     * @return Skipped directories.
+     */
+    public int skippedDirectories() {
+        return this.skipped.get();
+    }
 
-                for (int i = 0; i < todos.size(); i++) {
-                    Todo todo = todos.get(i);
+    /**
+     * Number of files skipped so far, because they are ignored.
+     *
+     * @return Ignored files.
+     */
+    public int ignoredFiles() {
+        return this.ignored.get();
+    }
 
-                    String suffix;
-                    if (i == todos.size() - 1) {
-                        suffix = "\n";
-                    } else {
-                        suffix = "";
-                    }
-                    log(todo.toString() + suffix);
-                }
+    /**
+     * Files which were too costly to parse, so their parsing was given up:
+     * see {@link TodoParser}. Only the TODOs found before are reported.
+     *
+     * @return Paths of the files, with the reason, sorted by path.
+     */
+    public Map<String, String> quarantined() {
+        return Collections.unmodifiableMap(this.quarantine);
+    }
 
-                this.serializer.addAll(todos);
+    /**
+     * Submits the parsing of a file. A file too costly to parse is
+     * quarantined.
+     *
+     * @param file Path of the file.
+     * @param parsing Parses the file.
+     */
+    private void submit(final String file, final Parsing parsing) {
+        this.service.submit(() -> {
+            final Found found = new Found(file);
+            try {
+                parsing.parse(found);
+            } catch (final QuarantineException exception) {
+                this.quarantine.put(file, exception.getMessage());
             } catch (final IOException exception) {
                 this.logger.error("Something went wrong", exception);
             }
+            found.done();
         });
-        return CONTINUE;
+    }
+
+    /**
+     * Logs the quarantined files, if any.
+     */
+    private void logQuarantine() {
+        if (!this.quarantine.isEmpty()) {
+            log(
+                "Quarantined {} files, too costly to parse:",
+                this.quarantine.size()
+            );
+            for (final Map.Entry<String, String> entry
+                : this.quarantine.entrySet()) {
+                log("  {}: {}", entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Parses a file and records what it found in the scan state.
+     *
+     * @param path File.
+     * @param attrs Its attributes.
+     * @param sink Receives the found TODOs.
+     * @throws IOException If the file cannot be read.
+     */
+    private void parse(
+        final Path path, final BasicFileAttributes attrs,
+        final TodoParser.Sink sink
+    ) throws IOException {
+        final String file = path.toString();
+        final List<Todo> todos = new ArrayList<>();
+        TodoSource source = null;
+        if (this.parser.mayContainTodos(file)) {
+            source = TodoSource.read(path);
+            this.parser.parse(
+                source,
+                todo -> {
+                    todos.add(todo);
+                    sink.accept(todo);
+                }
+            );
+        }
+        this.state.record(path, attrs, source, todos);
+    }
+
+    /**
+     * Loads the ignore rules applying inside the given directory.
+     *
+     * @param dir Directory.
+     * @throws IOException If a .gitignore cannot be read.
+     */
+    private void loadIgnores(final Path dir) throws IOException {
+        if (this.gitignore) {
+            final IgnoreRules rules = IgnoreRules.load(
+                dir, this.rulesOf(dir.getParent())
+            );
+            if (rules != null) {
+                this.ignores.put(dir, rules);
+            }
+        }
+    }
+
+    /**
+     * Checks if the given path is ignored by the rules of its directory.
+     *
+     * @param path File or directory.
+     * @param directory Whether the path is a directory.
+     * @return True or false.
+     */
+    private boolean isIgnored(final Path path, final boolean directory) {
+        final IgnoreRules rules = this.rulesOf(path.getParent());
+        return rules != null && rules.ignored(path, directory);
+    }
+
+    /**
+     * Ignore rules applying inside the given directory.
+     *
+     * @param dir Directory, may be null.
+     * @return Rules or null if there are none.
+     */
+    private IgnoreRules rulesOf(final Path dir) {
+        IgnoreRules rules = null;
+        if (dir != null) {
+            rules = this.ignores.get(dir);
+        }
+        return rules;
     }
 
     /**
@@ -155,4 +456,72 @@ public final class TodoVisitor extends SimpleFileVisitor<Path> {
             logger.info(format, arguments);
         }
     }
+
+    /**
+     * Content of a file, read when it is parsed.
+     */
+    public interface Content {
+
+        /**
+         * Reads the content.
+         * @return Bytes of the file.
+         * @throws IOException If it cannot be read.
+         */
+        byte[] bytes() throws IOException;
+    }
+
+    /**
+     * Parsing of a file.
+     */
+    private interface Parsing {
+
+        /**
+         * Parses the file.
+         * @param sink Receives the found TODOs.
+         * @throws IOException If something goes wrong.
+         */
+        void parse(TodoParser.Sink sink) throws IOException;
+    }
+
+    /**
+     * Logs and serializes the TODOs of a file, as they are found.
+     */
+    private final class Found implements TodoParser.Sink {
+
+        /**
+         * Path of the file.
+         */
+        private final String file;
+
+        /**
+         * Number of TODOs found so far.
+         */
+        private int count;
+
+        /**
+         * Ctor.
+         * @param file Path of the file.
+         */
+        Found(final String file) {
+            this.file = file;
+        }
+
+        @Override
+        public void accept(final Todo todo) {
+            TodoVisitor.this.log(todo.toString());
+            TodoVisitor.this.serializer.add(todo);
+            ++this.count;
+        }
+
+        /**
+         * Logs how many TODOs were found, once the file is parsed.
+         */
+        public void done() {
+            if (this.count > 0) {
+                TodoVisitor.this.log(
+                    "Found {} TODOs in {}.\n", this.count, this.file
+                );
+            }
+        }
+    }
 }
@@ -0,0 +1,334 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a directory structure with a {@link WatchService} and reports
+ * the changed paths in batches: a batch is reported once no change came
+ * for the quiet period, or ten quiet periods after its first change, so a
+ * burst of changes (a checkout, a build, an editor saving through a
+ * temporary file) is reported once. Every directory is watched, except
+ * the version control metadata and the excluded ones; a created directory
+ * is watched as soon as it is seen and reported as a whole. If events are
+ * lost, everything is reported as changed, same as when the watch starts.
+ * It watches until the thread is interrupted.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class TreeWatcher {
+
+    /**
+     * Default quiet period.
+     */
+    public static final Duration QUIET = Duration.ofMillis(300);
+
+    /**
+     * How many quiet periods a batch waits at most.
+     */
+    private static final int PATIENCE = 10;
+
+    /**
+     * Root of the watched tree, absolute.
+     */
+    private final Path root;
+
+    /**
+     * Names of the directories which are not watched.
+     */
+    private final Set<String> excluded;
+
+    /**
+     * How long no change must come before a batch is reported.
+     */
+    private final Duration quiet;
+
+    /**
+     * Watched directories, by their watch key.
+     */
+    private final Map<WatchKey, Path> dirs = new HashMap<>();
+
+    /**
+     * Ctor.
+     * @param root Root of the watched tree.
+     * @param excluded Names of other directories not to watch, besides
+     *  .git, .hg and .svn.
+     * @param quiet How long no change must come before a batch is reported.
+     */
+    public TreeWatcher(
+        final Path root, final Collection<String> excluded,
+        final Duration quiet
+    ) {
+        this.root = root.toAbsolutePath().normalize();
+        this.excluded = new HashSet<>(TodoVisitor.VCS_DIRS);
+        this.excluded.addAll(excluded);
+        this.quiet = quiet;
+    }
+
+    /**
+     * Watches the tree: reports everything as changed, then the batches of
+     * changes, until the thread is interrupted.
+     * @param changes Receives the changes.
+     * @throws IOException If the tree cannot be watched or a batch cannot
+     *  be handled.
+     */
+    public void watch(final Changes changes) throws IOException {
+        try (WatchService service = this.root.getFileSystem()
+            .newWatchService()) {
+            this.register(service, this.root);
+            changes.all();
+            final Batch batch = new Batch();
+            while (!Thread.currentThread().isInterrupted()) {
+                final WatchKey key = batch.next(service);
+                if (key == null) {
+                    batch.report(changes);
+                } else {
+                    this.collect(service, key, batch);
+                }
+            }
+        } catch (final InterruptedException | ClosedWatchServiceException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.dirs.clear();
+        }
+    }
+
+    /**
+     * Adds the events of a key to the batch.
+     * @param service Watch service.
+     * @param key Signalled key.
+     * @param batch Batch of changes.
+     * @throws IOException If a created directory cannot be watched.
+     */
+    private void collect(
+        final WatchService service, final WatchKey key, final Batch batch
+    ) throws IOException {
+        final Path dir = this.dirs.get(key);
+        for (final WatchEvent<?> event : key.pollEvents()) {
+            if (dir == null
+                || event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                batch.lose();
+                this.register(service, this.root);
+            } else {
+                this.changed(
+                    service, dir.resolve((Path) event.context()),
+                    event.kind(), batch
+                );
+            }
+        }
+        if (!key.reset()) {
+            this.dirs.remove(key);
+        }
+    }
+
+    /**
+     * Adds a changed path to the batch, unless it is excluded or it is a
+     * directory whose attributes changed, which says nothing about the
+     * files in it.
+     * @param service Watch service.
+     * @param path Changed path.
+     * @param kind Kind of change.
+     * @param batch Batch of changes.
+     * @throws IOException If a created directory cannot be watched.
+     */
+    private void changed(
+        final WatchService service, final Path path,
+        final WatchEvent.Kind<?> kind, final Batch batch
+    ) throws IOException {
+        final boolean directory = Files.isDirectory(
+            path, LinkOption.NOFOLLOW_LINKS
+        );
+        if (!this.excluded.contains(path.getFileName().toString())
+            && !(directory && kind == StandardWatchEventKinds.ENTRY_MODIFY)) {
+            if (directory && kind == StandardWatchEventKinds.ENTRY_CREATE) {
+                this.register(service, path);
+            }
+            batch.add(this.root.relativize(path).toString());
+        }
+    }
+
+    /**
+     * Watches a directory and the ones below it, except the excluded.
+     * @param service Watch service.
+     * @param top Directory.
+     * @throws IOException If it cannot be watched.
+     */
+    private void register(final WatchService service, final Path top)
+        throws IOException {
+        Files.walkFileTree(
+            top,
+            new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(
+                    final Path dir, final BasicFileAttributes attrs
+                ) throws IOException {
+                    FileVisitResult result = FileVisitResult.SKIP_SUBTREE;
+                    if (dir.equals(TreeWatcher.this.root)
+                        || !TreeWatcher.this.excluded.contains(
+                            dir.getFileName().toString()
+                        )) {
+                        TreeWatcher.this.dirs.put(
+                            dir.register(
+                                service,
+                                StandardWatchEventKinds.ENTRY_CREATE,
+                                StandardWatchEventKinds.ENTRY_DELETE,
+                                StandardWatchEventKinds.ENTRY_MODIFY
+                            ),
+                            dir
+                        );
+                        result = FileVisitResult.CONTINUE;
+                    }
+                    return result;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(
+                    final Path file, final IOException exc
+                ) {
+                    return FileVisitResult.CONTINUE;
+                }
+            }
+        );
+    }
+
+    /**
+     * Receives the changes of the tree.
+     */
+    public interface Changes {
+
+        /**
+         * Anything may have changed: the watch just started or events were
+         * lost.
+         * @throws IOException If something goes wrong.
+         */
+        void all() throws IOException;
+
+        /**
+         * The given paths changed: they were created, modified or deleted.
+         * The created directories are reported, not the files in them.
+         * @param paths Paths relative to the root.
+         * @throws IOException If something goes wrong.
+         */
+        void changed(Collection<String> paths) throws IOException;
+    }
+
+    /**
+     * Changes waiting to be reported.
+     */
+    private final class Batch {
+
+        /**
+         * Changed paths.
+         */
+        private final Set<String> paths = new HashSet<>();
+
+        /**
+         * Whether events were lost.
+         */
+        private boolean lost;
+
+        /**
+         * When the batch must be reported at the latest, in nanoseconds.
+         */
+        private long deadline;
+
+        /**
+         * Waits for the next key: for ever if the batch is empty, otherwise
+         * for the quiet period at most.
+         * @param service Watch service.
+         * @return Signalled key or null if the batch is due.
+         * @throws InterruptedException If the thread is interrupted.
+         */
+        public WatchKey next(final WatchService service)
+            throws InterruptedException {
+            final WatchKey key;
+            if (this.paths.isEmpty() && !this.lost) {
+                key = service.take();
+                this.deadline = System.nanoTime()
+                    + TreeWatcher.this.quiet.toNanos() * PATIENCE;
+            } else {
+                key = service.poll(
+                    Math.max(
+                        0L,
+                        Math.min(
+                            TreeWatcher.this.quiet.toNanos(),
+                            this.deadline - System.nanoTime()
+                        )
+                    ),
+                    TimeUnit.NANOSECONDS
+                );
+            }
+            return key;
+        }
+
+        /**
+         * Adds a changed path.
+         * @param path Path relative to the root.
+         */
+        public void add(final String path) {
+            this.paths.add(path);
+        }
+
+        /**
+         * Notes that events were lost.
+         */
+        public void lose() {
+            this.lost = true;
+        }
+
+        /**
+         * Reports the batch and empties it.
+         * @param changes Receives the changes.
+         * @throws IOException If something goes wrong.
+         */
+        public void report(final Changes changes) throws IOException {
+            if (this.lost) {
+                changes.all();
+            } else if (!this.paths.isEmpty()) {
+                changes.changed(Set.copyOf(this.paths));
+            }
+            this.paths.clear();
+            this.lost = false;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Map;
+
+/**
+ * Unit tests for {@link BlameCache}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class BlameCacheTestCase {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * BlameCache keeps the attributions as they are.
+     */
+    @Test
+    public void keepsAttributions() {
+        final BlameCache cache = new BlameCache(
+            this.folder.getRoot().toPath(), BlameCache.DEFAULT_SIZE
+        );
+        MatcherAssert.assertThat(cache.get("Foo.java"), Matchers.nullValue());
+        cache.put(
+            "Foo.java",
+            Map.of(
+                3,
+                new Attribution(
+                    "Bob (Jr)\tthe 2nd", "2021-04-01 09:00:00 -0500"
+                ),
+                7, new Attribution("Alice", "2020-12-15 14:39:07 +0200")
+            )
+        );
+        final Map<Integer, Attribution> lines = cache.get("Foo.java");
+        MatcherAssert.assertThat(
+            lines.keySet(), Matchers.containsInAnyOrder(3, 7)
+        );
+        MatcherAssert.assertThat(
+            lines.get(3).author(), Matchers.equalTo("Bob (Jr)\tthe 2nd")
+        );
+        MatcherAssert.assertThat(
+            lines.get(3).timestamp(),
+            Matchers.equalTo("2021-04-01 09:00:00 -0500")
+        );
+    }
+
+    /**
+     * BlameCache evicts the entries when they take too much space.
+     */
+    @Test
+    public void staysWithinItsSize() {
+        final BlameCache cache = new BlameCache(
+            this.folder.getRoot().toPath(), 1024
+        );
+        final Map<Integer, Attribution> lines = Map.of(
+            1, new Attribution("Alice", "2020-12-15 14:39:07 +0200")
+        );
+        for (int idx = 0; idx < 100; ++idx) {
+            cache.put("File" + idx + ".java", lines);
+        }
+        MatcherAssert.assertThat(
+            cache.size(), Matchers.lessThanOrEqualTo(1024L)
+        );
+        MatcherAssert.assertThat(
+            cache.get("File99.java"), Matchers.notNullValue()
+        );
+    }
+}
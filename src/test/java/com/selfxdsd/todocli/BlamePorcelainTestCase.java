@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link BlamePorcelain}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class BlamePorcelainTestCase {
+
+    /**
+     * Output of git blame --porcelain -L 2,3 -L 7,7 with two commits.
+     */
+    private static final String OUTPUT = String.join(
+        "\n",
+        "1111111111111111111111111111111111111111 2 2 2",
+        "author Bob (Jr)",
+        "author-mail <bob@example.com>",
+        "author-time 1617285600",
+        "author-tz -0500",
+        "committer Bob (Jr)",
+        "summary first",
+        "filename Foo.java",
+        "\t// TODO #1:30min (not a blame header) 2021-01-01 10:00:00 +0000 1)",
+        "1111111111111111111111111111111111111111 3 3",
+        "\t//  continued",
+        "2222222222222222222222222222222222222222 6 7 1",
+        "author Alice",
+        "author-time 1608035947",
+        "author-tz +0200",
+        "summary second",
+        "previous 1111111111111111111111111111111111111111 Foo.java",
+        "filename Foo.java",
+        "\t// TODO #2:1h"
+    );
+
+    /**
+     * BlamePorcelain reads the commit details once and shares them between
+     * the lines of that commit.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void sharesCommitDetailsBetweenLines() throws IOException {
+        final Map<Integer, Attribution> lines = new BlamePorcelain(
+            new BufferedReader(new StringReader(OUTPUT))
+        ).lines();
+        MatcherAssert.assertThat(
+            lines.keySet(), Matchers.containsInAnyOrder(2, 3, 7)
+        );
+        MatcherAssert.assertThat(
+            lines.get(3), Matchers.sameInstance(lines.get(2))
+        );
+        MatcherAssert.assertThat(
+            lines.get(3).author(), Matchers.equalTo("Bob (Jr)")
+        );
+        MatcherAssert.assertThat(
+            lines.get(3).timestamp(),
+            Matchers.equalTo("2021-04-01 09:00:00 -0500")
+        );
+        MatcherAssert.assertThat(
+            lines.get(7).timestamp(),
+            Matchers.equalTo("2020-12-15 14:39:07 +0200")
+        );
+    }
+
+    /**
+     * BlamePorcelain reads nothing from an empty output.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void readsEmptyOutput() throws IOException {
+        MatcherAssert.assertThat(
+            new BlamePorcelain(
+                new BufferedReader(new StringReader(""))
+            ).lines().entrySet(),
+            Matchers.empty()
+        );
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link CachedAttributions}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class CachedAttributionsTestCase {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * CachedAttributions blames an unchanged file only once, but blames it
+     * again once it changes.
+     *
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void blamesUnchangedFilesOnce() throws Exception {
+        final File repo = this.folder.newFolder("repo");
+        final Path file = repo.toPath().resolve("Foo.java");
+        Files.write(file, List.of("a", "b"));
+        GitFixture.run(repo, "init", "-q");
+        GitFixture.run(repo, "add", "Foo.java");
+        GitFixture.run(repo, "commit", "-q", "-m", "first");
+        final AtomicInteger blamed = new AtomicInteger();
+        final Attributions cached = new CachedAttributions(
+            (path, todos) -> {
+                blamed.incrementAndGet();
+                return Map.of(1, new Attribution("Alice", "2021-04-01"));
+            },
+            new BlameCache(
+                this.folder.newFolder("cache").toPath(),
+                BlameCache.DEFAULT_SIZE
+            ),
+            null
+        );
+        final List<Todo> todos = List.of(new Todo(1, 1, "#1", 1));
+        cached.attribute(file.toString(), todos);
+        MatcherAssert.assertThat(
+            cached.attribute(file.toString(), todos).get(1).author(),
+            Matchers.equalTo("Alice")
+        );
+        MatcherAssert.assertThat(blamed.get(), Matchers.equalTo(1));
+        Files.write(file, List.of("a", "b", "c"));
+        cached.attribute(file.toString(), todos);
+        MatcherAssert.assertThat(blamed.get(), Matchers.equalTo(2));
+    }
+}
@@ -0,0 +1,232 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for {@link CommentLexer}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class CommentLexerTestCase {
+
+    /**
+     * CommentLexer finds the C-style comments, but not in the strings.
+     */
+    @Test
+    public void findsCStyleComments() {
+        MatcherAssert.assertThat(
+            CommentLexerTestCase.comments(
+                "Foo.java",
+                "int a; // one",
+                "String s = \"// no \\\" /* no\"; /* two",
+                " * still two */ int b;",
+                "String t = \"\"\"",
+                "    /* no",
+                "    \"\"\"; // three"
+            ),
+            Matchers.contains(
+                "// one", "/* two",
+                " * still two */", "// three"
+            )
+        );
+    }
+
+    /**
+     * CommentLexer finds the hash comments and the Python docstrings.
+     */
+    @Test
+    public void findsHashComments() {
+        MatcherAssert.assertThat(
+            CommentLexerTestCase.comments(
+                "run.py",
+                "x = '#no' # one",
+                "  \"\"\"",
+                "  two",
+                "  \"\"\""
+            ),
+            Matchers.contains("# one", "\"\"\"", "  two", "  \"\"\"")
+        );
+    }
+
+    /**
+     * CommentLexer finds the XML, SQL and Lua comments.
+     */
+    @Test
+    public void findsOtherComments() {
+        MatcherAssert.assertThat(
+            CommentLexerTestCase.comments(
+                "pom.xml", "<a><!-- one", "two --></a>"
+            ),
+            Matchers.contains("<!-- one", "two -->")
+        );
+        MatcherAssert.assertThat(
+            CommentLexerTestCase.comments(
+                "q.SQL", "SELECT '--no' -- one", "/* two *" + "/"
+            ),
+            Matchers.contains("-- one", "/* two *" + "/")
+        );
+        MatcherAssert.assertThat(
+            CommentLexerTestCase.comments(
+                "init.lua", "s = [[ --no", "]] --[[ one", "]] -- two"
+            ),
+            Matchers.contains("--[[ one", "]]", "-- two")
+        );
+    }
+
+    /**
+     * CommentLexer finds the JavaScript, Go and Rust comments, whatever
+     * quote their template literals, raw strings and lifetimes have.
+     */
+    @Test
+    public void findsCStyleCommentsAroundOtherStrings() {
+        MatcherAssert.assertThat(
+            CommentLexerTestCase.comments(
+                "app.ts",
+                "const s = `it's ${x}`; // one",
+                "const t = `// no",
+                "  still no`; /* two *" + "/"
+            ),
+            Matchers.contains("// one", "/* two *" + "/")
+        );
+        MatcherAssert.assertThat(
+            CommentLexerTestCase.comments(
+                "main.go", "s := `it's // no", "` // one", "r := '/' // two"
+            ),
+            Matchers.contains("// one", "// two")
+        );
+        MatcherAssert.assertThat(
+            CommentLexerTestCase.comments(
+                "lib.rs",
+                "fn f<'a>(x: &'a str, y: &str) { // one",
+                "let s = \"// no\"; /* two *" + "/"
+            ),
+            Matchers.contains("// one", "/* two *" + "/")
+        );
+    }
+
+    /**
+     * CommentLexer finds the PHP and Terraform comments: #, // and
+     * C-style blocks.
+     */
+    @Test
+    public void findsPhpAndTerraformComments() {
+        MatcherAssert.assertThat(
+            CommentLexerTestCase.comments(
+                "index.php",
+                "# one",
+                "$s = '# no // no'; // two",
+                "/* three *" + "/ $t = \"# no\";"
+            ),
+            Matchers.contains("# one", "// two", "/* three *" + "/")
+        );
+        MatcherAssert.assertThat(
+            CommentLexerTestCase.comments(
+                "main.tf",
+                "# one",
+                "name = \"# no // no\" // two",
+                "/* three *" + "/"
+            ),
+            Matchers.contains("# one", "// two", "/* three *" + "/")
+        );
+    }
+
+    /**
+     * CommentLexer finds the Ruby comments, =begin blocks included, and the
+     * YAML ones, after any apostrophe.
+     */
+    @Test
+    public void findsRubyAndYamlComments() {
+        MatcherAssert.assertThat(
+            CommentLexerTestCase.comments(
+                "app.rb", "x = 'a#b' # one", "=begin", "two", "=end"
+            ),
+            Matchers.contains("# one", "=begin", "two", "=end")
+        );
+        MatcherAssert.assertThat(
+            CommentLexerTestCase.comments(
+                "ci.yml", "title: it's here # one", "  # two"
+            ),
+            Matchers.contains("# one", "# two")
+        );
+    }
+
+    /**
+     * CommentLexer takes the HTML and Perl files for comments, since their
+     * scripts, styles and POD blocks are not lexed.
+     */
+    @Test
+    public void takesHtmlAndPerlFilesForComments() {
+        MatcherAssert.assertThat(
+            CommentLexerTestCase.comments(
+                "index.html", "<script>", "// one", "</script>"
+            ),
+            Matchers.contains("<script>", "// one", "</script>")
+        );
+        MatcherAssert.assertThat(
+            CommentLexerTestCase.comments("Lib.pm", "=pod", "one", "=cut"),
+            Matchers.contains("=pod", "one", "=cut")
+        );
+    }
+
+    /**
+     * CommentLexer takes a file of an unknown kind for a comment.
+     */
+    @Test
+    public void takesUnknownFilesForComments() {
+        MatcherAssert.assertThat(
+            CommentLexerTestCase.comments("README", "TODO", "x = 1"),
+            Matchers.contains("TODO", "x = 1")
+        );
+    }
+
+    /**
+     * The comments of the lines.
+     * @param path Path of the file.
+     * @param lines Lines.
+     * @return Comments, one per line they are on.
+     */
+    private static List<String> comments(
+        final String path, final String... lines
+    ) {
+        final CommentLexer lexer = CommentLexer.forFile(path);
+        final List<String> comments = new ArrayList<>();
+        for (final String line : lines) {
+            lexer.next(line);
+            for (int idx = 0; idx < lexer.comments(); ++idx) {
+                comments.add(line.substring(lexer.start(idx), lexer.end(idx)));
+                MatcherAssert.assertThat(
+                    lexer.covers(lexer.start(idx)), Matchers.is(true)
+                );
+            }
+        }
+        return comments;
+    }
+}
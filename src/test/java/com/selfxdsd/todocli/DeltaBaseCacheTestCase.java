@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link DeltaBaseCache}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class DeltaBaseCacheTestCase {
+
+    /**
+     * DeltaBaseCache evicts the least recently used objects to stay under
+     * its limit.
+     */
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        final DeltaBaseCache cache = new DeltaBaseCache(100);
+        cache.put(null, 1, DeltaBaseCacheTestCase.blob(40));
+        cache.put(null, 2, DeltaBaseCacheTestCase.blob(40));
+        MatcherAssert.assertThat(cache.get(null, 1), Matchers.notNullValue());
+        cache.put(null, 3, DeltaBaseCacheTestCase.blob(40));
+        MatcherAssert.assertThat(cache.get(null, 2), Matchers.nullValue());
+        MatcherAssert.assertThat(cache.get(null, 1), Matchers.notNullValue());
+        MatcherAssert.assertThat(cache.get(null, 3), Matchers.notNullValue());
+        MatcherAssert.assertThat(cache.size(), Matchers.equalTo(80L));
+    }
+
+    /**
+     * DeltaBaseCache does not keep objects larger than itself.
+     */
+    @Test
+    public void skipsHugeObjects() {
+        final DeltaBaseCache cache = new DeltaBaseCache(100);
+        cache.put(null, 1, DeltaBaseCacheTestCase.blob(40));
+        cache.put(null, 2, DeltaBaseCacheTestCase.blob(101));
+        MatcherAssert.assertThat(cache.get(null, 2), Matchers.nullValue());
+        MatcherAssert.assertThat(cache.get(null, 1), Matchers.notNullValue());
+    }
+
+    /**
+     * A blob of the given size.
+     * @param size Size.
+     * @return Blob.
+     */
+    private static GitObject blob(final int size) {
+        return new GitObject(GitObject.BLOB, new byte[size]);
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Unit tests for {@link ForkJoinTreeWalker}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class ForkJoinTreeWalkerTestCase {
+
+    /**
+     * ForkJoinTreeWalker visits the same files as the SerialTreeWalker.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void visitsSameFilesAsSerialWalker() throws IOException {
+        final Path root = Paths.get("src/test/resources");
+        final Recorder serial = new Recorder();
+        new SerialTreeWalker().walk(root, serial);
+        final Recorder parallel = new Recorder();
+        new ForkJoinTreeWalker(4).walk(root, parallel);
+        MatcherAssert.assertThat(
+            parallel.files,
+            Matchers.containsInAnyOrder(serial.files.toArray())
+        );
+        MatcherAssert.assertThat(
+            parallel.dirs,
+            Matchers.containsInAnyOrder(serial.dirs.toArray())
+        );
+    }
+
+    /**
+     * ForkJoinTreeWalker post-visits the root only after everything else.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void postVisitsRootLast() throws IOException {
+        final Path root = Paths.get("src/test/resources");
+        final Recorder recorder = new Recorder();
+        new ForkJoinTreeWalker(4).walk(root, recorder);
+        MatcherAssert.assertThat(
+            recorder.events.get(recorder.events.size() - 1),
+            Matchers.equalTo("post:" + root)
+        );
+        MatcherAssert.assertThat(
+            recorder.events.get(0),
+            Matchers.equalTo("pre:" + root)
+        );
+    }
+
+    /**
+     * ForkJoinTreeWalker does not enter a skipped sub-tree.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void skipsSubtree() throws IOException {
+        final Path root = Paths.get("src/test/resources");
+        final Recorder recorder = new Recorder() {
+            @Override
+            public FileVisitResult preVisitDirectory(
+                final Path dir, final BasicFileAttributes attrs
+            ) {
+                final FileVisitResult result;
+                if (dir.endsWith("js")) {
+                    result = FileVisitResult.SKIP_SUBTREE;
+                } else {
+                    result = super.preVisitDirectory(dir, attrs);
+                }
+                return result;
+            }
+        };
+        new ForkJoinTreeWalker(2).walk(root, recorder);
+        MatcherAssert.assertThat(
+            recorder.files,
+            Matchers.not(Matchers.hasItem(root.resolve("js/JsTodos.js")))
+        );
+        MatcherAssert.assertThat(
+            recorder.files,
+            Matchers.hasItem(root.resolve("HashMap.java"))
+        );
+    }
+
+    /**
+     * Visitor recording what it was given.
+     */
+    private static class Recorder extends SimpleFileVisitor<Path> {
+
+        /**
+         * Visited files.
+         */
+        private final List<Path> files = new CopyOnWriteArrayList<>();
+
+        /**
+         * Post-visited directories.
+         */
+        private final List<Path> dirs = new CopyOnWriteArrayList<>();
+
+        /**
+         * All the events, in order.
+         */
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public FileVisitResult preVisitDirectory(
+            final Path dir, final BasicFileAttributes attrs
+        ) {
+            this.events.add("pre:" + dir);
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(
+            final Path file, final BasicFileAttributes attrs
+        ) {
+            this.files.add(file);
+            this.events.add("file:" + file);
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(
+            final Path dir, final IOException exc
+        ) {
+            this.dirs.add(dir);
+            this.events.add("post:" + dir);
+            return FileVisitResult.CONTINUE;
+        }
+    }
+}
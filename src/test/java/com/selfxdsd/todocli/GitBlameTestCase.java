@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link GitBlame}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class GitBlameTestCase {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * GitBlame blames only the lines of the TODOs, keeping the authors with
+     * parentheses and negative time zones.
+     *
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void blamesOnlyTheTodoLines() throws Exception {
+        final File repo = this.folder.getRoot();
+        final Path file = repo.toPath().resolve("Foo.java");
+        Files.write(file, List.of("a", "b", "c", "d", "e", "f"));
+        GitFixture.run(repo, "init", "-q");
+        GitFixture.run(repo, "add", "Foo.java");
+        GitFixture.run(repo, "commit", "-q", "-m", "first");
+        final Map<Integer, Attribution> lines = new GitBlame(
+            new GitProcessPool()
+        ).attribute(
+            file.toString(),
+            List.of(new Todo(2, 3, "#1", 1), new Todo(5, 5, "#2", 1))
+        );
+        MatcherAssert.assertThat(
+            lines.keySet(), Matchers.containsInAnyOrder(2, 3, 5)
+        );
+        MatcherAssert.assertThat(
+            lines.get(5).author(), Matchers.equalTo("Bob (Jr)")
+        );
+        MatcherAssert.assertThat(
+            lines.get(5).timestamp(),
+            Matchers.equalTo("2021-04-01 09:00:00 -0500")
+        );
+    }
+
+    /**
+     * GitBlame blames nothing in a file which is not tracked.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void blamesNothingOutsideGit() throws IOException {
+        final Path file = this.folder.newFile("Bar.java").toPath();
+        Files.write(file, List.of("a", "b"));
+        MatcherAssert.assertThat(
+            new GitBlame(new GitProcessPool()).attribute(
+                file.toString(), List.of(new Todo(1, 2, "#1", 1))
+            ).entrySet(),
+            Matchers.empty()
+        );
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for {@link GitDiffTreeWalker}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class GitDiffTreeWalkerTestCase {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * GitDiffTreeWalker visits only the files changed since the commit and
+     * remembers the deleted ones too.
+     *
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void visitsOnlyChangedFiles() throws Exception {
+        final Path root = this.folder.getRoot().toPath();
+        final Path src = root.resolve("src");
+        Files.createDirectories(src);
+        Files.write(src.resolve("Foo.java"), List.of("class Foo {}"));
+        Files.write(src.resolve("Bar.java"), List.of("class Bar {}"));
+        Files.write(root.resolve("Baz.java"), List.of("class Baz {}"));
+        GitFixture.run(root.toFile(), "init", "-q");
+        GitFixture.run(root.toFile(), "add", "-A");
+        GitFixture.run(root.toFile(), "commit", "-q", "-m", "first");
+        Files.write(src.resolve("Foo.java"), List.of("// @todo #1:30min"));
+        Files.delete(root.resolve("Baz.java"));
+        GitFixture.run(root.toFile(), "add", "-A");
+        GitFixture.run(root.toFile(), "commit", "-q", "-m", "second");
+        final List<Path> visited = new ArrayList<>();
+        final GitDiffTreeWalker walker = new GitDiffTreeWalker(
+            "HEAD~1", new GitProcessPool()
+        );
+        walker.walk(
+            root,
+            new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(
+                    final Path file, final BasicFileAttributes attrs
+                ) {
+                    visited.add(file);
+                    return FileVisitResult.CONTINUE;
+                }
+            }
+        );
+        MatcherAssert.assertThat(
+            visited, Matchers.contains(src.resolve("Foo.java"))
+        );
+        MatcherAssert.assertThat(
+            walker.changed(),
+            Matchers.containsInAnyOrder("src/Foo.java", "Baz.java")
+        );
+    }
+}
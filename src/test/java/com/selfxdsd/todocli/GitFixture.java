@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+
+import java.io.File;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs git in the repositories which the tests build, with a fixed author,
+ * committer and date, whatever the git configuration of the machine.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+final class GitFixture {
+
+    /**
+     * Author and committer of the commits.
+     */
+    static final String AUTHOR = "Bob (Jr)";
+
+    /**
+     * Author and commit date of the commits.
+     */
+    static final String DATE = "2021-04-01T09:00:00-05:00";
+
+    /**
+     * Hidden ctor.
+     */
+    private GitFixture() {
+    }
+
+    /**
+     * Runs git in the given directory, as {@link #AUTHOR} on
+     * {@link #DATE}.
+     * @param dir Directory.
+     * @param args Arguments.
+     * @throws Exception If git fails.
+     */
+    static void run(final File dir, final String... args) throws Exception {
+        GitFixture.runAs(dir, AUTHOR, DATE, args);
+    }
+
+    /**
+     * Runs git in the given directory, as the given author on the given
+     * date.
+     * @param dir Directory.
+     * @param author Author and committer.
+     * @param date Author and commit date.
+     * @param args Arguments.
+     * @throws Exception If git fails.
+     * @checkstyle ParameterNumber (5 lines)
+     */
+    static void runAs(final File dir, final String author, final String date,
+        final String... args) throws Exception {
+        final ProcessBuilder builder = new ProcessBuilder(
+            Stream.concat(Stream.of("git"), Stream.of(args))
+                .collect(Collectors.toList())
+        ).directory(dir).inheritIO();
+        builder.environment().putAll(
+            Map.of(
+                "GIT_AUTHOR_NAME", author,
+                "GIT_AUTHOR_EMAIL", "bob@example.com",
+                "GIT_AUTHOR_DATE", date,
+                "GIT_COMMITTER_NAME", author,
+                "GIT_COMMITTER_EMAIL", "bob@example.com",
+                "GIT_COMMITTER_DATE", date
+            )
+        );
+        MatcherAssert.assertThat(
+            builder.start().waitFor(), Matchers.equalTo(0)
+        );
+    }
+}
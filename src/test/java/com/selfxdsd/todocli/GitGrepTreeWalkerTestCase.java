@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Unit tests for {@link GitGrepTreeWalker}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class GitGrepTreeWalkerTestCase {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * GitGrepTreeWalker visits, once, only the files containing markers.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void visitsOnlyFilesWithMarkers() throws IOException {
+        final Path root = Paths.get("src/test/resources");
+        final List<String> events = new ArrayList<>();
+        new GitGrepTreeWalker().walk(root, new Recorder(events));
+        MatcherAssert.assertThat(
+            events,
+            Matchers.hasItems(
+                "file:" + root.resolve("LegalTodos.java"),
+                "file:" + root.resolve("js/JsTodos.js")
+            )
+        );
+        MatcherAssert.assertThat(
+            events,
+            Matchers.not(
+                Matchers.hasItem("file:" + root.resolve("HashMap.java"))
+            )
+        );
+        MatcherAssert.assertThat(
+            events.size(), Matchers.equalTo(Set.copyOf(events).size())
+        );
+        MatcherAssert.assertThat(events.get(0), Matchers.equalTo("pre"));
+        MatcherAssert.assertThat(
+            events.get(events.size() - 1), Matchers.equalTo("post")
+        );
+    }
+
+    /**
+     * GitGrepTreeWalker matches the markers literally.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void matchesMarkersLiterally() throws IOException {
+        final List<String> events = new ArrayList<>();
+        new GitGrepTreeWalker(
+            List.of("T.D.", "(FIXME"), new GitProcessPool()
+        ).walk(
+            Paths.get("src/test/resources"), new Recorder(events)
+        );
+        MatcherAssert.assertThat(events, Matchers.contains("pre", "post"));
+    }
+
+    /**
+     * GitGrepTreeWalker does not hold its git process while the files are
+     * visited: with a single one allowed, the blames of more files than
+     * the queue of the TodoVisitor can take still run.
+     *
+     * @throws Exception If something goes wrong.
+     * @checkstyle MagicNumber (30 lines)
+     */
+    @Test(timeout = 120_000)
+    public void releasesGitBeforeVisiting() throws Exception {
+        final File repo = this.folder.getRoot();
+        for (int idx = 0; idx < 300; ++idx) {
+            Files.writeString(
+                repo.toPath().resolve("A" + idx + ".java"),
+                "// TODO #" + idx + ":1min Fix it.\nint a;\n"
+            );
+        }
+        GitFixture.run(repo, "init", "-q");
+        GitFixture.run(repo, "add", ".");
+        GitFixture.run(repo, "commit", "-q", "-m", "first");
+        final GitProcessPool pool = new GitProcessPool(
+            1, Duration.ofMinutes(1)
+        );
+        final List<Todo> found = new CopyOnWriteArrayList<>();
+        new GitGrepTreeWalker(MarkerAutomaton.DEFAULT_MARKERS, pool).walk(
+            repo.toPath(),
+            new TodoVisitor(
+                new TodosSerializer() {
+                    @Override
+                    public void add(final Todo... todo) {
+                        found.addAll(List.of(todo));
+                    }
+
+                    @Override
+                    public URI serialize() {
+                        return URI.create("memory:todos");
+                    }
+                },
+                new TodoParser(new MarkerAutomaton(), pool),
+                null, List.of(), true
+            )
+        );
+        MatcherAssert.assertThat(found, Matchers.hasSize(300));
+    }
+
+
+    /**
+     * Visitor recording what it was given.
+     */
+    private static final class Recorder extends SimpleFileVisitor<Path> {
+
+        /**
+         * All the events, in order.
+         */
+        private final List<String> events;
+
+        /**
+         * Ctor.
+         * @param events Where to record the events.
+         */
+        Recorder(final List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(
+            final Path dir, final BasicFileAttributes attrs
+        ) {
+            this.events.add("pre");
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(
+            final Path file, final BasicFileAttributes attrs
+        ) {
+            this.events.add("file:" + file);
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(
+            final Path dir, final IOException exc
+        ) {
+            this.events.add("post");
+            return FileVisitResult.CONTINUE;
+        }
+    }
+}
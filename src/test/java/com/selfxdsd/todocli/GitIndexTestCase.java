@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for {@link GitIndex}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class GitIndexTestCase {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * GitIndex lists the tracked files of this repository.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void listsTrackedFiles() throws IOException {
+        final List<String> paths = GitRepository.find(Paths.get("."))
+            .index().paths();
+        MatcherAssert.assertThat(
+            paths,
+            Matchers.hasItems(
+                "pom.xml",
+                "src/test/resources/HashMap.java",
+                "src/test/resources/js/JsTodos.js"
+            )
+        );
+        MatcherAssert.assertThat(
+            paths,
+            Matchers.everyItem(Matchers.not(Matchers.startsWith("target/")))
+        );
+    }
+
+    /**
+     * GitIndex can read version 4, with prefix-compressed paths, and skips
+     * the entries which are not regular files.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void readsVersionFour() throws IOException {
+        final ByteArrayOutputStream index = new ByteArrayOutputStream();
+        index.write(
+            ByteBuffer.allocate(12).putInt(0x44495243).putInt(4).putInt(3)
+                .array()
+        );
+        index.write(this.entry(0x81A4, 0, "src/Main.java"));
+        index.write(this.entry(0xA000, 9, "Link"));
+        index.write(this.entry(0x81A4, 4, "Test.java"));
+        final Path file = Files.createTempFile("index", "");
+        try {
+            Files.write(file, index.toByteArray());
+            MatcherAssert.assertThat(
+                new GitIndex(file).paths(),
+                Matchers.contains("src/Main.java", "src/Test.java")
+            );
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * GitIndex merges a split index with its shared index: the changed
+     * files are replaced, the removed ones dropped and the new ones added.
+     *
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void readsSplitIndexes() throws Exception {
+        final File repo = this.folder.getRoot();
+        final List<String> expected = new ArrayList<>();
+        for (int idx = 10; idx < 40; ++idx) {
+            final String name = String.format("File%d.java", idx);
+            Files.writeString(repo.toPath().resolve(name), name);
+            expected.add(name);
+        }
+        GitFixture.run(repo, "init", "-q");
+        GitFixture.run(repo, "config", "splitIndex.maxPercentChange", "100");
+        GitFixture.run(repo, "add", "-A");
+        GitFixture.run(repo, "update-index", "--split-index");
+        GitFixture.run(repo, "commit", "-q", "-m", "first");
+        Files.writeString(repo.toPath().resolve("File12.java"), "changed");
+        GitFixture.run(repo, "rm", "-q", "File13.java");
+        Files.writeString(repo.toPath().resolve("File20a.java"), "new");
+        GitFixture.run(repo, "add", "-A");
+        expected.remove("File13.java");
+        expected.add(expected.indexOf("File21.java"), "File20a.java");
+        try (DirectoryStream<Path> shared = Files.newDirectoryStream(
+            repo.toPath().resolve(".git"), "sharedindex.*"
+        )) {
+            MatcherAssert.assertThat(
+                shared.iterator().hasNext(), Matchers.is(true)
+            );
+        }
+        MatcherAssert.assertThat(
+            new GitIndex(repo.toPath().resolve(".git/index")).paths(),
+            Matchers.equalTo(expected)
+        );
+    }
+
+    /**
+     * GitIndex refuses a file which is not an index.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test(expected = IOException.class)
+    public void rejectsNonIndexFiles() throws IOException {
+        new GitIndex(Paths.get("pom.xml")).paths();
+    }
+
+    /**
+     * Builds a version 4 entry.
+     * @param mode File mode.
+     * @param strip Bytes to strip from the previous path.
+     * @param suffix Path suffix.
+     * @return Entry bytes.
+     */
+    private byte[] entry(final int mode, final int strip, final String suffix) {
+        final byte[] name = suffix.getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer entry = ByteBuffer.allocate(62 + 1 + name.length + 1);
+        entry.putInt(24, mode);
+        entry.putShort(60, (short) name.length);
+        entry.position(62);
+        entry.put((byte) strip).put(name).put((byte) 0);
+        return entry.array();
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Unit tests for {@link GitProcessPool}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class GitProcessPoolTestCase {
+
+    /**
+     * Current directory.
+     */
+    private static final Path HERE = Paths.get(".");
+
+    /**
+     * GitProcessPool runs git and counts the process.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void runsGit() throws IOException {
+        final GitProcessPool pool = new GitProcessPool();
+        final String version = pool.run(
+            HERE, List.of("--version"),
+            stdout -> new String(stdout.readAllBytes(), StandardCharsets.UTF_8)
+        );
+        MatcherAssert.assertThat(version, Matchers.startsWith("git version"));
+        MatcherAssert.assertThat(pool.spawned(), Matchers.equalTo(1L));
+        MatcherAssert.assertThat(pool.exited(), Matchers.equalTo(1L));
+    }
+
+    /**
+     * GitProcessPool reports the exit code and the error of a failed git.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void reportsFailures() throws IOException {
+        final GitProcessPool pool = new GitProcessPool();
+        try {
+            pool.run(HERE, List.of("no-such-command"), stdout -> "");
+            Assert.fail("GitException expected");
+        } catch (final GitException exception) {
+            MatcherAssert.assertThat(
+                exception.exitCode(), Matchers.greaterThan(0)
+            );
+            MatcherAssert.assertThat(
+                exception.getMessage(),
+                Matchers.containsString("no-such-command")
+            );
+        }
+        MatcherAssert.assertThat(pool.failures(), Matchers.equalTo(1L));
+    }
+
+    /**
+     * GitProcessPool kills a git which runs for too long.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void killsSlowProcesses() throws IOException {
+        final GitProcessPool pool = new GitProcessPool(
+            1, Duration.ofMillis(200)
+        );
+        final long start = System.nanoTime();
+        try {
+            pool.run(
+                HERE, List.of("-c", "alias.nap=!sleep 30", "nap"),
+                stdout -> stdout.readAllBytes()
+            );
+            Assert.fail("IOException expected");
+        } catch (final IOException exception) {
+            MatcherAssert.assertThat(
+                exception.getMessage(), Matchers.containsString("killed")
+            );
+        }
+        MatcherAssert.assertThat(
+            Duration.ofNanos(System.nanoTime() - start),
+            Matchers.lessThan(Duration.ofSeconds(10))
+        );
+        MatcherAssert.assertThat(pool.timeouts(), Matchers.equalTo(1L));
+    }
+
+    /**
+     * GitProcessPool never runs more processes than it is allowed to.
+     *
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void boundsRunningProcesses() throws Exception {
+        final GitProcessPool pool = new GitProcessPool(
+            2, Duration.ofMinutes(1)
+        );
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger most = new AtomicInteger();
+        final ExecutorService threads = Executors.newFixedThreadPool(6);
+        final List<Future<Integer>> runs = new ArrayList<>();
+        for (int idx = 0; idx < 12; ++idx) {
+            runs.add(
+                threads.submit(
+                    () -> pool.run(
+                        HERE, List.of("--version"),
+                        stdout -> {
+                            most.accumulateAndGet(
+                                running.incrementAndGet(), Math::max
+                            );
+                            stdout.readAllBytes();
+                            LockSupport.parkNanos(
+                                Duration.ofMillis(20).toNanos()
+                            );
+                            return running.decrementAndGet();
+                        }
+                    )
+                )
+            );
+        }
+        for (final Future<Integer> run : runs) {
+            run.get();
+        }
+        threads.shutdown();
+        MatcherAssert.assertThat(most.get(), Matchers.lessThanOrEqualTo(2));
+        MatcherAssert.assertThat(pool.exited(), Matchers.equalTo(12L));
+    }
+}
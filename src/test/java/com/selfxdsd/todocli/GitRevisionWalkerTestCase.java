@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link GitRevisionWalker}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class GitRevisionWalkerTestCase {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * GitRevisionWalker finds the TODOs of a commit, even if its files are
+     * not in the working tree anymore, skipping what the committed
+     * .gitignore files ignore.
+     *
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void findsTodosOfTheCommit() throws Exception {
+        final Path root = this.folder.getRoot().toPath();
+        final Path file = root.resolve("src").resolve("Foo.java");
+        Files.createDirectories(file.getParent());
+        Files.write(
+            file, List.of("class Foo {", "    // @todo #12:30min Fix", "}")
+        );
+        final Path gen = root.resolve("gen").resolve("Gen.java");
+        Files.createDirectories(gen.getParent());
+        Files.write(gen, List.of("// @todo #13:30min Generated", ""));
+        Files.write(root.resolve(".gitignore"), List.of("gen/"));
+        GitFixture.run(root.toFile(), "init", "-q");
+        GitFixture.run(root.toFile(), "add", "-f", "-A");
+        GitFixture.run(root.toFile(), "commit", "-q", "-m", "first");
+        final String rev = GitRepository.find(root).resolve("HEAD");
+        Files.delete(file);
+        final Collected todos = new Collected();
+        new GitRevisionWalker(rev, Set.of(), true).walk(
+            root,
+            new TodoVisitor(
+                todos,
+                new TodoParser(new MarkerAutomaton(), new InProcessBlame(rev)),
+                null, Set.of(), true
+            )
+        );
+        MatcherAssert.assertThat(todos.found, Matchers.hasSize(1));
+        MatcherAssert.assertThat(
+            todos.found.get(0).getPath(), Matchers.endsWith("Foo.java")
+        );
+        MatcherAssert.assertThat(
+            todos.found.get(0).getTicketID(), Matchers.equalTo("#12")
+        );
+        MatcherAssert.assertThat(
+            todos.found.get(0).getAuthor(), Matchers.equalTo("Bob (Jr)")
+        );
+        MatcherAssert.assertThat(todos.serialized, Matchers.equalTo(1));
+    }
+
+    /**
+     * GitRevisionWalker finds the TODOs of a commit of a bare repository,
+     * blamed by git or in-process.
+     *
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void findsTodosInBareRepositories() throws Exception {
+        final Path origin = this.folder.newFolder("origin").toPath();
+        Files.createDirectories(origin.resolve("src"));
+        Files.write(
+            origin.resolve("src").resolve("Foo.java"),
+            List.of("class Foo {", "    // @todo #12:30min Fix", "}")
+        );
+        GitFixture.run(origin.toFile(), "init", "-q");
+        GitFixture.run(origin.toFile(), "add", "-A");
+        GitFixture.run(origin.toFile(), "commit", "-q", "-m", "first");
+        GitFixture.run(
+            this.folder.getRoot(), "clone", "-q", "--bare", "origin", "bare.git"
+        );
+        final Path bare = this.folder.getRoot().toPath().resolve("bare.git");
+        final GitRepository repo = GitRepository.find(bare);
+        MatcherAssert.assertThat(repo.gitDir(), Matchers.equalTo(bare));
+        final String rev = repo.resolve("HEAD");
+        final List<Attributions> blames = List.of(
+            new GitBlame(new GitProcessPool(), rev), new InProcessBlame(rev)
+        );
+        for (final Attributions blame : blames) {
+            final Collected todos = new Collected();
+            new GitRevisionWalker(rev, Set.of(), true).walk(
+                bare,
+                new TodoVisitor(
+                    todos, new TodoParser(new MarkerAutomaton(), blame),
+                    null, Set.of(), true
+                )
+            );
+            MatcherAssert.assertThat(todos.found, Matchers.hasSize(1));
+            MatcherAssert.assertThat(
+                todos.found.get(0).getPath(),
+                Matchers.equalTo(
+                    bare.resolve("src").resolve("Foo.java").toString()
+                )
+            );
+            MatcherAssert.assertThat(
+                todos.found.get(0).getAuthor(), Matchers.equalTo("Bob (Jr)")
+            );
+        }
+    }
+
+
+    /**
+     * Serializer keeping the TODOs in memory.
+     */
+    private static final class Collected implements TodosSerializer {
+
+        /**
+         * TODOs added so far.
+         */
+        private final List<Todo> found = Collections.synchronizedList(
+            new ArrayList<>()
+        );
+
+        /**
+         * How many times they were serialized.
+         */
+        private int serialized;
+
+        @Override
+        public void add(final Todo... todo) {
+            this.found.addAll(List.of(todo));
+        }
+
+        @Override
+        public URI serialize() {
+            ++this.serialized;
+            return URI.create("memory:todos");
+        }
+    }
+}
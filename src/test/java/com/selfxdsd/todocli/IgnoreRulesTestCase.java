@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Unit tests for {@link IgnoreRules}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class IgnoreRulesTestCase {
+
+    /**
+     * Base directory of the rules.
+     */
+    private static final Path BASE = Paths.get("repo");
+
+    /**
+     * IgnoreRules matches literal names, prefixes and suffixes at any depth.
+     */
+    @Test
+    public void matchesUnanchoredLiterals() {
+        final IgnoreRules rules = new IgnoreRules(
+            BASE, List.of("# comment", "", "node_modules", "*.class", "tmp*"),
+            null
+        );
+        MatcherAssert.assertThat(
+            rules.ignored(BASE.resolve("web/node_modules"), true),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            rules.ignored(BASE.resolve("a/b/Main.class"), false),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            rules.ignored(BASE.resolve("tmp-42"), false),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            rules.ignored(BASE.resolve("a/Main.java"), false),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            rules.ignored(BASE.resolve("# comment"), false),
+            Matchers.is(false)
+        );
+    }
+
+    /**
+     * IgnoreRules anchors the patterns containing a slash to the base.
+     * @checkstyle RegexpSingleline (5 lines)
+     */
+    @Test
+    public void matchesAnchoredPaths() {
+        final IgnoreRules rules = new IgnoreRules(
+            BASE, List.of("/target", "docs/generated/**", "src/*/gen"), null
+        );
+        MatcherAssert.assertThat(
+            rules.ignored(BASE.resolve("target"), true),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            rules.ignored(BASE.resolve("module/target"), true),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            rules.ignored(BASE.resolve("docs/generated/a/b.html"), false),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            rules.ignored(BASE.resolve("src/main/gen"), true),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            rules.ignored(BASE.resolve("src/main/java/gen"), true),
+            Matchers.is(false)
+        );
+    }
+
+    /**
+     * IgnoreRules supports the fallback globs: '**', '?' and classes.
+     * @checkstyle RegexpSingleline (5 lines)
+     */
+    @Test
+    public void matchesGlobs() {
+        final IgnoreRules rules = new IgnoreRules(
+            BASE, List.of("**/build/**/out", "file?.[ch]", "[!a-m]*.log"),
+            null
+        );
+        MatcherAssert.assertThat(
+            rules.ignored(BASE.resolve("build/out"), true),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            rules.ignored(BASE.resolve("x/build/y/z/out"), true),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            rules.ignored(BASE.resolve("lib/file1.c"), false),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            rules.ignored(BASE.resolve("lib/file1.java"), false),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            rules.ignored(BASE.resolve("server.log"), false),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            rules.ignored(BASE.resolve("app.log"), false),
+            Matchers.is(false)
+        );
+    }
+
+    /**
+     * IgnoreRules applies the last matching rule, honors negations and
+     * directory-only patterns.
+     */
+    @Test
+    public void lastMatchingRuleWins() {
+        final IgnoreRules rules = new IgnoreRules(
+            BASE, List.of("*.txt", "!keep.txt", "out/"), null
+        );
+        MatcherAssert.assertThat(
+            rules.ignored(BASE.resolve("notes.txt"), false),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            rules.ignored(BASE.resolve("keep.txt"), false),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            rules.ignored(BASE.resolve("out"), true),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            rules.ignored(BASE.resolve("out"), false),
+            Matchers.is(false)
+        );
+    }
+
+    /**
+     * Rules of a deeper directory override the parent ones, which apply
+     * when the deeper ones do not match.
+     */
+    @Test
+    public void childOverridesParent() {
+        final IgnoreRules parent = new IgnoreRules(
+            BASE, List.of("*.gen", "vendor"), null
+        );
+        final Path module = BASE.resolve("module");
+        final IgnoreRules child = new IgnoreRules(
+            module, List.of("!Keep.gen"), parent
+        );
+        MatcherAssert.assertThat(
+            child.ignored(module.resolve("Keep.gen"), false),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            child.ignored(module.resolve("Other.gen"), false),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            child.ignored(module.resolve("vendor"), true),
+            Matchers.is(true)
+        );
+    }
+}
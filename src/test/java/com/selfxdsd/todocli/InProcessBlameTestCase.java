@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link InProcessBlame}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class InProcessBlameTestCase {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * InProcessBlame attributes the lines as git blame does, reading packed
+     * and loose objects.
+     *
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void attributesLikeGitBlame() throws Exception {
+        final Path file = this.folder.getRoot().toPath().resolve("src")
+            .resolve("Foo.java");
+        final List<Todo> todos = new ArrayList<>();
+        for (int line = 1; line <= this.history(file); ++line) {
+            todos.add(new Todo(line, line, "#1", 1));
+        }
+        final Map<Integer, Attribution> mine = new InProcessBlame()
+            .attribute(file.toString(), todos);
+        final Map<Integer, Attribution> git = new GitBlame(
+            new GitProcessPool()
+        ).attribute(file.toString(), todos);
+        MatcherAssert.assertThat(mine.keySet(), Matchers.equalTo(git.keySet()));
+        for (final Integer line : git.keySet()) {
+            MatcherAssert.assertThat(
+                mine.get(line).author(),
+                Matchers.equalTo(git.get(line).author())
+            );
+            if (!"Not Committed Yet".equals(git.get(line).author())) {
+                MatcherAssert.assertThat(
+                    mine.get(line).timestamp(),
+                    Matchers.equalTo(git.get(line).timestamp())
+                );
+            }
+        }
+    }
+
+    /**
+     * InProcessBlame attributes nothing in a file which is not tracked.
+     *
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void attributesNothingOutsideHead() throws Exception {
+        final File repo = this.folder.getRoot();
+        Files.write(repo.toPath().resolve("Foo.java"), List.of("a"));
+        this.commit(repo, "Alice Smith", "2020-12-15T14:39:07+02:00");
+        final Path other = repo.toPath().resolve("Bar.java");
+        Files.write(other, List.of("b"));
+        MatcherAssert.assertThat(
+            new InProcessBlame().attribute(
+                other.toString(), List.of(new Todo(1, 1, "#1", 1))
+            ).entrySet(),
+            Matchers.empty()
+        );
+    }
+
+    /**
+     * Creates a history for the file: two commits, packed, a third one,
+     * loose, and a change which is not committed.
+     * @param file File.
+     * @return Number of lines of the file.
+     * @throws Exception If git fails.
+     */
+    private int history(final Path file) throws Exception {
+        final File repo = this.folder.getRoot();
+        Files.createDirectories(file.getParent());
+        final List<String> lines = new ArrayList<>(
+            List.of("one", "two", "three", "four", "five", "six")
+        );
+        Files.write(file, lines);
+        this.commit(repo, "Alice Smith", "2020-12-15T14:39:07+02:00");
+        lines.set(1, "TWO");
+        lines.add(4, "four and a half");
+        Files.write(file, lines);
+        this.commit(repo, "Bob (Jr)", "2021-04-01T09:00:00-05:00");
+        GitFixture.run(repo, "gc", "-q");
+        lines.remove(0);
+        lines.set(3, "FOUR");
+        Files.write(file, lines);
+        this.commit(repo, "Carl", "2021-05-01T10:00:00+05:30");
+        lines.add(2, "not committed");
+        Files.write(file, lines);
+        return lines.size();
+    }
+
+    /**
+     * Commits everything in the repository, initializing it if needed.
+     * @param dir Repository.
+     * @param author Author and committer.
+     * @param date Author and commit date.
+     * @throws Exception If git fails.
+     * @checkstyle ParameterNumber (5 lines)
+     */
+    private void commit(final File dir, final String author,
+        final String date) throws Exception {
+        if (!new File(dir, ".git").exists()) {
+            GitFixture.run(dir, "init", "-q");
+        }
+        GitFixture.run(dir, "add", "-A");
+        GitFixture.runAs(dir, author, date, "commit", "-q", "-m", "change");
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Unit tests for {@link LineDiff}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class LineDiffTestCase {
+
+    /**
+     * LineDiff matches the unchanged lines.
+     */
+    @Test
+    public void matchesUnchangedLines() {
+        MatcherAssert.assertThat(
+            new LineDiff(
+                new String[] {"a", "b", "c", "d", "e"},
+                new String[] {"a", "x", "c", "d", "y", "e", "z"}
+            ).matches(),
+            Matchers.equalTo(new int[] {0, -1, 2, 3, -1, 4, -1})
+        );
+    }
+
+    /**
+     * LineDiff finds a longest common subsequence of random texts.
+     */
+    @Test
+    public void findsLongestCommonSubsequence() {
+        final Random random = new Random(42);
+        for (int run = 0; run < 200; ++run) {
+            final String[] old = LineDiffTestCase.text(random);
+            final String[] now = LineDiffTestCase.text(random);
+            final int[] matches = new LineDiff(old, now).matches();
+            int matched = 0;
+            int last = -1;
+            for (int idx = 0; idx < now.length; ++idx) {
+                if (matches[idx] >= 0) {
+                    MatcherAssert.assertThat(
+                        old[matches[idx]], Matchers.equalTo(now[idx])
+                    );
+                    MatcherAssert.assertThat(
+                        matches[idx], Matchers.greaterThan(last)
+                    );
+                    last = matches[idx];
+                    ++matched;
+                }
+            }
+            MatcherAssert.assertThat(
+                matched, Matchers.equalTo(LineDiffTestCase.lcs(old, now))
+            );
+        }
+    }
+
+    /**
+     * Random text of few distinct lines.
+     * @param random Random.
+     * @return Lines.
+     */
+    private static String[] text(final Random random) {
+        final String[] lines = new String[random.nextInt(40)];
+        for (int idx = 0; idx < lines.length; ++idx) {
+            lines[idx] = String.valueOf((char) ('a' + random.nextInt(4)));
+        }
+        return lines;
+    }
+
+    /**
+     * Length of the longest common subsequence, by dynamic programming.
+     * @param old Old lines.
+     * @param now New lines.
+     * @return Length.
+     */
+    private static int lcs(final String[] old, final String[] now) {
+        final int[][] len = new int[old.length + 1][now.length + 1];
+        for (int row = old.length - 1; row >= 0; --row) {
+            for (int col = now.length - 1; col >= 0; --col) {
+                if (old[row].equals(now[col])) {
+                    len[row][col] = len[row + 1][col + 1] + 1;
+                } else {
+                    len[row][col] = Math.max(
+                        len[row + 1][col], len[row][col + 1]
+                    );
+                }
+            }
+        }
+        return len[0][0];
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for {@link LineScanner}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class LineScannerTestCase {
+
+    /**
+     * LineScanner splits the lines as BufferedReader.readLine() does.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void splitsLines() throws IOException {
+        MatcherAssert.assertThat(
+            LineScannerTestCase.lines("a\nbc\r\n\rd\r\n\ne"),
+            Matchers.contains("a", "bc", "", "d", "", "e")
+        );
+        MatcherAssert.assertThat(
+            LineScannerTestCase.lines("a\n\n"), Matchers.contains("a", "")
+        );
+        MatcherAssert.assertThat(
+            LineScannerTestCase.lines(""), Matchers.empty()
+        );
+    }
+
+    /**
+     * LineScanner keeps lines longer than its buffer in one piece, even
+     * when a \r\n is split by a read.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void splitsLongLines() throws IOException {
+        final String longer = "x".repeat(20_000);
+        final String split = "y".repeat(8191);
+        MatcherAssert.assertThat(
+            LineScannerTestCase.lines(
+                longer + "\r\n" + split + "\r\nz\n" + longer
+            ),
+            Matchers.contains(longer, split, "z", longer)
+        );
+    }
+
+    /**
+     * LineScanner counts a tab as 4 columns.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void expandsTabs() throws IOException {
+        final LineScanner line = new LineScanner(
+            new StringReader("\t *\tsome text\t \n")
+        );
+        line.next();
+        MatcherAssert.assertThat(
+            line.expanded(), Matchers.equalTo("     *    some text     ")
+        );
+        MatcherAssert.assertThat(line.index(2), Matchers.equalTo(0));
+        MatcherAssert.assertThat(line.index(5), Matchers.equalTo(2));
+        MatcherAssert.assertThat(line.index(10), Matchers.equalTo(4));
+        MatcherAssert.assertThat(line.index(30), Matchers.equalTo(-1));
+        final StringBuilder text = new StringBuilder();
+        line.appendFrom(7, text);
+        MatcherAssert.assertThat(
+            text.toString(), Matchers.equalTo("   some text")
+        );
+    }
+
+    /**
+     * LineScanner rejects a line longer than the limit.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void rejectsLongLines() throws IOException {
+        final LineScanner line = new LineScanner(
+            new StringReader("short\n" + "x".repeat(20_000)), 10_000
+        );
+        line.next();
+        try {
+            line.next();
+            Assert.fail("QuarantineException expected");
+        } catch (final QuarantineException exception) {
+            MatcherAssert.assertThat(
+                exception.getMessage(),
+                Matchers.equalTo("line 2 is longer than 10000 characters")
+            );
+        }
+    }
+
+    /**
+     * All the lines of the text.
+     * @param text Text.
+     * @return Lines.
+     * @throws IOException If something goes wrong.
+     */
+    private static List<String> lines(final String text) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        final LineScanner line = new LineScanner(new StringReader(text));
+        while (line.next()) {
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+}
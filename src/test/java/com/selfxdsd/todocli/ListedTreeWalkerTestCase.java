@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link ListedTreeWalker}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class ListedTreeWalkerTestCase {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * ListedTreeWalker visits the listed files and directories, within
+     * their parent directories, skipping what the visitor skips and what
+     * does not exist.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void visitsListedPaths() throws IOException {
+        final Path root = this.folder.getRoot().toPath();
+        final Path src = root.resolve("src");
+        Files.createDirectories(src.resolve("deep"));
+        Files.createDirectories(root.resolve("skipped"));
+        Files.createDirectories(root.resolve("whole").resolve("in"));
+        Files.write(src.resolve("deep").resolve("A.java"), List.of("a"));
+        Files.write(src.resolve("B.java"), List.of("b"));
+        Files.write(root.resolve("skipped").resolve("C.java"), List.of("c"));
+        Files.write(
+            root.resolve("whole").resolve("in").resolve("D.java"),
+            List.of("d")
+        );
+        final List<String> visits = new ArrayList<>();
+        new ListedTreeWalker(
+            List.of(
+                "src/deep/A.java", "skipped/C.java", "whole", "Gone.java",
+                "src/B.java"
+            )
+        ).walk(
+            root,
+            new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(
+                    final Path dir, final BasicFileAttributes attrs
+                ) {
+                    visits.add("pre " + root.relativize(dir));
+                    FileVisitResult result = FileVisitResult.CONTINUE;
+                    if (dir.endsWith("skipped")) {
+                        result = FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return result;
+                }
+
+                @Override
+                public FileVisitResult visitFile(
+                    final Path file, final BasicFileAttributes attrs
+                ) {
+                    visits.add(root.relativize(file).toString());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(
+                    final Path dir, final IOException exc
+                ) {
+                    visits.add("post " + root.relativize(dir));
+                    return FileVisitResult.CONTINUE;
+                }
+            }
+        );
+        MatcherAssert.assertThat(
+            visits,
+            Matchers.contains(
+                "pre ", "pre skipped", "pre src", "src/B.java",
+                "pre src/deep", "src/deep/A.java", "post src/deep",
+                "post src", "pre whole", "pre whole/in", "whole/in/D.java",
+                "post whole/in", "post whole", "post "
+            )
+        );
+    }
+
+    /**
+     * ListedTreeWalker feeds a TodoVisitor, which finds the TODOs of the
+     * listed files only.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void findsTodosOfListedFiles() throws IOException {
+        final Path root = this.folder.getRoot().toPath();
+        Files.write(
+            root.resolve("Foo.java"), List.of("// @todo #1:30min Foo", "")
+        );
+        Files.write(
+            root.resolve("Bar.java"), List.of("// @todo #2:30min Bar", "")
+        );
+        final List<Todo> found = new ArrayList<>();
+        new ListedTreeWalker(List.of("Foo.java")).walk(
+            root,
+            new TodoVisitor(
+                new TodosSerializer() {
+                    @Override
+                    public void add(final Todo... todo) {
+                        found.addAll(List.of(todo));
+                    }
+
+                    @Override
+                    public URI serialize() {
+                        return root.toUri();
+                    }
+                },
+                new TodoParser(
+                    new MarkerAutomaton(),
+                    (path, todos) -> Map.of(1, new Attribution("Alice", "1"))
+                ),
+                null, Set.of(), true
+            )
+        );
+        MatcherAssert.assertThat(found, Matchers.hasSize(1));
+        MatcherAssert.assertThat(
+            found.get(0).getTicketID(), Matchers.equalTo("#1")
+        );
+    }
+}
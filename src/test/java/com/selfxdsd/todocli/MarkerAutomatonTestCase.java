@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Unit tests for {@link MarkerAutomaton}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class MarkerAutomatonTestCase {
+
+    /**
+     * MarkerAutomaton finds the default markers.
+     */
+    @Test
+    public void findsDefaultMarkers() {
+        final MarkerAutomaton automaton = new MarkerAutomaton();
+        final String line = "    // @todo #12:30min Do something.";
+        MatcherAssert.assertThat(
+            automaton.find(line, 0, line.length()), Matchers.is(7)
+        );
+        final String fixme = "# FIXME #1:1m";
+        MatcherAssert.assertThat(
+            automaton.find(fixme, 0, fixme.length()), Matchers.is(2)
+        );
+        final String none = "int todo = FIX_ME;";
+        MatcherAssert.assertThat(
+            automaton.find(none, 0, none.length()), Matchers.is(-1)
+        );
+    }
+
+    /**
+     * MarkerAutomaton finds overlapping markers, reporting the one which
+     * ends first.
+     */
+    @Test
+    public void findsOverlappingMarkers() {
+        final MarkerAutomaton automaton = new MarkerAutomaton(
+            List.of("he", "she", "hers")
+        );
+        final String text = "ushers";
+        MatcherAssert.assertThat(
+            automaton.find(text, 0, text.length()), Matchers.is(1)
+        );
+        MatcherAssert.assertThat(
+            automaton.markerAt(text, 2), Matchers.is(4)
+        );
+        MatcherAssert.assertThat(
+            automaton.markerAt(text, 0), Matchers.is(0)
+        );
+    }
+
+    /**
+     * MarkerAutomaton can use a custom vocabulary and scans bytes as well.
+     */
+    @Test
+    public void scansBytesWithCustomMarkers() {
+        final MarkerAutomaton automaton = new MarkerAutomaton(
+            List.of("XXX", "HACK")
+        );
+        final ByteBuffer bytes = ByteBuffer.wrap(
+            "// é ça HACK: remove".getBytes(StandardCharsets.UTF_8)
+        );
+        MatcherAssert.assertThat(
+            automaton.find(bytes, 0, bytes.limit()), Matchers.is(10)
+        );
+        MatcherAssert.assertThat(
+            automaton.find(bytes, 0, 10), Matchers.is(-1)
+        );
+    }
+
+    /**
+     * MarkerAutomaton ignores non-ASCII characters.
+     */
+    @Test
+    public void skipsNonAsciiCharacters() {
+        final MarkerAutomaton automaton = new MarkerAutomaton();
+        final String text = "TOĐO TODO";
+        MatcherAssert.assertThat(
+            automaton.find(text, 0, text.length()), Matchers.is(5)
+        );
+    }
+
+    /**
+     * MarkerAutomaton rejects non-ASCII markers.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonAsciiMarkers() {
+        new MarkerAutomaton(List.of("À FAIRE"));
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Unit tests for {@link MarkerPrefilter}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class MarkerPrefilterTestCase {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * MarkerPrefilter finds the markers in files with TODOs.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void acceptsFilesWithMarkers() throws IOException {
+        final MarkerPrefilter prefilter = new MarkerPrefilter();
+        MatcherAssert.assertThat(
+            prefilter.mayContainTodos(
+                Paths.get("src/test/resources/LegalTodos.java")
+            ),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            prefilter.mayContainTodos(
+                Paths.get("src/test/resources/PythonTodos.py")
+            ),
+            Matchers.is(true)
+        );
+    }
+
+    /**
+     * MarkerPrefilter rejects files without any marker.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void rejectsFilesWithoutMarkers() throws IOException {
+        final MarkerPrefilter prefilter = new MarkerPrefilter();
+        MatcherAssert.assertThat(
+            prefilter.mayContainTodos(
+                Paths.get("src/test/resources/HashMap.java")
+            ),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            prefilter.mayContainTodos(this.folder.newFile().toPath()),
+            Matchers.is(false)
+        );
+    }
+
+    /**
+     * MarkerPrefilter finds a marker split between two chunks.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void findsMarkerAcrossChunks() throws IOException {
+        final Path file = this.folder.newFile().toPath();
+        final StringBuilder content = new StringBuilder(" ".repeat(65534));
+        content.append("@fixme #1:1min");
+        Files.writeString(file, content);
+        MatcherAssert.assertThat(
+            new MarkerPrefilter().mayContainTodos(file),
+            Matchers.is(true)
+        );
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Unit tests for {@link MergedTodosSerializer}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class MergedTodosSerializerTestCase {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * MergedTodosSerializer keeps the previous TODOs of the files which were
+     * not rescanned and drops the others, including the ones below the
+     * rescanned directories.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void replacesTodosOfRescannedFiles() throws IOException {
+        final Path previous = this.folder.newFile("todos.json").toPath();
+        Files.writeString(
+            previous,
+            "[{\"author\":\"Alice\",\"timestamp\":\"2021-04-01\",\"start\":3,"
+                + "\"end\":4,\"originatingTicket\":\"#1\",\"estimatedTime\":30,"
+                + "\"body\":\"Kept\",\"file\":\"src/Foo.java\"},"
+                + "{\"start\":1,\"end\":1,\"originatingTicket\":\"#2\","
+                + "\"estimatedTime\":60,\"body\":\"Old\","
+                + "\"file\":\"Bar.java\"},"
+                + "{\"start\":1,\"end\":1,\"originatingTicket\":\"#3\","
+                + "\"estimatedTime\":60,\"body\":\"Moved\","
+                + "\"file\":\"old/Baz.java\"}]"
+        );
+        final List<Todo> merged = new ArrayList<>();
+        final TodosSerializer origin = new TodosSerializer() {
+            @Override
+            public void add(final Todo... todo) {
+                merged.addAll(List.of(todo));
+            }
+
+            @Override
+            public URI serialize() {
+                return previous.toUri();
+            }
+        };
+        final Todo found = new Todo(2, 2, "#2", 90);
+        found.setPath("Bar.java");
+        final TodosSerializer serializer = new MergedTodosSerializer(
+            origin, previous, () -> Set.of("Bar.java", "Gone.java", "old")
+        );
+        serializer.add(found);
+        serializer.serialize();
+        MatcherAssert.assertThat(
+            merged.stream().map(Todo::getTicketID)
+                .collect(Collectors.toList()),
+            Matchers.containsInAnyOrder("#1", "#2")
+        );
+        final Todo kept = merged.stream()
+            .filter(todo -> "#1".equals(todo.getTicketID()))
+            .findFirst().get();
+        MatcherAssert.assertThat(kept.getPath(), Matchers.is("src/Foo.java"));
+        MatcherAssert.assertThat(kept.getAuthor(), Matchers.is("Alice"));
+        MatcherAssert.assertThat(kept.getEnd(), Matchers.is(4));
+        MatcherAssert.assertThat(merged, Matchers.hasItem(found));
+    }
+}
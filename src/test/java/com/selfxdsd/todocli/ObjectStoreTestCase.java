@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Unit tests for {@link ObjectStore}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class ObjectStoreTestCase {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * ObjectStore finds the objects packed after it opened the packs, e.g.
+     * by git gc, which also removes them from the loose objects.
+     *
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void findsObjectsPackedLater() throws Exception {
+        final File repo = this.folder.getRoot();
+        GitFixture.run(repo, "init", "-q");
+        Files.write(repo.toPath().resolve("Foo.java"), List.of("class Foo"));
+        GitFixture.run(repo, "add", "-A");
+        GitFixture.run(repo, "commit", "-q", "-m", "first");
+        final GitRepository git = GitRepository.find(repo.toPath());
+        final ObjectStore store = new ObjectStore(
+            git.gitDir().resolve("objects")
+        );
+        MatcherAssert.assertThat(
+            store.object(git.resolve("HEAD"), GitObject.COMMIT),
+            Matchers.notNullValue()
+        );
+        Files.write(repo.toPath().resolve("Foo.java"), List.of("class Bar"));
+        GitFixture.run(repo, "commit", "-q", "-a", "-m", "second");
+        GitFixture.run(repo, "gc", "-q");
+        final Path loose = git.gitDir().resolve("objects").resolve(
+            git.resolve("HEAD").substring(0, 2)
+        );
+        MatcherAssert.assertThat(Files.exists(loose), Matchers.is(false));
+        MatcherAssert.assertThat(
+            new GitCommit(
+                store.object(git.resolve("HEAD"), GitObject.COMMIT).data()
+            ).tree(),
+            Matchers.notNullValue()
+        );
+    }
+}
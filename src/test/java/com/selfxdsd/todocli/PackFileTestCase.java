@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Unit tests for {@link PackFile}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class PackFileTestCase {
+
+    /**
+     * Names of the object types.
+     */
+    private static final String[] TYPES = {
+        "", "commit", "tree", "blob", "tag",
+    };
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * PackFile reads every object of a pack full of deltas, from many
+     * threads at once, with a tiny delta base cache.
+     *
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void readsAllObjectsConcurrently() throws Exception {
+        final PackFile pack = new PackFile(
+            this.packed(), new DeltaBaseCache(4096)
+        );
+        MatcherAssert.assertThat(pack.count(), Matchers.equalTo(90));
+        final ExecutorService threads = Executors.newFixedThreadPool(4);
+        final List<Future<Integer>> readers = new ArrayList<>();
+        for (int thread = 0; thread < 4; ++thread) {
+            readers.add(threads.submit(() -> this.verify(pack)));
+        }
+        for (final Future<Integer> reader : readers) {
+            MatcherAssert.assertThat(reader.get(), Matchers.equalTo(0));
+        }
+        threads.shutdown();
+    }
+
+    /**
+     * PackFile reads the objects spanning the segments the pack is mapped
+     * in, even when their headers do.
+     *
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void readsAcrossSegments() throws Exception {
+        final Path idx = this.packed();
+        for (final int segment : new int[] {7, 61, 4096}) {
+            MatcherAssert.assertThat(
+                this.verify(
+                    new PackFile(idx, new DeltaBaseCache(4096), segment)
+                ),
+                Matchers.equalTo(0)
+            );
+        }
+    }
+
+    /**
+     * PackFile does not find the objects which are not in the pack.
+     *
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void missesUnknownObjects() throws Exception {
+        final PackFile pack = new PackFile(
+            this.packed(), new DeltaBaseCache()
+        );
+        MatcherAssert.assertThat(
+            pack.object(ObjectStore.bytes("00" + "1".repeat(38))),
+            Matchers.nullValue()
+        );
+        MatcherAssert.assertThat(
+            pack.object(ObjectStore.bytes("ff" + "1".repeat(38))),
+            Matchers.nullValue()
+        );
+    }
+
+    /**
+     * Reads every object of the pack and checks its id.
+     * @param pack Pack.
+     * @return Number of objects which do not match their id.
+     * @throws Exception If something goes wrong.
+     */
+    private int verify(final PackFile pack) throws Exception {
+        int wrong = 0;
+        for (int nth = 0; nth < pack.count(); ++nth) {
+            final String id = pack.name(nth);
+            final GitObject object = pack.object(ObjectStore.bytes(id));
+            final MessageDigest sha = MessageDigest.getInstance("SHA-1");
+            sha.update(
+                String.format(
+                    "%s %d\0", TYPES[object.type()], object.data().length
+                ).getBytes(StandardCharsets.US_ASCII)
+            );
+            if (!ObjectStore.hex(sha.digest(object.data()), 0).equals(id)) {
+                ++wrong;
+            }
+        }
+        return wrong;
+    }
+
+    /**
+     * Creates a repository with many versions of a file, packed
+     * aggressively, so most of them are deltas.
+     * @return The .idx file.
+     * @throws Exception If git fails.
+     */
+    private Path packed() throws Exception {
+        final File repo = this.folder.getRoot();
+        GitFixture.run(repo, "init", "-q");
+        final List<String> lines = new ArrayList<>();
+        for (int version = 0; version < 30; ++version) {
+            lines.add(String.format("line %d of a growing file", version));
+            lines.set(version / 2, String.format("changed in %d", version));
+            Files.write(repo.toPath().resolve("Foo.java"), lines);
+            GitFixture.run(repo, "add", "-A");
+            GitFixture.run(repo, "commit", "-q", "-m", String.valueOf(version));
+        }
+        GitFixture.run(repo, "gc", "-q", "--aggressive");
+        final Path idx;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(
+            repo.toPath().resolve(".git/objects/pack"), "*.idx"
+        )) {
+            idx = files.iterator().next();
+        }
+        return idx;
+    }
+}
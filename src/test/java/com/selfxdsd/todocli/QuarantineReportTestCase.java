@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link QuarantineReport}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class QuarantineReportTestCase {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * QuarantineReport writes the quarantined files with their reason,
+     * sorted by path, and deletes the file once none is quarantined.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void writesQuarantinedFiles() throws IOException {
+        final Path file = this.folder.getRoot().toPath()
+            .resolve("quarantined.json");
+        final QuarantineReport report = new QuarantineReport(file);
+        report.write(Map.of("b.min.js", "Line 1 is too long.", "a.c", "Slow."));
+        final JsonArray json = QuarantineReportTestCase.read(file);
+        MatcherAssert.assertThat(json.size(), Matchers.is(2));
+        MatcherAssert.assertThat(
+            json.getJsonObject(0).getString("file"), Matchers.is("a.c")
+        );
+        MatcherAssert.assertThat(
+            json.getJsonObject(1).getString("reason"),
+            Matchers.is("Line 1 is too long.")
+        );
+        report.write(Map.of());
+        MatcherAssert.assertThat(Files.exists(file), Matchers.is(false));
+    }
+
+    /**
+     * QuarantineReport keeps the previous entries of the files which were
+     * not rescanned, and drops the others, including the ones below the
+     * rescanned directories.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void keepsFilesNotRescanned() throws IOException {
+        final Path file = this.folder.getRoot().toPath()
+            .resolve("quarantined.json");
+        new QuarantineReport(file).write(
+            Map.of("Kept.java", "Slow.", "Fixed.java", "Slow.",
+                "old/Gone.java", "Slow.", "Again.java", "Slow.")
+        );
+        new QuarantineReport(
+            file, () -> Set.of("Fixed.java", "old", "Again.java")
+        ).write(Map.of("Again.java", "Line 2 is too long."));
+        final JsonArray json = QuarantineReportTestCase.read(file);
+        MatcherAssert.assertThat(json.size(), Matchers.is(2));
+        MatcherAssert.assertThat(
+            json.getJsonObject(0).getString("file"), Matchers.is("Again.java")
+        );
+        MatcherAssert.assertThat(
+            json.getJsonObject(0).getString("reason"),
+            Matchers.is("Line 2 is too long.")
+        );
+        MatcherAssert.assertThat(
+            json.getJsonObject(1).getString("file"), Matchers.is("Kept.java")
+        );
+    }
+
+    /**
+     * Reads the quarantined.json file.
+     * @param file The file.
+     * @return Its array.
+     * @throws IOException If it cannot be read.
+     */
+    private static JsonArray read(final Path file) throws IOException {
+        final JsonArray array;
+        try (JsonReader reader = Json.createReader(
+            Files.newBufferedReader(file)
+        )) {
+            array = reader.readArray();
+        }
+        return array;
+    }
+}
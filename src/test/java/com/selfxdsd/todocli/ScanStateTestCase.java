@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+/**
+ * Unit tests for {@link ScanState}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class ScanStateTestCase {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * ScanState gives back the TODOs of the files which did not change,
+     * even if they were touched, but not of the changed ones.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void reusesUnchangedFiles() throws IOException {
+        final Path state = this.folder.getRoot().toPath().resolve("state");
+        final Path file = this.folder.newFile("Foo.java").toPath();
+        Files.writeString(file, "// TODO #12:30min Fix it.\n");
+        final Todo todo = new Todo(1, 1, "#12", 30, "Fix it.");
+        todo.setPath(file.toString());
+        todo.setAuthor("Bob (Jr)");
+        todo.setTimestamp("2021-04-01 09:00:00 -0500");
+        final ScanState first = ScanState.load(state, "TODO", "abc");
+        first.record(
+            file, this.attrs(file), TodoSource.read(file), List.of(todo)
+        );
+        first.save();
+        Files.setLastModifiedTime(
+            file, FileTime.fromMillis(System.currentTimeMillis() + 10_000)
+        );
+        final List<Todo> reused = ScanState.load(state, "TODO", "abc")
+            .reuse(file, this.attrs(file));
+        MatcherAssert.assertThat(reused, Matchers.contains(todo));
+        MatcherAssert.assertThat(
+            reused.get(0).getAuthor(), Matchers.equalTo("Bob (Jr)")
+        );
+        MatcherAssert.assertThat(
+            ScanState.load(state, "FIXME", "abc")
+                .reuse(file, this.attrs(file)),
+            Matchers.nullValue()
+        );
+        Files.writeString(file, "// TODO #13:30min Fix it.\n");
+        MatcherAssert.assertThat(
+            ScanState.load(state, "TODO", "abc")
+                .reuse(file, this.attrs(file)),
+            Matchers.nullValue()
+        );
+    }
+
+    /**
+     * ScanState parses again the files with markers but no TODOs when HEAD
+     * moved: their TODOs may be committed now.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void forgetsUnblamedFilesWhenHeadMoves() throws IOException {
+        final Path state = this.folder.getRoot().toPath().resolve("state");
+        final Path file = this.folder.newFile("Bar.java").toPath();
+        Files.writeString(file, "// TODO #12:30min Not tracked.\n");
+        final Path plain = this.folder.newFile("Baz.java").toPath();
+        Files.writeString(plain, "class Baz {}\n");
+        final ScanState first = ScanState.load(state, "TODO", "abc");
+        first.record(
+            file, this.attrs(file), TodoSource.read(file), List.of()
+        );
+        first.record(plain, this.attrs(plain), null, List.of());
+        first.save();
+        final ScanState moved = ScanState.load(state, "TODO", "def");
+        MatcherAssert.assertThat(
+            moved.reuse(file, this.attrs(file)), Matchers.nullValue()
+        );
+        MatcherAssert.assertThat(
+            moved.reuse(plain, this.attrs(plain)), Matchers.empty()
+        );
+    }
+
+    /**
+     * Attributes of a file.
+     * @param file File.
+     * @return Attributes.
+     * @throws IOException If they cannot be read.
+     */
+    private BasicFileAttributes attrs(final Path file) throws IOException {
+        return Files.readAttributes(file, BasicFileAttributes.class);
+    }
+}
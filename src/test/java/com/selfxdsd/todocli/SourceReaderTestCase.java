@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Unit tests for {@link SourceReader}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class SourceReaderTestCase {
+
+    /**
+     * Some text with characters of 1, 2, 3 and 4 bytes in UTF-8.
+     */
+    private static final String TEXT =
+        "a \u00e9 \u20ac \ud83d\ude00 // TODO #1:1min b";
+
+    /**
+     * SourceReader reads UTF-8 as the JDK does, even when a character
+     * is split by the end of its buffer or by a read.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void readsUtf() throws IOException {
+        for (int pad = 8185; pad < 8192; ++pad) {
+            final String text = "x".repeat(pad) + SourceReaderTestCase.TEXT;
+            final SourceReader reader = SourceReaderTestCase.reader(
+                text, StandardCharsets.UTF_8
+            );
+            MatcherAssert.assertThat(
+                SourceReaderTestCase.read(reader, 3), Matchers.equalTo(text)
+            );
+            MatcherAssert.assertThat(
+                reader.charset(), Matchers.equalTo(StandardCharsets.UTF_8)
+            );
+        }
+        MatcherAssert.assertThat(
+            SourceReaderTestCase.read(
+                SourceReaderTestCase.reader(
+                    SourceReaderTestCase.TEXT, StandardCharsets.UTF_8
+                ),
+                1
+            ),
+            Matchers.equalTo(SourceReaderTestCase.TEXT)
+        );
+    }
+
+    /**
+     * SourceReader takes the byte order marks into account and skips them.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void readsByteOrderMarks() throws IOException {
+        final Charset[] charsets = {
+            StandardCharsets.UTF_8,
+            StandardCharsets.UTF_16BE,
+            StandardCharsets.UTF_16LE,
+        };
+        for (final Charset charset : charsets) {
+            final SourceReader reader = SourceReaderTestCase.reader(
+                "\ufeff" + SourceReaderTestCase.TEXT, charset
+            );
+            MatcherAssert.assertThat(
+                SourceReaderTestCase.read(reader, 2),
+                Matchers.equalTo(SourceReaderTestCase.TEXT)
+            );
+            MatcherAssert.assertThat(
+                reader.charset(), Matchers.equalTo(charset)
+            );
+        }
+    }
+
+    /**
+     * SourceReader reads the rest of a file as ISO-8859-1 from its first
+     * byte which is not valid UTF-8.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void fallsBackToLatin() throws IOException {
+        final byte[][] invalid = {
+            {(byte) 0xE9, 'x'},
+            {(byte) 0xC0, (byte) 0xAF},
+            {(byte) 0xED, (byte) 0xA0, (byte) 0x80},
+            {(byte) 0xF4, (byte) 0x90, (byte) 0x80, (byte) 0x80},
+            {(byte) 0xE2, (byte) 0x82},
+        };
+        for (final byte[] bytes : invalid) {
+            final byte[] prefixed = new byte[bytes.length + 3];
+            prefixed[0] = (byte) 0xC3;
+            prefixed[1] = (byte) 0xA9;
+            prefixed[2] = 'a';
+            System.arraycopy(bytes, 0, prefixed, 3, bytes.length);
+            final SourceReader reader = new SourceReader(
+                new ByteArrayInputStream(prefixed)
+            );
+            MatcherAssert.assertThat(
+                SourceReaderTestCase.read(reader, 4),
+                Matchers.equalTo(
+                    "\u00e9a" + new String(bytes, StandardCharsets.ISO_8859_1)
+                )
+            );
+            MatcherAssert.assertThat(
+                reader.charset(),
+                Matchers.equalTo(StandardCharsets.ISO_8859_1)
+            );
+        }
+    }
+
+    /**
+     * SourceReader reads nothing from an empty file, and closes its input.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void readsEmptyFiles() throws IOException {
+        final boolean[] closed = new boolean[1];
+        final InputStream input = new ByteArrayInputStream(new byte[0]) {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        try (SourceReader reader = new SourceReader(input)) {
+            MatcherAssert.assertThat(reader.read(), Matchers.equalTo(-1));
+        }
+        MatcherAssert.assertThat(closed[0], Matchers.is(true));
+    }
+
+    /**
+     * SourceReader over the given text.
+     * @param text Text.
+     * @param charset Charset of its bytes.
+     * @return Reader.
+     */
+    private static SourceReader reader(
+        final String text, final Charset charset
+    ) {
+        return new SourceReader(
+            new ByteArrayInputStream(text.getBytes(charset))
+        );
+    }
+
+    /**
+     * Reads all the characters of the reader.
+     * @param reader Reader.
+     * @param size How many characters to read at once.
+     * @return Characters.
+     * @throws IOException If something goes wrong.
+     */
+    private static String read(final SourceReader reader, final int size)
+        throws IOException {
+        final StringBuilder text = new StringBuilder();
+        final char[] chars = new char[size];
+        int read = reader.read(chars);
+        while (read >= 0) {
+            text.append(chars, 0, read);
+            read = reader.read(chars);
+        }
+        return text.toString();
+    }
+}
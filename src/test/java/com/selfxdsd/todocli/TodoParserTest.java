@@ -24,10 +24,15 @@ package com.selfxdsd.todocli;
 
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -322,4 +327,176 @@ public final class TodoParserTest {
             todos.get(2).getBody()
         );
     }
+
+    /**
+     * TodoParser pushes to the sink the same TODOs it returns, in the same
+     * order, and gives up on the file if the sink fails.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void pushesTodosToSink() throws IOException {
+        final String path = "src/test/resources/LegalTodos.java";
+        final TodoParser parser = new TodoParser();
+        final List<Todo> pushed = new ArrayList<>();
+        parser.parse(path, pushed::add);
+        final List<Todo> todos = parser.parse(path);
+        MatcherAssert.assertThat(pushed, Matchers.hasSize(todos.size()));
+        for (int idx = 0; idx < todos.size(); ++idx) {
+            assertTrue(compareTodos(todos.get(idx), pushed.get(idx)));
+        }
+        final AtomicInteger accepted = new AtomicInteger();
+        try {
+            parser.parse(
+                path,
+                todo -> {
+                    accepted.incrementAndGet();
+                    throw new IOException("full");
+                }
+            );
+            Assert.fail("IOException expected");
+        } catch (final IOException exception) {
+            MatcherAssert.assertThat(accepted.get(), Matchers.equalTo(1));
+        }
+    }
+
+    /**
+     * TodoParser gives up a file with a too long line, or taking too much
+     * CPU time, keeping the TODOs found before.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void quarantinesCostlyFiles() throws IOException {
+        final String text = String.join(
+            "\n", "// TODO #1:1min Before.", "int a;", "x".repeat(200), ""
+        );
+        final List<Todo> pushed = new ArrayList<>();
+        try {
+            new TodoParser(
+                new MarkerAutomaton(), null, 100, TodoParser.BUDGET
+            ).parse(
+                TodoSource.bytes("Long.java", text.getBytes()), pushed::add
+            );
+            Assert.fail("QuarantineException expected");
+        } catch (final QuarantineException exception) {
+            MatcherAssert.assertThat(
+                exception.getMessage(),
+                Matchers.equalTo("line 3 is longer than 100 characters")
+            );
+        }
+        MatcherAssert.assertThat(pushed, Matchers.hasSize(1));
+        try {
+            new TodoParser(
+                new MarkerAutomaton(), null, TodoParser.MAX_LINE,
+                Duration.ZERO
+            ).parse(
+                TodoSource.bytes(
+                    "Many.java",
+                    "// TODO\n".repeat(5000).getBytes()
+                ),
+                pushed::add
+            );
+            Assert.fail("QuarantineException expected");
+        } catch (final QuarantineException exception) {
+            MatcherAssert.assertThat(
+                exception.getMessage(), Matchers.containsString("CPU time")
+            );
+        }
+    }
+
+    /**
+     * TodoParser reads estimates in hours and shares the ticket ids.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void readsHoursAndSharesTickets() throws IOException {
+        final TodoParser parser = new TodoParser(
+            new MarkerAutomaton(), (Attributions) null
+        );
+        final List<Todo> first = parser.parse(
+            "A.java", "// TODO #42:2h In hours.\nint a;\n".getBytes()
+        );
+        final List<Todo> second = parser.parse(
+            "B.java",
+            String.join(
+                "\n", "// FIXME #42:5mins In minutes.",
+                "// TODO #43:99999999999m Too long.", "int b;", ""
+            ).getBytes()
+        );
+        MatcherAssert.assertThat(first, Matchers.hasSize(1));
+        MatcherAssert.assertThat(second, Matchers.hasSize(1));
+        MatcherAssert.assertThat(
+            first.get(0).getEstimatedTime(), Matchers.equalTo(120)
+        );
+        MatcherAssert.assertThat(
+            second.get(0).getEstimatedTime(), Matchers.equalTo(5)
+        );
+        MatcherAssert.assertThat(
+            first.get(0).getTicketID(),
+            Matchers.sameInstance(second.get(0).getTicketID())
+        );
+    }
+
+    /**
+     * TodoParser looks for TODOs only in the comments, so neither a string
+     * nor the code following a TODO is taken for one.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void looksOnlyInComments() throws IOException {
+        final List<Todo> todos = new TodoParser(
+            new MarkerAutomaton(), (Attributions) null
+        ).parse(
+            "Foo.java",
+            String.join(
+                "\n",
+                "class Foo {",
+                "    String s = \"\"\"",
+                "        TODO #1:1min Not a TODO.",
+                "        \"\"\";",
+                "    // TODO #2:2min A TODO.",
+                "    void bar() {}",
+                "}",
+                ""
+            ).getBytes()
+        );
+        MatcherAssert.assertThat(todos, Matchers.hasSize(1));
+        MatcherAssert.assertThat(
+            todos.get(0).getBody(), Matchers.equalTo("A TODO.")
+        );
+    }
+
+    /**
+     * TodoParser reads the files in UTF-16, with their byte order mark,
+     * and in ISO-8859-1, which is not valid UTF-8.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void readsOtherCharsets() throws IOException {
+        final TodoParser parser = new TodoParser(
+            new MarkerAutomaton(), (Attributions) null
+        );
+        final String text = "// TODO #1:1min Caf\u00e9 \u20ac.\nint a;\n";
+        final List<Todo> wide = parser.parse(
+            "A.java", ("\ufeff" + text).getBytes(StandardCharsets.UTF_16LE)
+        );
+        final List<Todo> latin = parser.parse(
+            "B.java",
+            "// TODO #2:1min Caf\u00e9.\nint b;\n".getBytes(
+                StandardCharsets.ISO_8859_1
+            )
+        );
+        MatcherAssert.assertThat(wide, Matchers.hasSize(1));
+        MatcherAssert.assertThat(
+            wide.get(0).getBody(), Matchers.equalTo("Caf\u00e9 \u20ac.")
+        );
+        MatcherAssert.assertThat(latin, Matchers.hasSize(1));
+        MatcherAssert.assertThat(
+            latin.get(0).getBody(), Matchers.equalTo("Caf\u00e9.")
+        );
+    }
 }
@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests for {@link TodoRecognizer}, against the regex it replaced.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class TodoRecognizerTestCase {
+
+    /**
+     * The TODO regex, as TodoParser used it before the recognizer, with
+     * the hours.
+     */
+    private static final Pattern ORACLE = Pattern.compile(
+        "(@todo|TODO|@fixme|FIXME)\\s*(#\\d+:(\\d+)(m|min|mins|h))\\b(.*)$"
+    );
+
+    /**
+     * Pieces of the generated lines.
+     */
+    private static final List<String> PIECES = List.of(
+        "TODO", "@todo", "FIXME", "@fixme", "TOD", "#", ":", "1", "42",
+        "m", "min", "mins", "h", "s", "_", "x", " ", "\t", "*", "//", "-",
+        "2147483647", "35791394",
+        "\u2028", "\u0085", "\r", "\n", ""
+    );
+
+    /**
+     * What the generated lines look like, mostly: a TODO, between
+     * anything.
+     */
+    private static final List<String> TEMPLATE = List.of(
+        "", "TODO", " ", "#", "12", ":", "3", "", "min", " ", "body", ""
+    );
+
+    /**
+     * TodoRecognizer finds the parts of a TODO.
+     */
+    @Test
+    public void recognizesTodos() {
+        final TodoRecognizer todo = new TodoRecognizer(new MarkerAutomaton());
+        final String line = " * @todo \t#123:45min  the body ";
+        MatcherAssert.assertThat(todo.recognize(line, 3), Matchers.is(true));
+        MatcherAssert.assertThat(todo.start(), Matchers.equalTo(3));
+        MatcherAssert.assertThat(
+            line.substring(todo.headerStart(), todo.headerEnd()),
+            Matchers.equalTo("#123:45min")
+        );
+        MatcherAssert.assertThat(
+            line.substring(todo.bodyStart(), todo.bodyEnd()),
+            Matchers.equalTo("  the body ")
+        );
+        MatcherAssert.assertThat(
+            todo.recognize("TODO #1:2mx", 0), Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            todo.recognize("FIXME #7:3h hours", 0), Matchers.is(true)
+        );
+        MatcherAssert.assertThat(todo.estimate(), Matchers.equalTo(180));
+        MatcherAssert.assertThat(
+            todo.recognize("TODO #1:2147483648m overflows", 0),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            todo.recognize("TODO #1:35791395h overflows", 0),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            todo.recognize("TODO #1:2m body\u2028end", 0), Matchers.is(false)
+        );
+    }
+
+    /**
+     * TodoRecognizer agrees with the regex on every line of the fixtures,
+     * from every index.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void agreesWithRegexOnFixtures() throws IOException {
+        final List<Path> files;
+        try (Stream<Path> found = Files.walk(Paths.get("src/test/resources"))) {
+            files = found.filter(Files::isRegularFile)
+                .collect(Collectors.toList());
+        }
+        for (final Path file : files) {
+            final String text = new String(
+                Files.readAllBytes(file), StandardCharsets.UTF_8
+            );
+            for (final String line : text.split("\r?\n")) {
+                TodoRecognizerTestCase.agree(line);
+            }
+        }
+    }
+
+    /**
+     * TodoRecognizer agrees with the regex on generated lines, which are
+     * TODOs with random pieces changed.
+     */
+    @Test
+    public void agreesWithRegexOnGeneratedLines() {
+        final Random random = new Random(20_210_401L);
+        for (int count = 0; count < 20_000; ++count) {
+            final StringBuilder line = new StringBuilder();
+            for (final String slot : TEMPLATE) {
+                if (random.nextInt(4) == 0) {
+                    line.append(PIECES.get(random.nextInt(PIECES.size())));
+                } else {
+                    line.append(slot);
+                }
+            }
+            TodoRecognizerTestCase.agree(line.toString());
+        }
+    }
+
+    /**
+     * Checks that the recognizer and the regex say the same, from every
+     * index of the line.
+     * @param line Line.
+     */
+    private static void agree(final String line) {
+        final TodoRecognizer todo = new TodoRecognizer(new MarkerAutomaton());
+        for (int start = 0; start < line.length(); ++start) {
+            final Matcher matcher = ORACLE.matcher(line)
+                .region(start, line.length());
+            final boolean expected = matcher.lookingAt()
+                && TodoRecognizerTestCase.minutes(matcher) <= Integer.MAX_VALUE;
+            MatcherAssert.assertThat(
+                line, todo.recognize(line, start), Matchers.is(expected)
+            );
+            if (expected) {
+                MatcherAssert.assertThat(
+                    line,
+                    List.of(
+                        todo.start(), todo.headerStart(), todo.headerEnd(),
+                        todo.bodyStart(), todo.bodyEnd(),
+                        todo.ticketEnd() + 1, todo.estimate()
+                    ),
+                    Matchers.contains(
+                        matcher.start(1), matcher.start(2), matcher.end(2),
+                        matcher.start(5), matcher.end(5), matcher.start(3),
+                        (int) TodoRecognizerTestCase.minutes(matcher)
+                    )
+                );
+            }
+        }
+    }
+
+    /**
+     * The estimate the regex matched, in minutes.
+     * @param matcher Matcher, which matched.
+     * @return Minutes, more than an int can hold if they do not fit.
+     */
+    private static long minutes(final Matcher matcher) {
+        final BigInteger minutes = new BigInteger(matcher.group(3)).multiply(
+            BigInteger.valueOf(TodoRecognizerTestCase.unit(matcher.group(4)))
+        );
+        return minutes.min(BigInteger.valueOf(Long.MAX_VALUE)).longValue();
+    }
+
+    /**
+     * Minutes in the unit.
+     * @param unit Unit.
+     * @return Minutes.
+     */
+    private static int unit(final String unit) {
+        int minutes = 1;
+        if ("h".equals(unit)) {
+            minutes = 60;
+        }
+        return minutes;
+    }
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Unit tests for {@link TodoSource}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class TodoSourceTestCase {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Content of the parsed file.
+     */
+    private static final byte[] CONTENT = String.join(
+        "\n",
+        "class Foo {",
+        "    /*",
+        "     * @todo #1:30min First one,",
+        "     *  on two lines.",
+        "     */",
+        "    // TODO #2:60min Second one.",
+        "}",
+        ""
+    ).getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * The same TODOs are found in the bytes, a slice of a buffer, a stream
+     * and a channel, without attributions.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void parsesAnyContent() throws IOException {
+        final ByteBuffer padded = ByteBuffer.allocate(CONTENT.length + 8);
+        padded.position(4);
+        padded.put(CONTENT);
+        padded.position(4).limit(4 + CONTENT.length);
+        final List<TodoSource> sources = List.of(
+            TodoSource.bytes("Foo.java", CONTENT),
+            TodoSource.bytes("Foo.java", padded),
+            TodoSource.stream("Foo.java", new ByteArrayInputStream(CONTENT)),
+            TodoSource.channel(
+                "Foo.java",
+                Channels.newChannel(new ByteArrayInputStream(CONTENT))
+            )
+        );
+        final TodoParser parser = new TodoParser(
+            new MarkerAutomaton(), (Attributions) null
+        );
+        for (final TodoSource source : sources) {
+            final List<Todo> todos = new ArrayList<>();
+            parser.parse(source, todos::add);
+            MatcherAssert.assertThat(
+                todos.stream().map(Todo::getBody)
+                    .collect(Collectors.toList()),
+                Matchers.contains("First one, on two lines.", "Second one.")
+            );
+            MatcherAssert.assertThat(
+                todos.get(0).getPath(), Matchers.equalTo("Foo.java")
+            );
+            MatcherAssert.assertThat(
+                todos.get(0).getAuthor(), Matchers.nullValue()
+            );
+        }
+        MatcherAssert.assertThat(padded.position(), Matchers.equalTo(4));
+    }
+
+    /**
+     * Content without any marker is not parsed.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void skipsContentWithoutMarkers() throws IOException {
+        final TodoSource source = TodoSource.bytes(
+            "Bar.java", "class Bar {}\n".getBytes(StandardCharsets.UTF_8)
+        );
+        MatcherAssert.assertThat(
+            source.mayContainTodos(new MarkerPrefilter()), Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            TodoSource.stream("Bar.java", new ByteArrayInputStream(CONTENT))
+                .mayContainTodos(new MarkerPrefilter()),
+            Matchers.is(true)
+        );
+    }
+
+    /**
+     * A file already checked for markers is not checked again, and it is
+     * read and hashed once.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void readsCheckedFilesOnce() throws IOException {
+        final Path file = this.folder.newFile("Bar.java").toPath();
+        Files.writeString(file, "class Bar {}\n");
+        MatcherAssert.assertThat(
+            TodoSource.file(file).mayContainTodos(new MarkerPrefilter()),
+            Matchers.is(false)
+        );
+        final TodoSource source = TodoSource.read(file);
+        Files.delete(file);
+        MatcherAssert.assertThat(
+            source.mayContainTodos(new MarkerPrefilter()),
+            Matchers.is(true)
+        );
+        try (InputStream input = source.open()) {
+            MatcherAssert.assertThat(
+                new String(input.readAllBytes(), StandardCharsets.UTF_8),
+                Matchers.equalTo("class Bar {}\n")
+            );
+        }
+        MatcherAssert.assertThat(
+            source.blobId(),
+            Matchers.equalTo(
+                GitObject.blobId(
+                    "class Bar {}\n".getBytes(StandardCharsets.UTF_8)
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            TodoSource.file(file).blobId(), Matchers.nullValue()
+        );
+    }
+}
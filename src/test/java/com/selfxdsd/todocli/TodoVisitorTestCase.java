@@ -22,15 +22,20 @@
  */
 package com.selfxdsd.todocli;
 
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Objects;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Unit tests for {@link TodoVisitor}.
@@ -41,27 +46,29 @@ import java.util.Objects;
  */
 public final class TodoVisitorTestCase {
 
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
     /**
      * TodoVisitor should call {@link TodosSerializer#serialize()} once
      * the files and sub-folders scanning has finished.
      *
-     * @throws IOException        If something goes wrong.
-     * @throws URISyntaxException If something goes wrong.
+     * @throws IOException If something goes wrong.
      */
     @Test
-    public void callsSerializeOnce() throws IOException, URISyntaxException {
+    public void callsSerializeOnce() throws IOException {
         final TodosSerializer serializer = Mockito.mock(TodosSerializer.class);
-        final URI root = Objects.requireNonNull(
-                TodoVisitorTestCase.class
-                        .getClassLoader()
-                        .getResource(".")
-        ).toURI();
-        Files.walkFileTree(Path.of(root), new TodoVisitor(serializer, null));
+        Files.walkFileTree(Path.of("src/test/resources"),
+                new TodoVisitor(serializer, null));
 
         Mockito.verify(serializer, Mockito.times(1))
                 .serialize();
         Mockito.verify(serializer, Mockito.atLeast(1))
-                .addAll(Mockito.anyCollection());
+                .add(Mockito.any(Todo.class));
     }
 
     /**
@@ -78,6 +85,116 @@ public final class TodoVisitorTestCase {
         Mockito.verify(serializer, Mockito.times(1))
                 .serialize();
         Mockito.verify(serializer, Mockito.atLeast(1))
-                .addAll(Mockito.anyCollection());
+                .add(Mockito.any(Todo.class));
+    }
+
+    /**
+     * TodoVisitor skips the VCS metadata directories and the excluded ones,
+     * without parsing any of their files.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void skipsVcsAndExcludedDirectories() throws IOException {
+        final Path root = this.folder.getRoot().toPath();
+        final Path objects = root.resolve(".git/objects/ab");
+        Files.createDirectories(objects);
+        Files.writeString(objects.resolve("cdef"), "// TODO #1:1min Git.");
+        Files.createDirectories(root.resolve(".svn"));
+        Files.createDirectories(root.resolve("vendor/lib"));
+        Files.writeString(
+            root.resolve("vendor/lib/Lib.java"), "// TODO #2:2min Lib."
+        );
+        final List<Todo> added = new CopyOnWriteArrayList<>();
+        final TodoVisitor visitor = new TodoVisitor(
+            this.collecting(added), null, List.of("vendor"), true
+        );
+        Files.walkFileTree(root, visitor);
+        MatcherAssert.assertThat(visitor.skippedDirectories(), Matchers.is(3));
+        MatcherAssert.assertThat(added, Matchers.empty());
+    }
+
+    /**
+     * TodoVisitor quarantines the files which are too costly to parse and
+     * still parses the others.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void quarantinesCostlyFiles() throws IOException {
+        final Path root = this.folder.getRoot().toPath();
+        Files.writeString(
+            root.resolve("bundle.min.js"), "// TODO\n" + "x".repeat(2000)
+        );
+        Files.writeString(
+            root.resolve("App.java"), "// TODO #1:1min Fine.\nint a;\n"
+        );
+        final List<Todo> added = new CopyOnWriteArrayList<>();
+        final TodoVisitor visitor = new TodoVisitor(
+            this.collecting(added),
+            new TodoParser(
+                new MarkerAutomaton(), null, 1000, TodoParser.BUDGET
+            ),
+            null, List.of(), true
+        );
+        Files.walkFileTree(root, visitor);
+        MatcherAssert.assertThat(added, Matchers.hasSize(1));
+        MatcherAssert.assertThat(
+            visitor.quarantined(),
+            Matchers.hasEntry(
+                root.resolve("bundle.min.js").toString(),
+                "line 2 is longer than 1000 characters"
+            )
+        );
+    }
+
+    /**
+     * TodoVisitor prunes the directories and skips the files ignored by
+     * the .gitignore files found along the way.
+     *
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void skipsGitignoredPaths() throws IOException {
+        final Path root = this.folder.getRoot().toPath();
+        Files.writeString(root.resolve(".gitignore"), "build/\n*.log\n");
+        Files.createDirectories(root.resolve("build/classes"));
+        Files.writeString(root.resolve("build/classes/A.java"), "class A {}");
+        Files.createDirectories(root.resolve("src"));
+        Files.writeString(root.resolve("src/.gitignore"), "!keep.log\n");
+        Files.writeString(root.resolve("src/app.log"), "log");
+        Files.writeString(root.resolve("src/keep.log"), "log");
+        final List<Todo> added = new CopyOnWriteArrayList<>();
+        final TodoVisitor visitor = new TodoVisitor(
+            this.collecting(added), null, List.of(), true
+        );
+        Files.walkFileTree(root, visitor);
+        MatcherAssert.assertThat(visitor.skippedDirectories(), Matchers.is(1));
+        MatcherAssert.assertThat(visitor.ignoredFiles(), Matchers.is(1));
+    }
+
+    /**
+     * Serializer collecting the added todos.
+     *
+     * @param added Where to collect the todos.
+     * @return TodosSerializer.
+     */
+    private TodosSerializer collecting(final List<Todo> added) {
+        return new TodosSerializer() {
+            @Override
+            public void add(final Todo... todo) {
+                added.addAll(List.of(todo));
+            }
+
+            @Override
+            public void addAll(final Collection<Todo> todos) {
+                added.addAll(todos);
+            }
+
+            @Override
+            public URI serialize() {
+                return URI.create("memory:todos");
+            }
+        };
     }
 }
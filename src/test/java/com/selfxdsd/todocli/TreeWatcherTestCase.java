@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.todocli;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link TreeWatcher}.
+ *
+ * @version $Id$
+ * @since 0.0.8
+ */
+public final class TreeWatcherTestCase {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifier (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * TreeWatcher reports everything first, then a burst of changes as one
+     * batch, leaving out the excluded directories, until it is interrupted.
+     *
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void reportsBatchesOfChanges() throws Exception {
+        final Path root = this.folder.getRoot().toPath();
+        Files.createDirectories(root.resolve("src"));
+        Files.createDirectories(root.resolve("target"));
+        final BlockingQueue<Collection<String>> batches =
+            new LinkedBlockingQueue<>();
+        final Thread watching = TreeWatcherTestCase.watching(root, batches);
+        watching.start();
+        MatcherAssert.assertThat(
+            batches.poll(1, TimeUnit.MINUTES), Matchers.contains("*")
+        );
+        Files.write(root.resolve("src").resolve("Foo.java"), List.of("foo"));
+        Files.write(root.resolve("target").resolve("Foo.class"), List.of());
+        Files.createDirectories(root.resolve("docs").resolve("api"));
+        Files.write(root.resolve("Bar.java"), List.of("bar"));
+        Files.delete(root.resolve("Bar.java"));
+        final Collection<String> batch = batches.poll(1, TimeUnit.MINUTES);
+        watching.interrupt();
+        watching.join(Duration.ofMinutes(1).toMillis());
+        MatcherAssert.assertThat(
+            batch, Matchers.hasItems("src/Foo.java", "docs", "Bar.java")
+        );
+        MatcherAssert.assertThat(
+            batch, Matchers.not(Matchers.hasItem("target/Foo.class"))
+        );
+        MatcherAssert.assertThat(watching.isAlive(), Matchers.is(false));
+    }
+
+    /**
+     * Thread watching the tree, excluding target, and queueing the batches
+     * of changes; everything is reported as "*".
+     * @param root Root of the tree.
+     * @param batches Queue of the batches.
+     * @return Thread, not started.
+     */
+    private static Thread watching(
+        final Path root, final BlockingQueue<Collection<String>> batches
+    ) {
+        return new Thread(
+            () -> {
+                try {
+                    new TreeWatcher(
+                        root, List.of("target"), Duration.ofMillis(200)
+                    ).watch(
+                        new TreeWatcher.Changes() {
+                            @Override
+                            public void all() {
+                                batches.add(List.of("*"));
+                            }
+
+                            @Override
+                            public void changed(
+                                final Collection<String> paths
+                            ) {
+                                batches.add(paths);
+                            }
+                        }
+                    );
+                } catch (final IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            }
+        );
+    }
+}